@@ -0,0 +1,78 @@
+package bookservice.util;
+
+import bookservice.dto.BookDTO;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.validation.BeanPropertyBindingResult;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BookDTOValidator} against Hibernate Validator running the
+ * annotations on {@link BookDTO}, for a valid book and one with a bad price.
+ * Built only with the {@code jmh} profile:
+ * <pre>
+ * mvn -Pjmh test-compile dependency:build-classpath -Dmdep.outputFile=target/jmh.classpath
+ * java -cp target/test-classes:target/classes:$(cat target/jmh.classpath) org.openjdk.jmh.Main BookValidationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookValidationBenchmark {
+
+    @Param({"19.99", "-0.01"})
+    public double price;
+
+    private final BookDTOValidator validator = new BookDTOValidator();
+    private ValidatorFactory factory;
+    private Validator annotations;
+    private BookDTO book;
+
+    @Setup
+    public void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        annotations = factory.getValidator();
+        book = new BookDTO();
+        book.setIsbn("978-0-00-000000-0");
+        book.setTitle("Title");
+        book.setAuthor("Author");
+        book.setDescription("Description");
+        book.setGenre("Fiction");
+        book.setPrice(price);
+        book.setQuantity(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Object handWritten() {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(book, "bookDTO");
+        validator.validate(book, errors);
+        return errors;
+    }
+
+    @Benchmark
+    public Object hibernateValidator() {
+        return annotations.validate(book);
+    }
+}
@@ -2,8 +2,10 @@ package bookservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+@SpringBootApplication(scanBasePackages = {"bookservice", "bookstore.audit", "bookstore.sqllog"})
+@EnableScheduling
 public class BookServiceApplication {
 
     public static void main(String[] args) {
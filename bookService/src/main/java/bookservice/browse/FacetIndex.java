@@ -0,0 +1,286 @@
+package bookservice.browse;
+
+import bookservice.dto.BookPatch;
+import bookservice.entity.Book;
+import bookservice.store.BookStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet index over books. Each book gets a dense doc id, and each
+ * genre, price band and the in-stock flag is a bitmap over those ids, so
+ * filtering and facet counting are bitmap intersections. Genres match
+ * case-insensitively and are shown as first indexed.
+ */
+@Component
+public class FacetIndex {
+
+    static final double[] PRICE_BOUNDS = {10, 20, 30, 50, 100};
+    static final String[] PRICE_BANDS = {"0-10", "10-20", "20-30", "30-50", "50-100", "100+"};
+
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final List<String> isbns = new ArrayList<>();
+    private final List<String> genres = new ArrayList<>();
+    private double[] prices = new double[1024];
+    private final BitSet live = new BitSet();
+    private final BitSet inStock = new BitSet();
+    private final Map<String, BitSet> byGenre = new TreeMap<>();
+    private final Map<String, String> genreLabels = new HashMap<>();
+    private final BitSet[] byPrice = new BitSet[PRICE_BANDS.length];
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    private BookStore bookStore;
+
+    public FacetIndex() {
+        for (int i = 0; i < byPrice.length; i++) {
+            byPrice[i] = new BitSet();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Book> books = bookStore.findAll();
+        lock.writeLock().lock();
+        try {
+            docIds.clear();
+            isbns.clear();
+            genres.clear();
+            live.clear();
+            inStock.clear();
+            byGenre.clear();
+            genreLabels.clear();
+            Arrays.stream(byPrice).forEach(BitSet::clear);
+            for (Book book : books) {
+                putLocked(book.getIsbn(), book.getGenre(), book.getPrice(), book.getQuantity());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Book book) {
+        lock.writeLock().lock();
+        try {
+            putLocked(book.getIsbn(), book.getGenre(), book.getPrice(), book.getQuantity());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies only the patched genre, price and quantity of an indexed book.
+     */
+    public void patch(String isbn, BookPatch patch) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docIds.get(isbn);
+            if (doc == null) {
+                return;
+            }
+            Map<String, Object> columns = patch.getColumns();
+            String genre = columns.containsKey("genre") ? (String) columns.get("genre") : genres.get(doc);
+            Double price = columns.containsKey("price") ? (Double) columns.get("price") : prices[doc];
+            Integer quantity = columns.containsKey("quantity")
+                    ? (Integer) columns.get("quantity") : (inStock.get(doc) ? 1 : 0);
+            putLocked(isbn, genre, price, quantity);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Filters by any of {@code genreFilter}, an inclusive price range and
+     * availability (null means any), and counts every facet under the other
+     * filters so each facet shows what selecting it would return.
+     */
+    public Result browse(Collection<String> genreFilter, Double minPrice, Double maxPrice,
+                         Boolean available, int page, int size) {
+        lock.readLock().lock();
+        try {
+            BitSet genreMask = live;
+            if (genreFilter != null && !genreFilter.isEmpty()) {
+                genreMask = new BitSet();
+                for (String genre : genreFilter) {
+                    BitSet bits = byGenre.get(genreKey(genre));
+                    if (bits != null) {
+                        genreMask.or(bits);
+                    }
+                }
+            }
+            BitSet priceMask = minPrice == null && maxPrice == null ? live : priceRange(minPrice, maxPrice);
+            BitSet stockMask = live;
+            if (available != null) {
+                stockMask = (BitSet) live.clone();
+                if (available) {
+                    stockMask.and(inStock);
+                } else {
+                    stockMask.andNot(inStock);
+                }
+            }
+
+            BitSet matches = intersect(live, genreMask, priceMask, stockMask);
+            List<String> pageIsbns = new ArrayList<>(size);
+            // long so a huge page number skips everything instead of wrapping negative
+            long skip = (long) page * size;
+            for (int doc = matches.nextSetBit(0); doc >= 0 && pageIsbns.size() < size; doc = matches.nextSetBit(doc + 1)) {
+                if (skip-- <= 0) {
+                    pageIsbns.add(isbns.get(doc));
+                }
+            }
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            BitSet notGenre = intersect(live, priceMask, stockMask);
+            Map<String, Integer> genreCounts = new LinkedHashMap<>();
+            byGenre.forEach((key, bits) -> {
+                int count = intersect(bits, notGenre).cardinality();
+                if (count > 0) {
+                    genreCounts.put(genreLabels.get(key), count);
+                }
+            });
+            facets.put("genre", genreCounts);
+
+            BitSet notPrice = intersect(live, genreMask, stockMask);
+            Map<String, Integer> priceCounts = new LinkedHashMap<>();
+            for (int band = 0; band < PRICE_BANDS.length; band++) {
+                priceCounts.put(PRICE_BANDS[band], intersect(byPrice[band], notPrice).cardinality());
+            }
+            facets.put("price", priceCounts);
+
+            BitSet notStock = intersect(live, genreMask, priceMask);
+            int inStockCount = intersect(inStock, notStock).cardinality();
+            Map<String, Integer> stockCounts = new LinkedHashMap<>();
+            stockCounts.put("inStock", inStockCount);
+            stockCounts.put("outOfStock", notStock.cardinality() - inStockCount);
+            facets.put("availability", stockCounts);
+
+            return new Result(matches.cardinality(), pageIsbns, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet priceRange(Double minPrice, Double maxPrice) {
+        double min = minPrice == null ? Double.NEGATIVE_INFINITY : minPrice;
+        double max = maxPrice == null ? Double.POSITIVE_INFINITY : maxPrice;
+        BitSet mask = new BitSet();
+        for (int band = 0; band < PRICE_BANDS.length; band++) {
+            double low = band == 0 ? Double.NEGATIVE_INFINITY : PRICE_BOUNDS[band - 1];
+            double high = band == PRICE_BOUNDS.length ? Double.POSITIVE_INFINITY : PRICE_BOUNDS[band];
+            if (high <= min || low > max) {
+                continue;
+            }
+            if (low >= min && high <= max) {
+                mask.or(byPrice[band]);
+            } else {
+                // Band straddles the range edge, check the exact price
+                BitSet bits = byPrice[band];
+                for (int doc = bits.nextSetBit(0); doc >= 0; doc = bits.nextSetBit(doc + 1)) {
+                    if (prices[doc] >= min && prices[doc] <= max) {
+                        mask.set(doc);
+                    }
+                }
+            }
+        }
+        return mask;
+    }
+
+    private void putLocked(String isbn, String genre, Double price, Integer quantity) {
+        Integer doc = docIds.get(isbn);
+        if (doc == null) {
+            doc = isbns.size();
+            docIds.put(isbn, doc);
+            isbns.add(isbn);
+            genres.add(null);
+            if (doc >= prices.length) {
+                prices = Arrays.copyOf(prices, prices.length * 2);
+            }
+        } else {
+            clearDoc(doc);
+        }
+        live.set(doc);
+        genres.set(doc, genre);
+        if (genre != null) {
+            String key = genreKey(genre);
+            byGenre.computeIfAbsent(key, g -> new BitSet()).set(doc);
+            genreLabels.putIfAbsent(key, genre);
+        }
+        double value = price == null ? 0 : price;
+        prices[doc] = value;
+        byPrice[band(value)].set(doc);
+        inStock.set(doc, quantity != null && quantity > 0);
+    }
+
+    private void clearDoc(int doc) {
+        String genre = genres.get(doc);
+        if (genre != null) {
+            String key = genreKey(genre);
+            BitSet bits = byGenre.get(key);
+            bits.clear(doc);
+            if (bits.isEmpty()) {
+                byGenre.remove(key);
+                genreLabels.remove(key);
+            }
+        }
+        byPrice[band(prices[doc])].clear(doc);
+        inStock.clear(doc);
+    }
+
+    private static String genreKey(String genre) {
+        return genre.toLowerCase(Locale.ROOT);
+    }
+
+    private static int band(double price) {
+        int band = 0;
+        while (band < PRICE_BOUNDS.length && price >= PRICE_BOUNDS[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    private static BitSet intersect(BitSet first, BitSet... rest) {
+        BitSet result = (BitSet) first.clone();
+        for (BitSet bits : rest) {
+            result.and(bits);
+        }
+        return result;
+    }
+
+    public static class Result {
+        private final int total;
+        private final List<String> isbns;
+        private final Map<String, Map<String, Integer>> facets;
+
+        Result(int total, List<String> isbns, Map<String, Map<String, Integer>> facets) {
+            this.total = total;
+            this.isbns = isbns;
+            this.facets = facets;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public List<String> getIsbns() {
+            return isbns;
+        }
+
+        public Map<String, Map<String, Integer>> getFacets() {
+            return facets;
+        }
+    }
+}
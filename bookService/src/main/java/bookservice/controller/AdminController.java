@@ -0,0 +1,53 @@
+package bookservice.controller;
+
+import bookservice.hotkeys.HotBookCache;
+import bookservice.pool.PoolController;
+import bookstore.sqllog.SlowQueryLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    @Autowired
+    private HotBookCache hotBookCache;
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    // No connection pool in the embedded profile
+    @Autowired(required = false)
+    private PoolController poolController;
+
+    @GetMapping("/hot-books")
+    public ResponseEntity<List<Map<String, Object>>> getHotBooks() {
+        return ResponseEntity.ok(hotBookCache.hotSet());
+    }
+
+    @GetMapping("/sql")
+    public ResponseEntity<List<Map<String, Object>>> getSqlStats() {
+        return ResponseEntity.ok(slowQueryLog.snapshot());
+    }
+
+    @GetMapping("/pool")
+    public ResponseEntity<Map<String, Object>> getPool() {
+        if (poolController == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(poolController.snapshot());
+    }
+
+    @DeleteMapping("/sql")
+    public ResponseEntity<Void> resetSqlStats() {
+        slowQueryLog.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,60 @@
+package bookservice.controller;
+
+import bookservice.dto.BulkMutationDTO;
+import bookservice.service.BulkMutationService;
+import bookservice.service.CatalogImportService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Book endpoints that run set-based SQL against MySQL (bulk mutation, catalog
+ * import), so they are not available in the embedded profile.
+ */
+@RestController
+@Profile("!embedded")
+@RequestMapping("/books")
+public class BookBulkController {
+
+    @Autowired
+    private BulkMutationService bulkMutationService;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @PostMapping("/bulk")
+    public ResponseEntity<?> bulkMutate(@Valid @RequestBody BulkMutationDTO mutation) {
+        if (mutation.getFilter().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "At least one filter is required."));
+        }
+        if (!mutation.getOperation().getOp().equals("add") && mutation.getOperation().getValue() < 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Value cannot be negative for set or multiply."));
+        }
+        double value = mutation.getOperation().getValue();
+        if (!Double.isFinite(value) || Math.abs(value) > BulkMutationService.limit(mutation.getOperation().getField())) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Value is out of range for " + mutation.getOperation().getField() + "."));
+        }
+        return ResponseEntity.ok(bulkMutationService.apply(mutation));
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/json", "application/x-ndjson"})
+    public ResponseEntity<?> importCatalog(InputStream feed) throws IOException {
+        try {
+            return ResponseEntity.ok(catalogImportService.importFeed(feed));
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Malformed feed: " + e.getOriginalMessage()));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package bookservice.controller;
+
+import bookservice.dto.BookChangeKeysDTO;
+import bookservice.sync.BookChangeLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delta-sync feed of book writes, read by mobile catalog replicas and by the
+ * BFFs to invalidate their caches.
+ */
+@RestController
+@Profile("!embedded")
+@RequestMapping("/books/changes")
+public class BookChangesController {
+
+    @Autowired
+    private BookChangeLog bookChangeLog;
+
+    /**
+     * {@code since=latest} returns no changes and the current token, for
+     * clients that only need changes from now on.
+     */
+    @GetMapping
+    public ResponseEntity<?> getChanges(@RequestParam(defaultValue = "0") String since,
+                                        @RequestParam(defaultValue = "100") int limit) {
+        if ("latest".equals(since)) {
+            return ResponseEntity.ok(bookChangeLog.latest());
+        }
+        long sinceSeq = parseToken(since);
+        if (sinceSeq < 0 || limit < 1) {
+            return invalidToken();
+        }
+        return ResponseEntity.ok(bookChangeLog.changesSince(sinceSeq, Math.min(limit, 1000)));
+    }
+
+    /**
+     * The feed as ISBNs and sequence numbers only, for caches that just need
+     * to know what to drop. Takes the same tokens as {@link #getChanges}.
+     */
+    @GetMapping("/isbns")
+    public ResponseEntity<?> getChangedIsbns(@RequestParam(defaultValue = "0") String since,
+                                             @RequestParam(defaultValue = "1000") int limit) {
+        if ("latest".equals(since)) {
+            return ResponseEntity.ok(new BookChangeKeysDTO(List.of(), bookChangeLog.latest().getNextToken(), false));
+        }
+        long sinceSeq = parseToken(since);
+        if (sinceSeq < 0 || limit < 1) {
+            return invalidToken();
+        }
+        return ResponseEntity.ok(bookChangeLog.keysSince(sinceSeq, Math.min(limit, 10000)));
+    }
+
+    private static long parseToken(String since) {
+        try {
+            return Long.parseLong(since);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static ResponseEntity<?> invalidToken() {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Invalid sync token."));
+    }
+}
@@ -1,51 +1,212 @@
 package bookservice.controller;
 
+import bookservice.browse.FacetIndex;
 import bookservice.dto.BookDTO;
+import bookservice.dto.BookFields;
+import bookservice.dto.BookPatch;
+import bookservice.dto.BrowseDTO;
 import bookservice.entity.Book;
-import bookservice.repository.BookRepository;
+import bookservice.exception.WriteQueueFullException;
+import bookservice.hotkeys.HotBookCache;
+import bookservice.related.RelatedBook;
+import bookservice.related.RelatedIndex;
+import bookservice.search.SuggestIndex;
+import bookservice.search.Suggestion;
+import bookservice.service.BookIndexes;
+import bookservice.service.BookService;
+import bookservice.store.BookStore;
+import bookservice.sync.MerkleIndex;
+import bookservice.util.BookDTOValidator;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/books")
 public class BookController {
 
     @Autowired
-    private BookRepository bookRepository;
+    private BookStore bookStore;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookIndexes bookIndexes;
+
+    @Autowired
+    private SuggestIndex suggestIndex;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private HotBookCache hotBookCache;
+
+    @Autowired
+    private MerkleIndex merkleIndex;
+
+    @Autowired
+    private RelatedIndex relatedIndex;
+
+    @Autowired
+    private BookDTOValidator bookDTOValidator;
+
+    @InitBinder("bookDTO")
+    public void initBookBinder(WebDataBinder binder) {
+        binder.setValidator(bookDTOValidator);
+    }
 
     @PostMapping
     public ResponseEntity<?> addBook(@Valid @RequestBody BookDTO bookDTO) {
-        if (bookRepository.existsById(bookDTO.getIsbn())) {
+        Book savedBook;
+        try {
+            savedBook = bookService.create(new Book(bookDTO));
+        } catch (DuplicateKeyException e) {
             return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
                     .body(Map.of("message", "This ISBN already exists in the system."));
+        } catch (WriteQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("message", e.getMessage()));
         }
-        Book book = new Book(bookDTO);
-        Book savedBook = bookRepository.save(book);
+        bookIndexes.written(savedBook);
         return ResponseEntity.status(HttpStatus.CREATED)
                 .header("Location", "/books/" + savedBook.getIsbn())
                 .body(new BookDTO(savedBook));
     }
 
     @PutMapping("/{isbn}")
-    public ResponseEntity<BookDTO> updateBook(@PathVariable String isbn, @Valid @RequestBody BookDTO bookDTO) {
-        if (!bookRepository.existsById(isbn)) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<?> updateBook(@PathVariable String isbn, @Valid @RequestBody BookDTO bookDTO) {
         Book book = new Book(bookDTO);
         book.setIsbn(isbn);
-        Book updatedBook = bookRepository.save(book);
+        Book updatedBook;
+        try {
+            updatedBook = bookService.update(book);
+        } catch (WriteQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("message", e.getMessage()));
+        }
+        if (updatedBook == null) {
+            return ResponseEntity.notFound().build();
+        }
+        bookIndexes.written(updatedBook);
         return ResponseEntity.ok(new BookDTO(updatedBook));
     }
 
+    @PatchMapping(value = "/{isbn}", consumes = {"application/merge-patch+json", "application/json"})
+    public ResponseEntity<?> patchBook(@PathVariable String isbn, @RequestBody JsonNode body) {
+        BookPatch patch;
+        try {
+            patch = BookPatch.from(body, isbn);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage()));
+        }
+        if (patch.isEmpty()) {
+            return bookStore.existsById(isbn)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        }
+        if (!bookService.patch(isbn, patch)) {
+            return ResponseEntity.notFound().build();
+        }
+        bookIndexes.patched(isbn, patch);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/browse")
+    public ResponseEntity<BrowseDTO> browse(@RequestParam(required = false) List<String> genre,
+                                            @RequestParam(required = false) Double minPrice,
+                                            @RequestParam(required = false) Double maxPrice,
+                                            @RequestParam(required = false) Boolean inStock,
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.min(size, 100);
+        FacetIndex.Result result = facetIndex.browse(genre, minPrice, maxPrice, inStock, page, pageSize);
+        Map<String, Book> books = new HashMap<>();
+        bookStore.findAllById(result.getIsbns()).forEach(book -> books.put(book.getIsbn(), book));
+        List<BookDTO> pageBooks = result.getIsbns().stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .map(BookDTO::new)
+                .toList();
+        return ResponseEntity.ok(new BrowseDTO(result.getTotal(), page, pageSize, pageBooks, result.getFacets()));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(@RequestParam String prefix,
+                                                    @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestIndex.suggest(prefix, Math.min(limit, SuggestIndex.TOP_K)));
+    }
+
+    @GetMapping("/suggest/stats")
+    public ResponseEntity<Map<String, Object>> getSuggestStats() {
+        return ResponseEntity.ok(suggestIndex.stats());
+    }
+
+    @GetMapping("/merkle")
+    public ResponseEntity<Map<String, Object>> getMerkleNode(@RequestParam(defaultValue = "") String range) {
+        return ResponseEntity.ok(merkleIndex.node(range));
+    }
+
+    @GetMapping("/{isbn}/related")
+    public ResponseEntity<List<RelatedBook>> getRelated(@PathVariable String isbn,
+                                                        @RequestParam(defaultValue = "10") int limit) {
+        List<RelatedBook> related = relatedIndex.related(isbn, Math.max(limit, 0));
+        if (related != null) {
+            return ResponseEntity.ok(related);
+        }
+        // Not indexed yet (added since the last refresh) or unknown
+        return bookStore.existsById(isbn)
+                ? ResponseEntity.ok(List.of())
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * With {@code fields}, only those members are returned; a hot book is
+     * cut down from the cache, anything else selects just those columns.
+     */
     @GetMapping({"/isbn/{isbn}", "/{isbn}"})
-    public ResponseEntity<BookDTO> getBook(@PathVariable String isbn) {
-        return bookRepository.findById(isbn)
-                .map(book -> ResponseEntity.ok(new BookDTO(book)))
+    public ResponseEntity<?> getBook(@PathVariable String isbn, @RequestParam(required = false) String fields) {
+        BookDTO cached = hotBookCache.get(isbn);
+        if (fields != null) {
+            BookFields bookFields;
+            try {
+                bookFields = BookFields.parse(fields);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("message", e.getMessage()));
+            }
+            if (cached != null) {
+                return ResponseEntity.ok(bookFields.project(cached));
+            }
+            return bookStore.findFields(isbn, bookFields)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        if (cached != null) {
+            return ResponseEntity.ok(cached);
+        }
+        long stamp = hotBookCache.stamp(isbn);
+        return bookStore.findById(isbn)
+                .map(book -> {
+                    BookDTO bookDTO = new BookDTO(book);
+                    hotBookCache.put(isbn, bookDTO, stamp);
+                    return ResponseEntity.ok(bookDTO);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
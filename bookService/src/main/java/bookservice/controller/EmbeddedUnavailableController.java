@@ -0,0 +1,28 @@
+package bookservice.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * With embedded storage the endpoints that need MySQL are not mapped. This
+ * answers them with 501 and a message instead of a 404 (or, for
+ * {@code GET /books/changes}, a "book not found"), so clients such as the
+ * BFFs' cache invalidation can tell the feature is off.
+ */
+@RestController
+@Profile("embedded")
+public class EmbeddedUnavailableController {
+
+    @RequestMapping({"/books/changes", "/books/changes/**", "/books/bulk", "/books/import", "/orders", "/orders/**"})
+    public ResponseEntity<?> unavailable(HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED)
+                .body(Map.of("message", request.getRequestURI()
+                        + " needs MySQL and is not available with embedded storage."));
+    }
+}
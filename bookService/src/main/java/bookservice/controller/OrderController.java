@@ -0,0 +1,59 @@
+package bookservice.controller;
+
+import bookservice.dto.OrderDTO;
+import bookservice.entity.Order;
+import bookservice.entity.OrderLine;
+import bookservice.exception.OrderRejectedException;
+import bookservice.repository.BookRepository;
+import bookservice.repository.OrderRepository;
+import bookservice.service.BookIndexes;
+import bookservice.service.OrderService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@Profile("!embedded")
+@RequestMapping("/orders")
+public class OrderController {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookIndexes bookIndexes;
+
+    @PostMapping
+    public ResponseEntity<?> placeOrder(@Valid @RequestBody OrderDTO orderDTO) {
+        Order savedOrder;
+        try {
+            savedOrder = orderService.placeOrder(orderDTO);
+        } catch (OrderRejectedException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(Map.of("message", e.getMessage()));
+        }
+        bookIndexes.written(bookRepository.findAllById(
+                savedOrder.getLines().stream().map(OrderLine::getIsbn).toList()));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header("Location", "/orders/" + savedOrder.getId())
+                .body(new OrderDTO(savedOrder));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<OrderDTO> getOrder(@PathVariable Long id) {
+        return orderRepository.findWithLinesById(id)
+                .map(order -> ResponseEntity.ok(new OrderDTO(order)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
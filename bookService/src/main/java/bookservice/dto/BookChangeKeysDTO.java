@@ -0,0 +1,75 @@
+package bookservice.dto;
+
+import java.util.List;
+
+/**
+ * A page of the change feed without the books themselves: which ISBNs were
+ * written, under which sequence number. Enough for a cache to invalidate.
+ */
+public class BookChangeKeysDTO {
+    private List<Key> changes;
+    private String nextToken;
+    private boolean hasMore;
+
+    public BookChangeKeysDTO() {}
+
+    public BookChangeKeysDTO(List<Key> changes, String nextToken, boolean hasMore) {
+        this.changes = changes;
+        this.nextToken = nextToken;
+        this.hasMore = hasMore;
+    }
+
+    // Getters
+    public List<Key> getChanges() {
+        return changes;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    // Setters
+    public void setChanges(List<Key> changes) {
+        this.changes = changes;
+    }
+
+    public void setNextToken(String nextToken) {
+        this.nextToken = nextToken;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public static class Key {
+        private String isbn;
+        private long seq;
+
+        public Key() {}
+
+        public Key(String isbn, long seq) {
+            this.isbn = isbn;
+            this.seq = seq;
+        }
+
+        public String getIsbn() {
+            return isbn;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public void setIsbn(String isbn) {
+            this.isbn = isbn;
+        }
+
+        public void setSeq(long seq) {
+            this.seq = seq;
+        }
+    }
+}
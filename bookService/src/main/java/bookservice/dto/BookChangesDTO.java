@@ -0,0 +1,53 @@
+package bookservice.dto;
+
+import java.util.List;
+
+public class BookChangesDTO {
+    private List<BookDTO> changed;
+    private List<String> deleted;
+    private String nextToken;
+    private boolean hasMore;
+
+    public BookChangesDTO() {}
+
+    public BookChangesDTO(List<BookDTO> changed, List<String> deleted, String nextToken, boolean hasMore) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.nextToken = nextToken;
+        this.hasMore = hasMore;
+    }
+
+    // Getters
+    public List<BookDTO> getChanged() {
+        return changed;
+    }
+
+    public List<String> getDeleted() {
+        return deleted;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    // Setters
+    public void setChanged(List<BookDTO> changed) {
+        this.changed = changed;
+    }
+
+    public void setDeleted(List<String> deleted) {
+        this.deleted = deleted;
+    }
+
+    public void setNextToken(String nextToken) {
+        this.nextToken = nextToken;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
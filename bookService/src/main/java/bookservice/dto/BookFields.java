@@ -0,0 +1,82 @@
+package bookservice.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@code fields=} selection for book reads: the {@link BookDTO} field
+ * names a client asked for, in the order given, mapped to the entity
+ * attributes to select. Reads with a selection return only those members,
+ * and the store fetches only those columns.
+ */
+public class BookFields {
+    private final List<String> names = new ArrayList<>();
+    private final List<String> attributes = new ArrayList<>();
+
+    private BookFields() {}
+
+    /**
+     * Parses a comma-separated list of field names. Repeats are ignored;
+     * an unknown or empty list is rejected with {@link IllegalArgumentException}.
+     */
+    public static BookFields parse(String fields) {
+        BookFields bookFields = new BookFields();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty() || bookFields.names.contains(name)) {
+                continue;
+            }
+            String attribute = switch (name) {
+                case "ISBN" -> "isbn";
+                case "Author" -> "author";
+                case "title", "description", "genre", "price", "quantity" -> name;
+                default -> throw new IllegalArgumentException("Unknown field " + name + ".");
+            };
+            bookFields.names.add(name);
+            bookFields.attributes.add(attribute);
+        }
+        if (bookFields.names.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one field.");
+        }
+        return bookFields;
+    }
+
+    /**
+     * Entity attribute names, in the same order as {@link #project(Object[])} expects values.
+     */
+    public List<String> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * The selected members of an already loaded book.
+     */
+    public Map<String, Object> project(BookDTO book) {
+        Map<String, Object> projection = new LinkedHashMap<>();
+        for (String name : names) {
+            projection.put(name, switch (name) {
+                case "ISBN" -> book.getIsbn();
+                case "title" -> book.getTitle();
+                case "Author" -> book.getAuthor();
+                case "description" -> book.getDescription();
+                case "genre" -> book.getGenre();
+                case "price" -> book.getPrice();
+                default -> book.getQuantity();
+            });
+        }
+        return projection;
+    }
+
+    /**
+     * The selected members from a row of {@link #getAttributes()} values.
+     */
+    public Map<String, Object> project(Object[] values) {
+        Map<String, Object> projection = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            projection.put(names.get(i), values[i]);
+        }
+        return projection;
+    }
+}
@@ -0,0 +1,97 @@
+package bookservice.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JSON Merge Patch (RFC 7396) for a book, turned into the column values to
+ * write. Field names match {@link BookDTO}. Every column is NOT NULL, so a
+ * null member is rejected instead of clearing the field.
+ */
+public class BookPatch {
+    private final Map<String, Object> columns = new LinkedHashMap<>();
+
+    private BookPatch() {}
+
+    public static BookPatch from(JsonNode patch, String isbn) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Patch must be a JSON object.");
+        }
+        BookPatch bookPatch = new BookPatch();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String name = field.getKey();
+            JsonNode value = field.getValue();
+            if (value.isNull()) {
+                throw new IllegalArgumentException(name + " cannot be null.");
+            }
+            switch (name) {
+                case "ISBN" -> {
+                    if (!value.isTextual() || !value.asText().equals(isbn)) {
+                        throw new IllegalArgumentException("ISBN cannot be changed.");
+                    }
+                }
+                case "title", "description", "genre" -> bookPatch.columns.put(name, text(name, value));
+                case "Author" -> bookPatch.columns.put("author", text(name, value));
+                case "price" -> bookPatch.columns.put("price", price(value));
+                case "quantity" -> {
+                    if (!value.canConvertToInt() || !value.isIntegralNumber()) {
+                        throw new IllegalArgumentException("quantity must be an integer.");
+                    }
+                    bookPatch.columns.put("quantity", value.intValue());
+                }
+                default -> throw new IllegalArgumentException("Unknown field " + name + ".");
+            }
+        }
+        return bookPatch;
+    }
+
+    /**
+     * A patch of one column whose value is already known to be valid, such as
+     * one read back after a bulk UPDATE.
+     */
+    public static BookPatch of(String column, Object value) {
+        BookPatch bookPatch = new BookPatch();
+        bookPatch.columns.put(column, value);
+        return bookPatch;
+    }
+
+    private static String text(String name, JsonNode value) {
+        if (!value.isTextual()) {
+            throw new IllegalArgumentException(name + " must be a string.");
+        }
+        return value.asText();
+    }
+
+    // Same bounds as @DecimalMin("0.00") @Digits(integer = 10, fraction = 2) on BookDTO.price
+    private static Double price(JsonNode value) {
+        if (!value.isNumber()) {
+            throw new IllegalArgumentException("price must be a number.");
+        }
+        BigDecimal price = value.decimalValue().stripTrailingZeros();
+        if (price.signum() < 0 || Math.max(price.scale(), 0) > 2 || price.precision() - price.scale() > 10) {
+            throw new IllegalArgumentException("price must be between 0.00 and 9999999999.99 with at most 2 decimals.");
+        }
+        return price.doubleValue();
+    }
+
+    /**
+     * Column name to new value, in the order the fields were supplied.
+     */
+    public Map<String, Object> getColumns() {
+        return columns;
+    }
+
+    public boolean isEmpty() {
+        return columns.isEmpty();
+    }
+
+    public boolean touches(String column) {
+        return columns.containsKey(column);
+    }
+}
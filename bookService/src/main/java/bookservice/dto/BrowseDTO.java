@@ -0,0 +1,64 @@
+package bookservice.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class BrowseDTO {
+    private int total;
+    private int page;
+    private int size;
+    private List<BookDTO> books;
+    private Map<String, Map<String, Integer>> facets;
+
+    public BrowseDTO() {}
+
+    public BrowseDTO(int total, int page, int size, List<BookDTO> books, Map<String, Map<String, Integer>> facets) {
+        this.total = total;
+        this.page = page;
+        this.size = size;
+        this.books = books;
+        this.facets = facets;
+    }
+
+    // Getters
+    public int getTotal() {
+        return total;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public List<BookDTO> getBooks() {
+        return books;
+    }
+
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+
+    // Setters
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public void setBooks(List<BookDTO> books) {
+        this.books = books;
+    }
+
+    public void setFacets(Map<String, Map<String, Integer>> facets) {
+        this.facets = facets;
+    }
+}
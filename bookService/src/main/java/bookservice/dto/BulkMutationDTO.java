@@ -0,0 +1,131 @@
+package bookservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+import java.util.List;
+
+public class BulkMutationDTO {
+    @NotNull
+    @Valid
+    private Filter filter;
+    @NotNull
+    @Valid
+    private Operation operation;
+
+    public BulkMutationDTO() {}
+
+    // Getters
+    public Filter getFilter() {
+        return filter;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    // Setters
+    public void setFilter(Filter filter) {
+        this.filter = filter;
+    }
+
+    public void setOperation(Operation operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * Books to change. All supplied criteria must match; at least one is required.
+     */
+    public static class Filter {
+        private String genre;
+        private String author;
+        private List<String> isbns;
+        private String isbnFrom;
+        private String isbnTo;
+
+        public boolean isEmpty() {
+            return genre == null && author == null && (isbns == null || isbns.isEmpty())
+                    && isbnFrom == null && isbnTo == null;
+        }
+
+        // Getters
+        public String getGenre() {
+            return genre;
+        }
+
+        public String getAuthor() {
+            return author;
+        }
+
+        public List<String> getIsbns() {
+            return isbns;
+        }
+
+        public String getIsbnFrom() {
+            return isbnFrom;
+        }
+
+        public String getIsbnTo() {
+            return isbnTo;
+        }
+
+        // Setters
+        public void setGenre(String genre) {
+            this.genre = genre;
+        }
+
+        public void setAuthor(String author) {
+            this.author = author;
+        }
+
+        public void setIsbns(List<String> isbns) {
+            this.isbns = isbns;
+        }
+
+        public void setIsbnFrom(String isbnFrom) {
+            this.isbnFrom = isbnFrom;
+        }
+
+        public void setIsbnTo(String isbnTo) {
+            this.isbnTo = isbnTo;
+        }
+    }
+
+    public static class Operation {
+        @NotNull
+        @Pattern(regexp = "price|quantity")
+        private String field;
+        @NotNull
+        @Pattern(regexp = "set|multiply|add")
+        private String op;
+        @NotNull
+        private Double value;
+
+        // Getters
+        public String getField() {
+            return field;
+        }
+
+        public String getOp() {
+            return op;
+        }
+
+        public Double getValue() {
+            return value;
+        }
+
+        // Setters
+        public void setField(String field) {
+            this.field = field;
+        }
+
+        public void setOp(String op) {
+            this.op = op;
+        }
+
+        public void setValue(Double value) {
+            this.value = value;
+        }
+    }
+}
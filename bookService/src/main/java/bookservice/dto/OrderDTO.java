@@ -0,0 +1,61 @@
+package bookservice.dto;
+
+import bookservice.entity.Order;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+import java.util.List;
+
+public class OrderDTO {
+    private Long id;
+    @NotNull
+    private Long customerId;
+    private Instant createdAt;
+    @NotEmpty
+    private List<@Valid @NotNull OrderLineDTO> lines;
+
+    public OrderDTO() {}
+
+    public OrderDTO(Order order) {
+        this.id = order.getId();
+        this.customerId = order.getCustomerId();
+        this.createdAt = order.getCreatedAt();
+        this.lines = order.getLines().stream().map(OrderLineDTO::new).toList();
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<OrderLineDTO> getLines() {
+        return lines;
+    }
+
+    // Setters
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public void setLines(List<OrderLineDTO> lines) {
+        this.lines = lines;
+    }
+}
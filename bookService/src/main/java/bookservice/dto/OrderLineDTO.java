@@ -0,0 +1,40 @@
+package bookservice.dto;
+
+import bookservice.entity.OrderLine;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public class OrderLineDTO {
+    @NotNull
+    @JsonProperty("ISBN")
+    private String isbn;
+    @NotNull
+    @Min(1)
+    private Integer quantity;
+
+    public OrderLineDTO() {}
+
+    public OrderLineDTO(OrderLine line) {
+        this.isbn = line.getIsbn();
+        this.quantity = line.getQuantity();
+    }
+
+    // Getters
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    // Setters
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
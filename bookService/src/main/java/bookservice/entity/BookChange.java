@@ -0,0 +1,68 @@
+package bookservice.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Entity
+@Table(name = "book_changes", indexes = {
+        @Index(name = "idx_book_changes_isbn", columnList = "isbn"),
+        @Index(name = "idx_book_changes_published", columnList = "published", unique = true)
+})
+public class BookChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+    private String isbn;
+    private Instant changedAt;
+    // Sync token, assigned after commit by BookChangeLog.publish()
+    private Long published;
+
+    public BookChange() {}
+
+    public BookChange(String isbn) {
+        this.isbn = isbn;
+        this.changedAt = Instant.now();
+    }
+
+    // Getters
+    public Long getSeq() {
+        return seq;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public Long getPublished() {
+        return published;
+    }
+
+    // Setters
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public void setChangedAt(Instant changedAt) {
+        this.changedAt = changedAt;
+    }
+
+    public void setPublished(Long published) {
+        this.published = published;
+    }
+}
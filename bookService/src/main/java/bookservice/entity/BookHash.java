@@ -0,0 +1,41 @@
+package bookservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Content hash of the catalog feed row last applied to a book, used by the
+ * diff import to skip rows that have not changed.
+ */
+@Data
+@Entity
+@Table(name = "book_hashes")
+public class BookHash {
+    @Id
+    private String isbn;
+    @Column(nullable = false)
+    private Long contentHash;
+
+    public BookHash() {}
+
+    // Getters
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public Long getContentHash() {
+        return contentHash;
+    }
+
+    // Setters
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public void setContentHash(Long contentHash) {
+        this.contentHash = contentHash;
+    }
+}
@@ -0,0 +1,7 @@
+package bookservice.exception;
+
+public class OrderRejectedException extends RuntimeException {
+    public OrderRejectedException(String message) {
+        super(message);
+    }
+}
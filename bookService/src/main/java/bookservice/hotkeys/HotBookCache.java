@@ -0,0 +1,43 @@
+package bookservice.hotkeys;
+
+import bookservice.dto.BookDTO;
+import bookservice.store.BookStore;
+import bookstore.hotkeys.HotCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Book read cache with the current heavy hitters pinned, keyed by ISBN. Hot
+ * books are re-loaded from the store on every refresh. Local writes
+ * invalidate it through {@code BookIndexes}, and writes through other
+ * instances through {@code BookChangeFollower}.
+ */
+@Component
+public class HotBookCache extends HotCache<BookDTO> {
+
+    @Autowired
+    private BookStore bookStore;
+
+    public HotBookCache(@Value("${hotkeys.sketch.width:4096}") int width,
+                        @Value("${hotkeys.sketch.depth:4}") int depth,
+                        @Value("${hotkeys.hot-size:100}") int hotSize,
+                        @Value("${hotkeys.min-hits:20}") long minHits,
+                        @Value("${hotkeys.cache.capacity:10000}") int capacity,
+                        @Value("${hotkeys.cache.ttl-ms:300000}") long ttlMillis) {
+        super(width, depth, hotSize, minHits, capacity, ttlMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${hotkeys.refresh-interval-ms:10000}")
+    public void refresh() {
+        refresh(isbn -> bookStore.findById(isbn).map(BookDTO::new).orElse(null));
+    }
+
+    public List<Map<String, Object>> hotSet() {
+        return hotSet("ISBN");
+    }
+}
@@ -0,0 +1,200 @@
+package bookservice.pool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resizes the Hikari pool between {@code pool.controller.min-size} and
+ * {@code max-size} from what the last interval looked like. Waiting threads,
+ * timeouts or a mean acquire time over target grow the pool by a quarter.
+ * If a grow does not cut acquire time by {@code min-improvement}, the
+ * current size becomes a ceiling for {@code plateau-hold-intervals}, since
+ * the bottleneck is then the database rather than the pool. A pool whose
+ * peak usage stays under {@code shrink-utilization} for
+ * {@code shrink-after-intervals} shrinks by a quarter; Hikari closes the
+ * surplus idle connections once they pass idle-timeout.
+ */
+@Component
+@Profile("!embedded")
+public class PoolController {
+
+    private static final Logger log = LoggerFactory.getLogger(PoolController.class);
+    private static final int MAX_DECISIONS = 50;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${pool.controller.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pool.controller.min-size:2}")
+    private int minSize;
+
+    @Value("${pool.controller.max-size:20}")
+    private int maxSize;
+
+    @Value("${pool.controller.target-acquire-ms:5}")
+    private double targetAcquireMillis;
+
+    @Value("${pool.controller.min-improvement:0.1}")
+    private double minImprovement;
+
+    @Value("${pool.controller.plateau-hold-intervals:12}")
+    private int plateauHoldIntervals;
+
+    @Value("${pool.controller.shrink-utilization:0.5}")
+    private double shrinkUtilization;
+
+    @Value("${pool.controller.shrink-after-intervals:6}")
+    private int shrinkAfterIntervals;
+
+    private final PoolUsageTracker tracker = new PoolUsageTracker();
+    private final Deque<Map<String, Object>> decisions = new ArrayDeque<>();
+    private HikariDataSource hikari;
+    private long grows;
+    private long shrinks;
+    private long plateaus;
+    private int grewFrom;
+    private double acquireBeforeGrow;
+    private int ceiling = Integer.MAX_VALUE;
+    private int ceilingAge;
+    private int quietIntervals;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            hikari = dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            log.warn("Pool controller disabled: data source is not a Hikari pool");
+            return;
+        }
+        if (hikari.getMetricsTrackerFactory() != null) {
+            log.warn("Pool controller disabled: Hikari already has a metrics tracker");
+            hikari = null;
+            return;
+        }
+        hikari.setMetricsTrackerFactory(tracker);
+        int size = Math.max(minSize, Math.min(maxSize, hikari.getMaximumPoolSize()));
+        hikari.getHikariConfigMXBean().setMinimumIdle(Math.min(minSize, size));
+        hikari.getHikariConfigMXBean().setMaximumPoolSize(size);
+    }
+
+    @Scheduled(fixedDelayString = "${pool.controller.interval-ms:5000}")
+    public synchronized void adjust() {
+        HikariPoolMXBean pool = hikari == null ? null : hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return;
+        }
+        PoolUsageTracker.Window window = tracker.drain();
+        int pending = pool.getThreadsAwaitingConnection();
+        int size = hikari.getMaximumPoolSize();
+        boolean pressured = pending > 0 || window.timeouts > 0 || window.avgAcquireMillis > targetAcquireMillis;
+
+        if (grewFrom > 0) {
+            if (pressured && window.acquires > 0
+                    && window.avgAcquireMillis > acquireBeforeGrow * (1 - minImprovement)) {
+                ceiling = size;
+                ceilingAge = 0;
+                plateaus++;
+                record(size, size, "plateau", window, pending);
+            }
+            grewFrom = 0;
+        }
+        if (ceiling != Integer.MAX_VALUE && ++ceilingAge > plateauHoldIntervals) {
+            ceiling = Integer.MAX_VALUE;
+        }
+
+        if (pressured) {
+            quietIntervals = 0;
+            int limit = Math.min(maxSize, ceiling);
+            if (size < limit) {
+                int next = Math.min(limit, size + Math.max(1, size / 4));
+                resize(size, next, "grow", window, pending);
+                grows++;
+                grewFrom = size;
+                acquireBeforeGrow = window.avgAcquireMillis;
+            }
+            return;
+        }
+        if (window.peakInUse >= size * shrinkUtilization) {
+            quietIntervals = 0;
+            return;
+        }
+        if (++quietIntervals >= shrinkAfterIntervals && size > minSize) {
+            int next = Math.max(Math.max(minSize, window.peakInUse + 1), size - Math.max(1, size / 4));
+            if (next < size) {
+                resize(size, next, "shrink", window, pending);
+                shrinks++;
+            }
+            quietIntervals = 0;
+        }
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", hikari != null);
+        if (hikari == null) {
+            return snapshot;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        snapshot.put("maximumPoolSize", hikari.getMaximumPoolSize());
+        snapshot.put("minimumIdle", hikari.getMinimumIdle());
+        snapshot.put("bounds", Map.of("min", minSize, "max", maxSize));
+        snapshot.put("ceiling", ceiling == Integer.MAX_VALUE ? null : ceiling);
+        if (pool != null) {
+            snapshot.put("active", pool.getActiveConnections());
+            snapshot.put("idle", pool.getIdleConnections());
+            snapshot.put("total", pool.getTotalConnections());
+            snapshot.put("pending", pool.getThreadsAwaitingConnection());
+        }
+        snapshot.put("grows", grows);
+        snapshot.put("shrinks", shrinks);
+        snapshot.put("plateaus", plateaus);
+        snapshot.put("decisions", new ArrayList<>(decisions));
+        return snapshot;
+    }
+
+    private void resize(int from, int to, String reason, PoolUsageTracker.Window window, int pending) {
+        hikari.getHikariConfigMXBean().setMaximumPoolSize(to);
+        record(from, to, reason, window, pending);
+        log.info("Pool {} {} -> {} (avg acquire {} ms, pending {}, peak in use {})",
+                reason, from, to, String.format("%.2f", window.avgAcquireMillis), pending, window.peakInUse);
+    }
+
+    private void record(int from, int to, String reason, PoolUsageTracker.Window window, int pending) {
+        Map<String, Object> decision = new LinkedHashMap<>();
+        decision.put("at", Instant.now().toString());
+        decision.put("decision", reason);
+        decision.put("from", from);
+        decision.put("to", to);
+        decision.put("avgAcquireMs", window.avgAcquireMillis);
+        decision.put("maxAcquireMs", window.maxAcquireMillis);
+        decision.put("timeouts", window.timeouts);
+        decision.put("pending", pending);
+        decision.put("peakInUse", window.peakInUse);
+        decisions.addFirst(decision);
+        if (decisions.size() > MAX_DECISIONS) {
+            decisions.removeLast();
+        }
+    }
+}
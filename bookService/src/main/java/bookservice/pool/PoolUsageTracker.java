@@ -0,0 +1,75 @@
+package bookservice.pool;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hikari metrics hook that accumulates acquire latency, timeouts and peak
+ * concurrent usage for the current controller window.
+ */
+class PoolUsageTracker implements MetricsTrackerFactory, IMetricsTracker {
+
+    private final LongAdder acquires = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger peakInUse = new AtomicInteger();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return this;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquires.increment();
+        acquireNanos.add(elapsedAcquiredNanos);
+        maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+        peakInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        // Connections borrowed before the tracker was installed are never counted in
+        inUse.updateAndGet(current -> Math.max(0, current - 1));
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    /**
+     * Returns the window so far and starts a new one.
+     */
+    Window drain() {
+        long count = acquires.sumThenReset();
+        long nanos = acquireNanos.sumThenReset();
+        long max = maxAcquireNanos.getAndSet(0);
+        long timedOut = timeouts.sumThenReset();
+        int peak = peakInUse.getAndSet(inUse.get());
+        return new Window(count, count == 0 ? 0 : nanos / count / 1_000_000.0, max / 1_000_000.0, timedOut, peak);
+    }
+
+    static final class Window {
+        final long acquires;
+        final double avgAcquireMillis;
+        final double maxAcquireMillis;
+        final long timeouts;
+        final int peakInUse;
+
+        Window(long acquires, double avgAcquireMillis, double maxAcquireMillis, long timeouts, int peakInUse) {
+            this.acquires = acquires;
+            this.avgAcquireMillis = avgAcquireMillis;
+            this.maxAcquireMillis = maxAcquireMillis;
+            this.timeouts = timeouts;
+            this.peakInUse = peakInUse;
+        }
+    }
+}
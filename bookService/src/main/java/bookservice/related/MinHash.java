@@ -0,0 +1,85 @@
+package bookservice.related;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures over string feature sets. The fraction of positions
+ * where two signatures agree estimates the Jaccard similarity of the sets.
+ * Signatures are split into bands for locality-sensitive bucketing: two sets
+ * share a band key with probability s^rows for similarity s.
+ */
+final class MinHash {
+
+    private final long[] seeds;
+    private final int bands;
+    private final int rows;
+
+    MinHash(int bands, int rows) {
+        this.bands = bands;
+        this.rows = rows;
+        this.seeds = new long[bands * rows];
+        SplittableRandom random = new SplittableRandom(0x5eed_b00cL);
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+    }
+
+    int[] signature(Collection<String> features) {
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String feature : features) {
+            long hash = fnv1a(feature);
+            for (int i = 0; i < seeds.length; i++) {
+                int value = (int) (mix(hash ^ seeds[i]) >>> 33);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * One key per band; the band number is folded in so equal rows in
+     * different bands do not collide.
+     */
+    long[] bandKeys(int[] signature) {
+        long[] keys = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            long key = band;
+            for (int row = 0; row < rows; row++) {
+                key = mix(key * 31 + signature[band * rows + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    static double similarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                same++;
+            }
+        }
+        return (double) same / a.length;
+    }
+
+    private static long fnv1a(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,36 @@
+package bookservice.related;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class RelatedBook {
+    @JsonProperty("ISBN")
+    private final String isbn;
+    private final String title;
+    @JsonProperty("Author")
+    private final String author;
+    private final double similarity;
+
+    public RelatedBook(String isbn, String title, String author, double similarity) {
+        this.isbn = isbn;
+        this.title = title;
+        this.author = author;
+        this.similarity = similarity;
+    }
+
+    // Getters
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public double getSimilarity() {
+        return similarity;
+    }
+}
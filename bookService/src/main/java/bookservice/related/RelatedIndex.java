@@ -0,0 +1,301 @@
+package bookservice.related;
+
+import bookservice.entity.Book;
+import bookservice.store.BookStore;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Precomputed "more like this" lists. Each book's author, genre and
+ * description terms and word pairs become a MinHash signature; LSH band
+ * buckets give candidate neighbours, which are ranked by signature agreement
+ * and the top K kept per ISBN. Signatures and neighbour lists are computed on
+ * a dedicated fork-join pool. Writes that change a book's features mark it
+ * dirty, and a periodic refresh recomputes it and every book that shared a
+ * bucket with it before or after the change.
+ */
+@Component
+public class RelatedIndex {
+
+    private static final int BANDS = 16;
+    private static final int ROWS = 4;
+    private static final int AUTHOR_WEIGHT = 4;
+    private static final int GENRE_WEIGHT = 2;
+    private static final int TASK_THRESHOLD = 256;
+
+    private static final Comparator<RelatedBook> BY_SIMILARITY = Comparator
+            .comparingDouble(RelatedBook::getSimilarity)
+            .thenComparing(RelatedBook::getIsbn, Comparator.reverseOrder());
+
+    private final MinHash minHash = new MinHash(BANDS, ROWS);
+    private final ForkJoinPool pool;
+    private final int topK;
+    private final int maxBucket;
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    private volatile ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<Long, Set<String>> buckets = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<String, List<RelatedBook>> related = new ConcurrentHashMap<>();
+
+    @Autowired
+    private BookStore bookStore;
+
+    public RelatedIndex(@Value("${related.parallelism:0}") int parallelism,
+                        @Value("${related.top-k:10}") int topK,
+                        @Value("${related.max-bucket:1000}") int maxBucket) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.topK = topK;
+        this.maxBucket = maxBucket;
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        dirty.clear();
+        List<Book> books = bookStore.findAll();
+        ConcurrentHashMap<String, Entry> nextEntries = new ConcurrentHashMap<>(books.size() * 2);
+        pool.invoke(new ForEach<>(books, 0, books.size(), book -> nextEntries.put(book.getIsbn(), entry(book))));
+
+        ConcurrentHashMap<Long, Set<String>> nextBuckets = new ConcurrentHashMap<>();
+        nextEntries.values().forEach(entry -> addToBuckets(nextBuckets, entry));
+
+        ConcurrentHashMap<String, List<RelatedBook>> nextRelated = new ConcurrentHashMap<>(books.size() * 2);
+        List<Entry> all = new ArrayList<>(nextEntries.values());
+        pool.invoke(new ForEach<>(all, 0, all.size(),
+                entry -> nextRelated.put(entry.isbn, neighbours(entry, nextEntries, nextBuckets))));
+
+        entries = nextEntries;
+        buckets = nextBuckets;
+        related = nextRelated;
+    }
+
+    /**
+     * Marks the book for the next refresh if its similarity features or
+     * displayed fields changed. Stock and price writes are ignored.
+     */
+    public void put(Book book) {
+        Entry current = entries.get(book.getIsbn());
+        if (current == null || current.fingerprint != fingerprint(book)) {
+            dirty.add(book.getIsbn());
+        }
+    }
+
+    /**
+     * Marks the book for the next refresh after a patch to one of its
+     * similarity features or displayed fields; the refresh loads it.
+     */
+    public void touched(String isbn) {
+        dirty.add(isbn);
+    }
+
+    @Scheduled(fixedDelayString = "${related.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<String> isbns = new ArrayList<>(dirty);
+        dirty.removeAll(isbns);
+        ConcurrentHashMap<String, Entry> currentEntries = entries;
+        ConcurrentHashMap<Long, Set<String>> currentBuckets = buckets;
+
+        Set<String> affected = new LinkedHashSet<>(isbns);
+        for (String isbn : isbns) {
+            Entry old = currentEntries.remove(isbn);
+            if (old != null) {
+                affected.addAll(candidates(old, currentBuckets));
+                removeFromBuckets(currentBuckets, old);
+                related.remove(isbn);
+            }
+        }
+        for (Book book : bookStore.findAllById(isbns)) {
+            Entry entry = entry(book);
+            currentEntries.put(entry.isbn, entry);
+            addToBuckets(currentBuckets, entry);
+            affected.addAll(candidates(entry, currentBuckets));
+        }
+
+        List<Entry> recompute = affected.stream().map(currentEntries::get).filter(Objects::nonNull).toList();
+        pool.invoke(new ForEach<>(recompute, 0, recompute.size(),
+                entry -> related.put(entry.isbn, neighbours(entry, currentEntries, currentBuckets))));
+    }
+
+    /**
+     * Neighbours of {@code isbn}, best first, or null if the book is not indexed.
+     */
+    public List<RelatedBook> related(String isbn, int limit) {
+        List<RelatedBook> neighbours = related.get(isbn);
+        if (neighbours == null) {
+            return null;
+        }
+        return neighbours.size() <= limit ? neighbours : neighbours.subList(0, limit);
+    }
+
+    private Entry entry(Book book) {
+        int[] signature = minHash.signature(features(book));
+        return new Entry(book.getIsbn(), book.getTitle(), book.getAuthor(), fingerprint(book),
+                signature, minHash.bandKeys(signature));
+    }
+
+    private List<RelatedBook> neighbours(Entry entry, Map<String, Entry> entries, Map<Long, Set<String>> buckets) {
+        PriorityQueue<RelatedBook> best = new PriorityQueue<>(topK + 1, BY_SIMILARITY);
+        for (String isbn : candidates(entry, buckets)) {
+            Entry other = entries.get(isbn);
+            if (other == null) {
+                continue;
+            }
+            best.add(new RelatedBook(other.isbn, other.title, other.author,
+                    MinHash.similarity(entry.signature, other.signature)));
+            if (best.size() > topK) {
+                best.poll();
+            }
+        }
+        List<RelatedBook> result = new ArrayList<>(best);
+        result.sort(BY_SIMILARITY.reversed());
+        return List.copyOf(result);
+    }
+
+    // Oversized buckets (a common genre and nothing else) are sampled up to max-bucket members
+    private Set<String> candidates(Entry entry, Map<Long, Set<String>> buckets) {
+        Set<String> candidates = new HashSet<>();
+        for (long key : entry.bandKeys) {
+            Set<String> bucket = buckets.get(key);
+            if (bucket == null) {
+                continue;
+            }
+            int taken = 0;
+            for (String isbn : bucket) {
+                if (taken++ >= maxBucket) {
+                    break;
+                }
+                candidates.add(isbn);
+            }
+        }
+        candidates.remove(entry.isbn);
+        return candidates;
+    }
+
+    private static void addToBuckets(Map<Long, Set<String>> buckets, Entry entry) {
+        for (long key : entry.bandKeys) {
+            buckets.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(entry.isbn);
+        }
+    }
+
+    private static void removeFromBuckets(Map<Long, Set<String>> buckets, Entry entry) {
+        for (long key : entry.bandKeys) {
+            buckets.computeIfPresent(key, (k, bucket) -> {
+                bucket.remove(entry.isbn);
+                return bucket.isEmpty() ? null : bucket;
+            });
+        }
+    }
+
+    static Set<String> features(Book book) {
+        Set<String> features = new HashSet<>();
+        String author = normalize(book.getAuthor());
+        if (!author.isEmpty()) {
+            for (int i = 0; i < AUTHOR_WEIGHT; i++) {
+                features.add("a" + i + ":" + author);
+            }
+        }
+        String genre = normalize(book.getGenre());
+        if (!genre.isEmpty()) {
+            for (int i = 0; i < GENRE_WEIGHT; i++) {
+                features.add("g" + i + ":" + genre);
+            }
+        }
+        String previous = null;
+        for (String term : normalize(book.getDescription()).split(" ")) {
+            if (term.length() < 3) {
+                continue;
+            }
+            features.add("t:" + term);
+            if (previous != null) {
+                features.add("s:" + previous + " " + term);
+            }
+            previous = term;
+        }
+        return features;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static long fingerprint(Book book) {
+        return Objects.hash(book.getTitle(), book.getAuthor(), book.getGenre(), book.getDescription());
+    }
+
+    private static final class Entry {
+        final String isbn;
+        final String title;
+        final String author;
+        final long fingerprint;
+        final int[] signature;
+        final long[] bandKeys;
+
+        Entry(String isbn, String title, String author, long fingerprint, int[] signature, long[] bandKeys) {
+            this.isbn = isbn;
+            this.title = title;
+            this.author = author;
+            this.fingerprint = fingerprint;
+            this.signature = signature;
+            this.bandKeys = bandKeys;
+        }
+    }
+
+    /**
+     * Splits a list in halves until a slice is small enough to run directly.
+     */
+    private static final class ForEach<T> extends RecursiveAction {
+        private final List<T> items;
+        private final int from;
+        private final int to;
+        private final Consumer<T> action;
+
+        ForEach(List<T> items, int from, int to, Consumer<T> action) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TASK_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    action.accept(items.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ForEach<>(items, from, mid, action), new ForEach<>(items, mid, to, action));
+        }
+    }
+}
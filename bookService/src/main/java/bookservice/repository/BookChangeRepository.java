@@ -0,0 +1,11 @@
+package bookservice.repository;
+
+import bookservice.entity.BookChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface BookChangeRepository extends JpaRepository<BookChange, Long> {
+    List<BookChange> findByPublishedGreaterThanOrderByPublishedAsc(Long published, Pageable pageable);
+}
@@ -0,0 +1,12 @@
+package bookservice.repository;
+
+import bookservice.entity.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface OrderRepository extends JpaRepository<Order, Long> {
+    @EntityGraph(attributePaths = "lines")
+    Optional<Order> findWithLinesById(Long id);
+}
@@ -0,0 +1,355 @@
+package bookservice.search;
+
+import bookservice.entity.Book;
+import bookservice.store.BookStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Radix trie over normalized titles and authors. Every node keeps the top K
+ * books below it (by stock), so a lookup is a walk down the prefix and a copy
+ * of that node's list.
+ */
+@Component
+public class SuggestIndex {
+
+    public static final int TOP_K = 10;
+
+    private static final Suggestion[] NONE = new Suggestion[0];
+    private static final Comparator<Suggestion> BY_SCORE = Comparator
+            .comparingInt(Suggestion::getScore).reversed()
+            .thenComparing(Suggestion::getTitle, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Suggestion::getIsbn);
+
+    private final Node root = new Node("");
+    private final Map<String, Set<String>> keysByIsbn = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    private BookStore bookStore;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Book> books = bookStore.findAll();
+        lock.writeLock().lock();
+        try {
+            root.children.clear();
+            root.terminals = null;
+            root.top = NONE;
+            keysByIsbn.clear();
+            for (Book book : books) {
+                putLocked(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Book book) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(book.getIsbn());
+            putLocked(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-ranks an indexed book after a stock change without reloading it.
+     */
+    public void updateStock(String isbn, int quantity) {
+        lock.writeLock().lock();
+        try {
+            Set<String> keys = keysByIsbn.get(isbn);
+            Suggestion current = keys == null ? null : find(keys.iterator().next(), isbn);
+            if (current == null) {
+                return;
+            }
+            Suggestion updated = new Suggestion(current, quantity);
+            for (String key : keys) {
+                delete(key, isbn);
+                insert(key, updated);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String isbn) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(isbn);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int pos = 0;
+            while (pos < key.length()) {
+                Node child = node.children.get(key.charAt(pos));
+                if (child == null) {
+                    return List.of();
+                }
+                int common = commonPrefix(child.label, key, pos);
+                if (pos + common == key.length()) {
+                    node = child;
+                    break;
+                }
+                if (common < child.label.length()) {
+                    return List.of();
+                }
+                pos += common;
+                node = child;
+            }
+            Suggestion[] top = node.top;
+            return List.of(Arrays.copyOf(top, Math.min(limit, top.length)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            long[] totals = new long[4];
+            measure(root, totals);
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("books", keysByIsbn.size());
+            stats.put("nodes", totals[0]);
+            stats.put("keys", totals[1]);
+            stats.put("labelChars", totals[2]);
+            stats.put("estimatedBytes", totals[3]);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keys for a book: the full title, the full author, and every word-start
+     * suffix of both so "boot" finds "Spring Boot in Action".
+     */
+    static Set<String> keysFor(Book book) {
+        Set<String> keys = new LinkedHashSet<>();
+        addWordSuffixes(keys, normalize(book.getTitle()));
+        addWordSuffixes(keys, normalize(book.getAuthor()));
+        return keys;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+            } else {
+                if (space) {
+                    sb.append(' ');
+                    space = false;
+                }
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void addWordSuffixes(Set<String> keys, String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        keys.add(text);
+        for (int i = text.indexOf(' '); i >= 0; i = text.indexOf(' ', i + 1)) {
+            keys.add(text.substring(i + 1));
+        }
+    }
+
+    private void putLocked(Book book) {
+        Suggestion suggestion = new Suggestion(book);
+        Set<String> keys = keysFor(book);
+        if (keys.isEmpty()) {
+            // Nothing to find it by, e.g. a blank title and author
+            return;
+        }
+        for (String key : keys) {
+            insert(key, suggestion);
+        }
+        keysByIsbn.put(book.getIsbn(), keys);
+    }
+
+    private void removeLocked(String isbn) {
+        Set<String> keys = keysByIsbn.remove(isbn);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            delete(key, isbn);
+        }
+    }
+
+    private Suggestion find(String key, String isbn) {
+        Node node = root;
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.children.get(key.charAt(pos));
+            if (child == null || !key.startsWith(child.label, pos)) {
+                return null;
+            }
+            pos += child.label.length();
+            node = child;
+        }
+        return node.terminals == null ? null : node.terminals.get(isbn);
+    }
+
+    private void insert(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            char c = key.charAt(pos);
+            Node child = node.children.get(c);
+            if (child == null) {
+                child = new Node(key.substring(pos));
+                node.children.put(c, child);
+                pos = key.length();
+            } else {
+                int common = commonPrefix(child.label, key, pos);
+                if (common < child.label.length()) {
+                    Node split = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    split.children.put(child.label.charAt(0), child);
+                    split.top = child.top;
+                    node.children.put(c, split);
+                    child = split;
+                }
+                pos += common;
+            }
+            node = child;
+            path.add(node);
+        }
+        if (node.terminals == null) {
+            node.terminals = new HashMap<>(2);
+        }
+        node.terminals.put(suggestion.getIsbn(), suggestion);
+        for (int i = path.size() - 1; i >= 0; i--) {
+            recomputeTop(path.get(i));
+        }
+    }
+
+    private void delete(String key, String isbn) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.children.get(key.charAt(pos));
+            if (child == null || !key.startsWith(child.label, pos)) {
+                return;
+            }
+            pos += child.label.length();
+            node = child;
+            path.add(node);
+        }
+        if (node.terminals == null || node.terminals.remove(isbn) == null) {
+            return;
+        }
+        if (node.terminals.isEmpty()) {
+            node.terminals = null;
+        }
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node current = path.get(i);
+            Node parent = path.get(i - 1);
+            if (current.terminals == null && current.children.isEmpty()) {
+                parent.children.remove(current.label.charAt(0));
+            } else if (current.terminals == null && current.children.size() == 1) {
+                Node only = current.children.values().iterator().next();
+                only.label = current.label + only.label;
+                parent.children.put(only.label.charAt(0), only);
+            } else {
+                recomputeTop(current);
+            }
+        }
+        recomputeTop(root);
+    }
+
+    private static void recomputeTop(Node node) {
+        Map<String, Suggestion> best = new HashMap<>();
+        if (node.terminals != null) {
+            best.putAll(node.terminals);
+        }
+        for (Node child : node.children.values()) {
+            for (Suggestion s : child.top) {
+                best.putIfAbsent(s.getIsbn(), s);
+            }
+        }
+        if (best.isEmpty()) {
+            node.top = NONE;
+            return;
+        }
+        Suggestion[] all = best.values().toArray(NONE);
+        Arrays.sort(all, BY_SCORE);
+        node.top = all.length > TOP_K ? Arrays.copyOf(all, TOP_K) : all;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // Rough compressed-oops estimate: node object, label string, child map entry, top array, terminals
+    private static void measure(Node node, long[] totals) {
+        totals[0]++;
+        totals[2] += node.label.length();
+        long bytes = 32 + 40 + node.label.length() + 48 + node.children.size() * 40L + 16 + node.top.length * 4L;
+        if (node.terminals != null) {
+            totals[1] += node.terminals.size();
+            bytes += 48 + node.terminals.size() * 32L;
+        }
+        totals[3] += bytes;
+        for (Node child : node.children.values()) {
+            measure(child, totals);
+        }
+    }
+
+    private static final class Node {
+        String label;
+        final TreeMap<Character, Node> children = new TreeMap<>();
+        Map<String, Suggestion> terminals;
+        Suggestion[] top = NONE;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+}
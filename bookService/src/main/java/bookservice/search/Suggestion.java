@@ -0,0 +1,44 @@
+package bookservice.search;
+
+import bookservice.entity.Book;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class Suggestion {
+    @JsonProperty("ISBN")
+    private final String isbn;
+    private final String title;
+    @JsonProperty("Author")
+    private final String author;
+    private final int score;
+
+    public Suggestion(Book book) {
+        this.isbn = book.getIsbn();
+        this.title = book.getTitle();
+        this.author = book.getAuthor();
+        this.score = book.getQuantity() == null ? 0 : book.getQuantity();
+    }
+
+    public Suggestion(Suggestion suggestion, int score) {
+        this.isbn = suggestion.isbn;
+        this.title = suggestion.title;
+        this.author = suggestion.author;
+        this.score = score;
+    }
+
+    // Getters
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public int getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,98 @@
+package bookservice.service;
+
+import bookservice.browse.FacetIndex;
+import bookservice.dto.BookFields;
+import bookservice.dto.BookPatch;
+import bookservice.entity.Book;
+import bookservice.hotkeys.HotBookCache;
+import bookservice.related.RelatedIndex;
+import bookservice.search.SuggestIndex;
+import bookservice.store.BookStore;
+import bookservice.sync.MerkleIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the in-memory read structures (cache, suggest and facet indexes) in
+ * step with committed book writes.
+ */
+@Component
+public class BookIndexes {
+
+    private static final BookFields SUGGEST_FIELDS = BookFields.parse("title,Author,quantity");
+
+    @Autowired
+    private BookStore bookStore;
+
+    @Autowired
+    private HotBookCache hotBookCache;
+
+    @Autowired
+    private SuggestIndex suggestIndex;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private MerkleIndex merkleIndex;
+
+    @Autowired
+    private RelatedIndex relatedIndex;
+
+    /**
+     * The cached copy is dropped rather than replaced: concurrent writers may
+     * get here out of commit order, and the next read loads whichever won.
+     */
+    public void written(Book book) {
+        hotBookCache.invalidate(book.getIsbn());
+        suggestIndex.put(book);
+        facetIndex.put(book);
+        merkleIndex.put(book);
+        relatedIndex.put(book);
+    }
+
+    public void written(Iterable<Book> books) {
+        books.forEach(this::written);
+    }
+
+    /**
+     * Updates each index from the patched columns, reading back only the
+     * narrow fields an index still needs: title, author and stock to re-key
+     * suggestions, and the row hash computed by the store for the Merkle tree.
+     * The description is never loaded here.
+     */
+    public void patched(String isbn, BookPatch patch) {
+        patchedColumns(isbn, patch);
+        bookStore.findContentHash(isbn).ifPresent(hash -> merkleIndex.put(isbn, hash));
+    }
+
+    /**
+     * As {@link #patched(String, BookPatch)}, with the row hash already read by
+     * the caller, e.g. for a whole bulk-update chunk in one query.
+     */
+    public void patched(String isbn, BookPatch patch, long contentHash) {
+        patchedColumns(isbn, patch);
+        merkleIndex.put(isbn, contentHash);
+    }
+
+    private void patchedColumns(String isbn, BookPatch patch) {
+        hotBookCache.invalidate(isbn);
+        facetIndex.patch(isbn, patch);
+        if (patch.touches("title") || patch.touches("author")) {
+            bookStore.findFields(isbn, SUGGEST_FIELDS).ifPresent(fields -> {
+                Book book = new Book();
+                book.setIsbn(isbn);
+                book.setTitle((String) fields.get("title"));
+                book.setAuthor((String) fields.get("Author"));
+                book.setQuantity((Integer) fields.get("quantity"));
+                suggestIndex.put(book);
+            });
+        } else if (patch.touches("quantity")) {
+            suggestIndex.updateStock(isbn, (Integer) patch.getColumns().get("quantity"));
+        }
+        if (patch.touches("title") || patch.touches("author") || patch.touches("genre")
+                || patch.touches("description")) {
+            relatedIndex.touched(isbn);
+        }
+    }
+}
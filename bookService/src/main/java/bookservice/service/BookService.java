@@ -0,0 +1,46 @@
+package bookservice.service;
+
+import bookservice.dto.BookPatch;
+import bookservice.entity.Book;
+import bookservice.store.BookStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+@Service
+public class BookService {
+
+    @Autowired
+    private BookStore bookStore;
+
+    // Absent in the embedded profile, which has no JDBC
+    @Autowired(required = false)
+    private GroupCommitWriter groupCommitWriter;
+
+    /**
+     * Inserts a new book, throwing {@link DuplicateKeyException} if the ISBN is taken.
+     */
+    public Book create(Book book) {
+        if (groupCommitWriter != null && groupCommitWriter.isEnabled()) {
+            return groupCommitWriter.insert(book);
+        }
+        return bookStore.create(book);
+    }
+
+    /**
+     * Replaces an existing book. Returns null if the ISBN does not exist.
+     */
+    public Book update(Book book) {
+        if (groupCommitWriter != null && groupCommitWriter.isEnabled()) {
+            return groupCommitWriter.update(book);
+        }
+        return bookStore.update(book);
+    }
+
+    /**
+     * Writes only the patched columns. Returns false if the ISBN does not exist.
+     */
+    public boolean patch(String isbn, BookPatch patch) {
+        return bookStore.patch(isbn, patch);
+    }
+}
@@ -0,0 +1,166 @@
+package bookservice.service;
+
+import bookservice.dto.BookPatch;
+import bookservice.dto.BulkMutationDTO;
+import bookservice.store.BookStore;
+import bookservice.sync.BookChangeLog;
+import bookstore.audit.AuditLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based repricing and restocking. Matching ISBNs are walked in key order
+ * a chunk at a time, and each chunk is one short UPDATE transaction, so row
+ * locks are never held for the whole catalog.
+ * <p>
+ * Results are clamped in SQL to what the columns hold, {@code DECIMAL(10,2)}
+ * price and {@code INT} quantity, so a chunk cannot fail on an out-of-range
+ * value after earlier chunks have committed.
+ */
+@Service
+@Profile("!embedded")
+public class BulkMutationService {
+
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookStore bookStore;
+
+    @Autowired
+    private BookChangeLog bookChangeLog;
+
+    @Autowired
+    private BookIndexes bookIndexes;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Value("${bulk.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Largest value the column holds, and so the largest operand accepted for it.
+     */
+    public static double limit(String field) {
+        return field.equals("price") ? MAX_PRICE.doubleValue() : Integer.MAX_VALUE;
+    }
+
+    public Map<String, Object> apply(BulkMutationDTO mutation) {
+        BulkMutationDTO.Filter filter = mutation.getFilter();
+        BulkMutationDTO.Operation operation = mutation.getOperation();
+        List<Object> filterArgs = new ArrayList<>();
+        String where = where(filter, filterArgs);
+        String assignment = assignment(operation);
+
+        String select = "SELECT isbn FROM books WHERE " + where + " AND isbn > ? ORDER BY isbn LIMIT ?";
+        String lastIsbn = "";
+        int rowsAffected = 0;
+        int chunks = 0;
+        String column = operation.getField();
+        int[] updated = new int[1];
+        while (true) {
+            String after = lastIsbn;
+            Map<String, Object> values = new LinkedHashMap<>();
+            List<String> chunk = transactionTemplate.execute(status -> {
+                List<Object> selectArgs = new ArrayList<>(filterArgs);
+                selectArgs.add(after);
+                selectArgs.add(chunkSize);
+                List<String> isbns = jdbcTemplate.queryForList(select, String.class, selectArgs.toArray());
+                if (isbns.isEmpty()) {
+                    return isbns;
+                }
+                String in = " WHERE isbn IN (" + String.join(", ", Collections.nCopies(isbns.size(), "?")) + ")";
+                List<Object> updateArgs = new ArrayList<>();
+                updateArgs.add(operation.getValue());
+                updateArgs.addAll(isbns);
+                updateArgs.addAll(filterArgs);
+                updated[0] = jdbcTemplate.update("UPDATE books SET " + assignment + in + " AND " + where,
+                        updateArgs.toArray());
+                // Only the changed column comes back for the indexes, not the whole book
+                jdbcTemplate.query("SELECT isbn, " + column + " FROM books" + in, rs -> {
+                    values.put(rs.getString(1), column.equals("price") ? rs.getDouble(2) : rs.getInt(2));
+                }, isbns.toArray());
+                bookChangeLog.record(isbns);
+                auditLog.append("book", "bulk", isbns.get(0) + ".." + isbns.get(isbns.size() - 1),
+                        Map.of("operation", operation, "isbns", isbns));
+                return isbns;
+            });
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            Map<String, Long> hashes = bookStore.findContentHashes(values.keySet());
+            values.forEach((isbn, value) -> {
+                Long hash = hashes.get(isbn);
+                if (hash != null) {
+                    bookIndexes.patched(isbn, BookPatch.of(column, value), hash);
+                }
+            });
+            rowsAffected += updated[0];
+            chunks++;
+            lastIsbn = chunk.get(chunk.size() - 1);
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rowsAffected", rowsAffected);
+        result.put("chunks", chunks);
+        return result;
+    }
+
+    private static String where(BulkMutationDTO.Filter filter, List<Object> args) {
+        List<String> clauses = new ArrayList<>();
+        if (filter.getGenre() != null) {
+            clauses.add("genre = ?");
+            args.add(filter.getGenre());
+        }
+        if (filter.getAuthor() != null) {
+            clauses.add("author = ?");
+            args.add(filter.getAuthor());
+        }
+        if (filter.getIsbns() != null && !filter.getIsbns().isEmpty()) {
+            clauses.add("isbn IN (" + String.join(", ", Collections.nCopies(filter.getIsbns().size(), "?")) + ")");
+            args.addAll(filter.getIsbns());
+        }
+        if (filter.getIsbnFrom() != null) {
+            clauses.add("isbn >= ?");
+            args.add(filter.getIsbnFrom());
+        }
+        if (filter.getIsbnTo() != null) {
+            clauses.add("isbn <= ?");
+            args.add(filter.getIsbnTo());
+        }
+        return String.join(" AND ", clauses);
+    }
+
+    // Field and op are constrained to fixed values by BulkMutationDTO validation
+    private static String assignment(BulkMutationDTO.Operation operation) {
+        String column = operation.getField();
+        String expression = switch (operation.getOp()) {
+            case "multiply" -> column + " * ?";
+            case "add" -> column + " + ?";
+            default -> "?";
+        };
+        return column.equals("price")
+                ? "price = LEAST(" + MAX_PRICE.toPlainString() + ", ROUND(GREATEST(0, " + expression + "), 2))"
+                : "quantity = LEAST(" + Integer.MAX_VALUE + ", GREATEST(0, ROUND(" + expression + ")))";
+    }
+}
@@ -0,0 +1,243 @@
+package bookservice.service;
+
+import bookservice.dto.BookDTO;
+import bookservice.entity.Book;
+import bookservice.exception.WriteQueueFullException;
+import bookservice.sync.BookChangeLog;
+import bookstore.audit.AuditLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in group commit for single-book writes. Concurrent requests are queued
+ * and a single flusher thread applies up to {@code max-batch} of them, or
+ * whatever arrived within {@code max-wait-ms}, in one transaction. Writes are
+ * applied in queue order, each run of consecutive inserts or updates as one
+ * JDBC batch. If the batch fails, each write is retried on its own so every
+ * caller still gets its own result.
+ * <p>
+ * After {@link #stop()} new writes are refused, and any write still queued
+ * when the flusher exits fails, so no caller waits forever.
+ */
+@Component
+@Profile("!embedded")
+public class GroupCommitWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitWriter.class);
+
+    private static final String INSERT_BOOK =
+            "INSERT INTO books (isbn, title, author, description, genre, price, quantity) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_BOOK =
+            "UPDATE books SET title = ?, author = ?, description = ?, genre = ?, price = ?, quantity = ? WHERE isbn = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookChangeLog bookChangeLog;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Value("${bookwrites.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${bookwrites.group-commit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${bookwrites.group-commit.max-batch:200}")
+    private int maxBatch;
+
+    @Value("${bookwrites.group-commit.max-wait-ms:5}")
+    private long maxWaitMillis;
+
+    private BlockingQueue<PendingWrite> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flusher = new Thread(this::run, "book-group-commit");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+            List<PendingWrite> left = new ArrayList<>();
+            queue.drainTo(left);
+            left.forEach(write -> write.result.completeExceptionally(shuttingDown()));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues an insert and waits for its batch to commit.
+     */
+    public Book insert(Book book) {
+        return submit(new PendingWrite(book, true));
+    }
+
+    /**
+     * Queues an update and waits for its batch to commit. Returns null when
+     * the ISBN does not exist.
+     */
+    public Book update(Book book) {
+        return submit(new PendingWrite(book, false));
+    }
+
+    private Book submit(PendingWrite write) {
+        if (!running) {
+            throw shuttingDown();
+        }
+        try {
+            if (!queue.offer(write, maxWaitMillis * 10, TimeUnit.MILLISECONDS)) {
+                throw new WriteQueueFullException("Too many pending writes, please retry.");
+            }
+            // stop() may have drained the queue between the check and the offer
+            if (!running && queue.remove(write)) {
+                throw shuttingDown();
+            }
+            return write.result.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteQueueFullException("Interrupted while queueing write.");
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(write -> write.result.completeExceptionally(shuttingDown()));
+                return;
+            } catch (RuntimeException e) {
+                log.error("Group commit flush failed", e);
+                batch.forEach(write -> write.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        try {
+            boolean[] found = transactionTemplate.execute(status -> apply(batch));
+            for (int i = 0; i < batch.size(); i++) {
+                PendingWrite write = batch.get(i);
+                write.result.complete(found[i] ? write.book : null);
+            }
+        } catch (DataAccessException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            for (PendingWrite write : batch) {
+                flush(List.of(write));
+            }
+        }
+    }
+
+    private boolean[] apply(List<PendingWrite> batch) {
+        boolean[] found = new boolean[batch.size()];
+        int start = 0;
+        while (start < batch.size()) {
+            boolean insert = batch.get(start).insert;
+            List<Object[]> rows = new ArrayList<>();
+            int end = start;
+            for (; end < batch.size() && batch.get(end).insert == insert; end++) {
+                Book b = batch.get(end).book;
+                rows.add(insert
+                        ? new Object[]{b.getIsbn(), b.getTitle(), b.getAuthor(), b.getDescription(),
+                                b.getGenre(), b.getPrice(), b.getQuantity()}
+                        : new Object[]{b.getTitle(), b.getAuthor(), b.getDescription(), b.getGenre(),
+                                b.getPrice(), b.getQuantity(), b.getIsbn()});
+            }
+            int[] counts = jdbcTemplate.batchUpdate(insert ? INSERT_BOOK : UPDATE_BOOK, rows);
+            for (int i = start; i < end; i++) {
+                found[i] = insert || counts[i - start] != 0;
+            }
+            start = end;
+        }
+
+        List<String> changed = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            if (found[i]) {
+                changed.add(write.book.getIsbn());
+                auditLog.append("book", write.insert ? "create" : "update", write.book.getIsbn(), new BookDTO(write.book));
+            }
+        }
+        bookChangeLog.record(changed);
+        return found;
+    }
+
+    private static WriteQueueFullException shuttingDown() {
+        return new WriteQueueFullException("Book writes are shutting down, please retry.");
+    }
+
+    private static final class PendingWrite {
+        final Book book;
+        final boolean insert;
+        final CompletableFuture<Book> result = new CompletableFuture<>();
+
+        PendingWrite(Book book, boolean insert) {
+            this.book = book;
+            this.insert = insert;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package bookservice.service;
+
+import bookservice.dto.OrderDTO;
+import bookservice.dto.OrderLineDTO;
+import bookservice.entity.Order;
+import bookservice.entity.OrderLine;
+import bookservice.exception.OrderRejectedException;
+import bookservice.repository.BookRepository;
+import bookservice.repository.OrderRepository;
+import bookservice.sync.BookChangeLog;
+import bookstore.audit.AuditLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@Profile("!embedded")
+public class OrderService {
+
+    private static final String DECREMENT_STOCK =
+            "UPDATE books SET quantity = quantity - ? WHERE isbn = ? AND quantity >= ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BookChangeLog bookChangeLog;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    /**
+     * Decrements stock for every line in one transaction. Lines are merged per
+     * ISBN and applied in ISBN order, so overlapping carts always lock rows in
+     * the same order and cannot deadlock each other.
+     */
+    @Transactional
+    public Order placeOrder(OrderDTO orderDTO) {
+        TreeMap<String, Integer> quantities = new TreeMap<>();
+        for (OrderLineDTO line : orderDTO.getLines()) {
+            quantities.merge(line.getIsbn(), line.getQuantity(), Integer::sum);
+        }
+
+        List<Object[]> batch = new ArrayList<>(quantities.size());
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            batch.add(new Object[]{entry.getValue(), entry.getKey(), entry.getValue()});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_STOCK, batch);
+
+        int i = 0;
+        for (String isbn : quantities.keySet()) {
+            if (updated[i++] == 0) {
+                throw new OrderRejectedException(bookRepository.existsById(isbn)
+                        ? "Insufficient stock for ISBN " + isbn + "."
+                        : "ISBN " + isbn + " does not exist in the system.");
+            }
+        }
+
+        bookChangeLog.record(quantities.keySet());
+        quantities.forEach((isbn, quantity) ->
+                auditLog.append("book", "stock", isbn, Map.of("quantityDelta", -quantity)));
+
+        Order order = new Order();
+        order.setCustomerId(orderDTO.getCustomerId());
+        order.setCreatedAt(Instant.now());
+        quantities.forEach((isbn, quantity) -> order.addLine(new OrderLine(isbn, quantity)));
+        Order savedOrder = orderRepository.save(order);
+        auditLog.append("order", "create", savedOrder.getId().toString(), new OrderDTO(savedOrder));
+        return savedOrder;
+    }
+}
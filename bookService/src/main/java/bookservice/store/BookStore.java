@@ -0,0 +1,58 @@
+package bookservice.store;
+
+import bookservice.dto.BookFields;
+import bookservice.dto.BookPatch;
+import bookservice.entity.Book;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Storage for books keyed by ISBN. {@link JpaBookStore} backs it with MySQL;
+ * {@link EmbeddedBookStore} (profile {@code embedded}) with a local
+ * log-structured engine for deployments without a database.
+ */
+public interface BookStore {
+
+    Optional<Book> findById(String isbn);
+
+    boolean existsById(String isbn);
+
+    List<Book> findAll();
+
+    List<Book> findAllById(Collection<String> isbns);
+
+    /**
+     * Only the selected fields of a book, keyed by their {@link bookservice.dto.BookDTO} names.
+     */
+    Optional<Map<String, Object>> findFields(String isbn, BookFields fields);
+
+    /**
+     * The {@link bookservice.sync.BookContentHash} of a stored book, or empty if the ISBN does not exist.
+     */
+    OptionalLong findContentHash(String isbn);
+
+    /**
+     * {@link #findContentHash} for many books at once, keyed by ISBN; ISBNs that do not exist are absent.
+     */
+    Map<String, Long> findContentHashes(Collection<String> isbns);
+
+    /**
+     * Inserts a new book, throwing {@link DuplicateKeyException} if the ISBN is taken.
+     */
+    Book create(Book book);
+
+    /**
+     * Replaces an existing book. Returns null if the ISBN does not exist.
+     */
+    Book update(Book book);
+
+    /**
+     * Writes only the patched columns. Returns false if the ISBN does not exist.
+     */
+    boolean patch(String isbn, BookPatch patch);
+}
@@ -0,0 +1,220 @@
+package bookservice.store;
+
+import bookservice.dto.BookDTO;
+import bookservice.dto.BookFields;
+import bookservice.dto.BookPatch;
+import bookservice.entity.Book;
+import bookservice.sync.BookContentHash;
+import bookstore.audit.AuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Book storage on a local {@link LogStore}, for single-node deployments with
+ * no MySQL. Values are the book's JSON in the same shape as {@link BookDTO}.
+ */
+@Component
+@Profile("embedded")
+public class EmbeddedBookStore implements BookStore {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedBookStore.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Value("${store.embedded.dir:data}")
+    private String dir;
+
+    @Value("${store.embedded.initial-map-bytes:16777216}")
+    private int initialMapBytes;
+
+    @Value("${store.embedded.sync-writes:true}")
+    private boolean syncWrites;
+
+    @Value("${store.embedded.compact-garbage-ratio:0.5}")
+    private double compactGarbageRatio;
+
+    @Value("${bookwrites.group-commit.enabled:false}")
+    private boolean groupCommit;
+
+    private LogStore store;
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (groupCommit) {
+            // Refuse to start rather than silently write one book at a time
+            throw new IllegalStateException(
+                    "bookwrites.group-commit.enabled needs MySQL and cannot be used with embedded storage");
+        }
+        store = new LogStore(Paths.get(dir), initialMapBytes, syncWrites);
+        log.info("Embedded book store opened: {}", store.stats());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        store.close();
+    }
+
+    @Scheduled(fixedDelayString = "${store.embedded.checkpoint-interval-ms:60000}")
+    public void checkpoint() throws IOException {
+        store.checkpoint();
+        if (store.compact(compactGarbageRatio)) {
+            log.info("Compacted embedded book store: {}", store.stats());
+        }
+    }
+
+    @Override
+    public Optional<Book> findById(String isbn) {
+        return Optional.ofNullable(read(isbn));
+    }
+
+    @Override
+    public boolean existsById(String isbn) {
+        return store.contains(isbn);
+    }
+
+    @Override
+    public List<Book> findAll() {
+        return findAllById(store.keys());
+    }
+
+    @Override
+    public List<Book> findAllById(Collection<String> isbns) {
+        List<Book> books = new ArrayList<>(isbns.size());
+        for (String isbn : isbns) {
+            Book book = read(isbn);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    // Records are stored whole, so the book is read and cut down
+    @Override
+    public Optional<Map<String, Object>> findFields(String isbn, BookFields fields) {
+        return findById(isbn).map(book -> fields.project(new BookDTO(book)));
+    }
+
+    @Override
+    public OptionalLong findContentHash(String isbn) {
+        Book book = read(isbn);
+        return book == null ? OptionalLong.empty() : OptionalLong.of(BookContentHash.of(new BookDTO(book)));
+    }
+
+    @Override
+    public Map<String, Long> findContentHashes(Collection<String> isbns) {
+        Map<String, Long> hashes = new HashMap<>();
+        for (String isbn : isbns) {
+            findContentHash(isbn).ifPresent(hash -> hashes.put(isbn, hash));
+        }
+        return hashes;
+    }
+
+    @Override
+    public Book create(Book book) {
+        try {
+            if (!store.putIfAbsent(book.getIsbn(), write(book))) {
+                throw new DuplicateKeyException("ISBN " + book.getIsbn() + " already exists");
+            }
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Embedded store write failed", e);
+        }
+        auditLog.append("book", "create", book.getIsbn(), new BookDTO(book));
+        return book;
+    }
+
+    @Override
+    public Book update(Book book) {
+        try {
+            if (!store.replace(book.getIsbn(), write(book))) {
+                return null;
+            }
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Embedded store write failed", e);
+        }
+        auditLog.append("book", "update", book.getIsbn(), new BookDTO(book));
+        return book;
+    }
+
+    /**
+     * Read-modify-write under the store lock so concurrent patches to
+     * different columns of one book do not lose each other's changes.
+     */
+    @Override
+    public boolean patch(String isbn, BookPatch patch) {
+        synchronized (store) {
+            Book book = read(isbn);
+            if (book == null) {
+                return false;
+            }
+            for (Map.Entry<String, Object> column : patch.getColumns().entrySet()) {
+                Object value = column.getValue();
+                switch (column.getKey()) {
+                    case "title" -> book.setTitle((String) value);
+                    case "author" -> book.setAuthor((String) value);
+                    case "description" -> book.setDescription((String) value);
+                    case "genre" -> book.setGenre((String) value);
+                    case "price" -> book.setPrice((Double) value);
+                    case "quantity" -> book.setQuantity((Integer) value);
+                    default -> throw new IllegalArgumentException("Unknown column " + column.getKey());
+                }
+            }
+            try {
+                store.put(isbn, write(book));
+            } catch (IOException e) {
+                throw new DataAccessResourceFailureException("Embedded store write failed", e);
+            }
+        }
+        auditLog.append("book", "patch", isbn, patch.getColumns());
+        return true;
+    }
+
+    public Map<String, Object> stats() {
+        return store.stats();
+    }
+
+    private Book read(String isbn) {
+        byte[] value = store.get(isbn);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new Book(objectMapper.readValue(value, BookDTO.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] write(Book book) {
+        try {
+            return objectMapper.writeValueAsBytes(new BookDTO(book));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package bookservice.store;
+
+import bookservice.dto.BookDTO;
+import bookservice.dto.BookFields;
+import bookservice.dto.BookPatch;
+import bookservice.entity.Book;
+import bookservice.repository.BookRepository;
+import bookservice.sync.BookChangeLog;
+import bookservice.sync.BookContentHash;
+import bookstore.audit.AuditLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+@Component
+@Profile("!embedded")
+public class JpaBookStore implements BookStore {
+
+    // Price is cast rather than read as stored so a DOUBLE column created by ddl-auto hashes like DECIMAL(10,2)
+    private static final String CONTENT_HASH_COLUMN = "LEFT(SHA2(CONCAT_WS(CHAR(31 USING utf8mb4), isbn, title,"
+            + " author, description, genre, CAST(price AS DECIMAL(12,2)), quantity), 256), 16)";
+    private static final String CONTENT_HASH = "SELECT " + CONTENT_HASH_COLUMN + " FROM books WHERE isbn = ?";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookChangeLog bookChangeLog;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Book> findById(String isbn) {
+        return bookRepository.findById(isbn);
+    }
+
+    @Override
+    public boolean existsById(String isbn) {
+        return bookRepository.existsById(isbn);
+    }
+
+    @Override
+    public List<Book> findAll() {
+        return bookRepository.findAll();
+    }
+
+    @Override
+    public List<Book> findAllById(Collection<String> isbns) {
+        return bookRepository.findAllById(isbns);
+    }
+
+    /**
+     * JPQL selecting only the requested attributes, so description and the
+     * other unrequested columns are never read or materialized.
+     */
+    @Override
+    public Optional<Map<String, Object>> findFields(String isbn, BookFields fields) {
+        String select = String.join(", ", fields.getAttributes().stream().map(attribute -> "b." + attribute).toList());
+        return entityManager.createQuery("SELECT " + select + " FROM Book b WHERE b.isbn = :isbn", Tuple.class)
+                .setParameter("isbn", isbn)
+                .getResultStream()
+                .findFirst()
+                .map(tuple -> fields.project(tuple.toArray()));
+    }
+
+    /**
+     * Hashed by MySQL in the same canonical form as {@link BookContentHash},
+     * so only 16 hex digits come back instead of the description.
+     */
+    @Override
+    public OptionalLong findContentHash(String isbn) {
+        List<String> hashes = jdbcTemplate.queryForList(CONTENT_HASH, String.class, isbn);
+        return hashes.isEmpty() ? OptionalLong.empty() : OptionalLong.of(Long.parseUnsignedLong(hashes.get(0), 16));
+    }
+
+    @Override
+    public Map<String, Long> findContentHashes(Collection<String> isbns) {
+        Map<String, Long> hashes = new HashMap<>();
+        if (isbns.isEmpty()) {
+            return hashes;
+        }
+        jdbcTemplate.query("SELECT isbn, " + CONTENT_HASH_COLUMN + " FROM books WHERE isbn IN ("
+                + String.join(", ", Collections.nCopies(isbns.size(), "?")) + ")", rs -> {
+            hashes.put(rs.getString(1), Long.parseUnsignedLong(rs.getString(2), 16));
+        }, isbns.toArray());
+        return hashes;
+    }
+
+    @Override
+    public Book create(Book book) {
+        return transactionTemplate.execute(status -> {
+            if (bookRepository.existsById(book.getIsbn())) {
+                throw new DuplicateKeyException("ISBN " + book.getIsbn() + " already exists");
+            }
+            return save(book, "create");
+        });
+    }
+
+    @Override
+    public Book update(Book book) {
+        return transactionTemplate.execute(status ->
+                bookRepository.existsById(book.getIsbn()) ? save(book, "update") : null);
+    }
+
+    /**
+     * Single UPDATE of the patched columns, without loading the book.
+     */
+    @Override
+    public boolean patch(String isbn, BookPatch patch) {
+        StringBuilder sql = new StringBuilder("UPDATE books SET ");
+        List<Object> args = new ArrayList<>(patch.getColumns().size() + 1);
+        patch.getColumns().forEach((column, value) -> {
+            sql.append(args.isEmpty() ? "" : ", ").append(column).append(" = ?");
+            args.add(value);
+        });
+        sql.append(" WHERE isbn = ?");
+        args.add(isbn);
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(sql.toString(), args.toArray()) == 0) {
+                return false;
+            }
+            bookChangeLog.record(isbn);
+            auditLog.append("book", "patch", isbn, patch.getColumns());
+            return true;
+        }));
+    }
+
+    private Book save(Book book, String action) {
+        Book savedBook = bookRepository.save(book);
+        bookChangeLog.record(savedBook.getIsbn());
+        auditLog.append("book", action, savedBook.getIsbn(), new BookDTO(savedBook));
+        return savedBook;
+    }
+}
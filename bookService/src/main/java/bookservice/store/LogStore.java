@@ -0,0 +1,344 @@
+package bookservice.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Single-node log-structured key-value engine.
+ * <p>
+ * Every put is appended to a write-ahead log and then to a memory-mapped data
+ * file; an in-memory hash index maps each key to its latest record. Reads are
+ * lock-free: an index entry carries the mapping it points into. A checkpoint
+ * forces the data file and truncates the WAL. Compaction copies live records
+ * into a new data file generation and drops the old one.
+ * <p>
+ * A generation is written under a temporary name, forced and only then renamed
+ * to {@code data-<n>.dat}, so recovery trusts only complete generations: it
+ * discards temporary files, opens the newest sealed generation and deletes
+ * older ones once that has been recovered.
+ * <p>
+ * Record: {@code [int length][int crc32][long seq][short keyLength][key][value]},
+ * where length and CRC cover everything after the CRC.
+ */
+public class LogStore implements Closeable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final String DATA_PREFIX = "data-";
+    private static final String DATA_SUFFIX = ".dat";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path dir;
+    private final int initialMapBytes;
+    private final boolean syncWrites;
+    private final ConcurrentHashMap<String, Entry> index = new ConcurrentHashMap<>();
+
+    private FileChannel wal;
+    private FileChannel dataChannel;
+    private MappedByteBuffer data;
+    private long generation;
+    private int dataEnd;
+    private long liveBytes;
+    private long lastSeq;
+
+    public LogStore(Path dir, int initialMapBytes, boolean syncWrites) throws IOException {
+        this.dir = dir;
+        this.initialMapBytes = initialMapBytes;
+        this.syncWrites = syncWrites;
+        Files.createDirectories(dir);
+        recover();
+    }
+
+    public byte[] get(String key) {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        byte[] record = new byte[entry.length];
+        entry.buffer.get(entry.offset, record);
+        int keyLength = ByteBuffer.wrap(record, HEADER_BYTES + 8, 2).getShort();
+        int valueStart = HEADER_BYTES + 8 + 2 + keyLength;
+        byte[] value = new byte[record.length - valueStart];
+        System.arraycopy(record, valueStart, value, 0, value.length);
+        return value;
+    }
+
+    public boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    public Set<String> keys() {
+        return index.keySet();
+    }
+
+    public synchronized void put(String key, byte[] value) throws IOException {
+        append(encode(++lastSeq, key, value), true);
+    }
+
+    /**
+     * Writes only if the key is absent; returns false otherwise.
+     */
+    public synchronized boolean putIfAbsent(String key, byte[] value) throws IOException {
+        if (index.containsKey(key)) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    /**
+     * Writes only if the key exists; returns false otherwise.
+     */
+    public synchronized boolean replace(String key, byte[] value) throws IOException {
+        if (!index.containsKey(key)) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    /**
+     * Makes everything written so far durable in the data file and empties the WAL.
+     */
+    public synchronized void checkpoint() throws IOException {
+        data.force();
+        wal.truncate(0);
+        wal.force(true);
+    }
+
+    /**
+     * Rewrites the data file with only the latest record per key when at
+     * least {@code minGarbageRatio} of it is superseded.
+     */
+    public synchronized boolean compact(double minGarbageRatio) throws IOException {
+        if (dataEnd == 0 || 1.0 - (double) liveBytes / dataEnd < minGarbageRatio) {
+            return false;
+        }
+        checkpoint();
+        long nextGeneration = generation + 1;
+        Path nextPath = dataPath(nextGeneration);
+        Path tempPath = tempPath(nextPath);
+        FileChannel nextChannel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer next = nextChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                Math.max(initialMapBytes, roundUp(liveBytes)));
+        Map<String, Entry> moved = new LinkedHashMap<>();
+        int position = 0;
+        for (Map.Entry<String, Entry> item : index.entrySet()) {
+            Entry entry = item.getValue();
+            byte[] record = new byte[entry.length];
+            entry.buffer.get(entry.offset, record);
+            next.put(position, record);
+            moved.put(item.getKey(), new Entry(next, position, entry.length));
+            position += entry.length;
+        }
+        next.force();
+        nextChannel.force(true);
+        Files.move(tempPath, nextPath, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+
+        Path oldPath = dataPath(generation);
+        dataChannel.close();
+        index.putAll(moved);
+        data = next;
+        dataChannel = nextChannel;
+        dataEnd = position;
+        liveBytes = position;
+        generation = nextGeneration;
+        Files.delete(oldPath);
+        return true;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("keys", index.size());
+        stats.put("generation", generation);
+        stats.put("dataBytes", dataEnd);
+        stats.put("liveBytes", liveBytes);
+        stats.put("mappedBytes", data.capacity());
+        stats.put("lastSeq", lastSeq);
+        return stats;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        checkpoint();
+        wal.close();
+        dataChannel.close();
+    }
+
+    private void recover() throws IOException {
+        // Generations still being written when the process stopped; the previous one is intact
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path temp : files.filter(p -> p.getFileName().toString().endsWith(TEMP_SUFFIX)).toList()) {
+                Files.delete(temp);
+            }
+        }
+        List<Path> generations = dataFiles();
+        generation = generations.isEmpty() ? 1 : generationOf(generations.get(generations.size() - 1));
+        Path dataPath = dataPath(generation);
+        dataChannel = FileChannel.open(dataPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(initialMapBytes, dataChannel.size()));
+        MappedByteBuffer mapped = data;
+        dataEnd = scan(data, data.capacity(), (offset, record) -> indexRecord(mapped, offset, record));
+        // Anything past the last intact record is a torn write; the WAL replay below rewrites it
+        for (int i = dataEnd; i < data.capacity(); i++) {
+            if (data.get(i) != 0) {
+                data.put(i, (byte) 0);
+            }
+        }
+
+        wal = FileChannel.open(dir.resolve("wal.log"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (wal.size() > 0) {
+            ByteBuffer walBuffer = ByteBuffer.allocate((int) wal.size());
+            wal.read(walBuffer, 0);
+            List<ByteBuffer> replay = new ArrayList<>();
+            long dataSeq = lastSeq;
+            scan(walBuffer, walBuffer.capacity(), (offset, record) -> {
+                if (record.getLong(HEADER_BYTES) > dataSeq) {
+                    replay.add(record);
+                }
+            });
+            for (ByteBuffer record : replay) {
+                lastSeq = Math.max(lastSeq, record.getLong(HEADER_BYTES));
+                append(record, false);
+            }
+        }
+        checkpoint();
+
+        for (int i = 0; i < generations.size() - 1; i++) {
+            // Leftover from a compaction interrupted after the rename, before the old file was deleted
+            Files.delete(generations.get(i));
+        }
+    }
+
+    // Makes the rename durable before the old generation goes; best effort where directories cannot be opened
+    private void syncDirectory() {
+        try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // Not supported on this platform
+        }
+    }
+
+    private void append(ByteBuffer record, boolean logFirst) throws IOException {
+        if (logFirst) {
+            wal.write(record.duplicate(), wal.size());
+            if (syncWrites) {
+                wal.force(false);
+            }
+        }
+        int length = record.remaining();
+        if (dataEnd + length > data.capacity()) {
+            data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, roundUp(2L * (dataEnd + length)));
+        }
+        data.put(dataEnd, record, record.position(), length);
+        indexRecord(data, dataEnd, data.slice(dataEnd, length));
+        dataEnd += length;
+    }
+
+    private void indexRecord(MappedByteBuffer buffer, int offset, ByteBuffer record) {
+        int length = record.remaining();
+        byte[] key = new byte[record.getShort(HEADER_BYTES + 8)];
+        record.get(HEADER_BYTES + 10, key);
+        lastSeq = Math.max(lastSeq, record.getLong(HEADER_BYTES));
+        Entry previous = index.put(new String(key, StandardCharsets.UTF_8), new Entry(buffer, offset, length));
+        liveBytes += length - (previous == null ? 0 : previous.length);
+    }
+
+    /**
+     * Calls {@code visitor} with the offset and a zero-based view of each
+     * intact record from offset 0 and returns the offset just past the last one.
+     */
+    private static int scan(ByteBuffer buffer, int limit, RecordVisitor visitor) {
+        int position = 0;
+        while (position + HEADER_BYTES <= limit) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > limit) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(position + HEADER_BYTES, length));
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            visitor.visit(position, buffer.slice(position, HEADER_BYTES + length));
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private static ByteBuffer encode(long seq, String key, byte[] value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int bodyLength = 8 + 2 + keyBytes.length + value.length;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+        record.putInt(bodyLength).putInt(0).putLong(seq).putShort((short) keyBytes.length).put(keyBytes).put(value);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_BYTES, bodyLength);
+        record.putInt(4, (int) crc.getValue());
+        return record.flip();
+    }
+
+    private List<Path> dataFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> result = new ArrayList<>(files
+                    .filter(p -> p.getFileName().toString().startsWith(DATA_PREFIX)
+                            && p.getFileName().toString().endsWith(DATA_SUFFIX))
+                    .toList());
+            result.sort((a, b) -> Long.compare(generationOf(a), generationOf(b)));
+            return result;
+        }
+    }
+
+    private Path dataPath(long generation) {
+        return dir.resolve(String.format("%s%06d%s", DATA_PREFIX, generation, DATA_SUFFIX));
+    }
+
+    private static Path tempPath(Path dataPath) {
+        return dataPath.resolveSibling(dataPath.getFileName() + TEMP_SUFFIX);
+    }
+
+    private static long generationOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(DATA_PREFIX.length(), name.length() - DATA_SUFFIX.length()));
+    }
+
+    private static int roundUp(long bytes) {
+        long rounded = Math.max(1 << 20, Long.highestOneBit(Math.max(bytes, 1) - 1) << 1);
+        if (rounded > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Data file would exceed 2 GB, compaction required");
+        }
+        return (int) rounded;
+    }
+
+    private interface RecordVisitor {
+        void visit(int offset, ByteBuffer record);
+    }
+
+    private static final class Entry {
+        final MappedByteBuffer buffer;
+        final int offset;
+        final int length;
+
+        Entry(MappedByteBuffer buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package bookservice.sync;
+
+import bookservice.dto.BookChangeKeysDTO;
+import bookservice.hotkeys.HotBookCache;
+import bookservice.store.BookStore;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies books written through other instances to this instance's
+ * in-memory structures, by following the ISBNs of the change log: cached
+ * copies are dropped and Merkle row hashes re-read. Local writes update both
+ * directly; this bounds how long a write elsewhere stays invisible here to
+ * the publish delay plus the interval below, rather than the cache TTL or the
+ * Merkle rebuild interval.
+ */
+@Component
+@Profile("!embedded")
+public class BookChangeFollower {
+
+    private static final int PAGE = 1000;
+
+    @Autowired
+    private BookChangeLog bookChangeLog;
+
+    @Autowired
+    private BookStore bookStore;
+
+    @Autowired
+    private HotBookCache hotBookCache;
+
+    @Autowired
+    private MerkleIndex merkleIndex;
+
+    // Only touched by the scheduler thread after start()
+    private long position;
+
+    /**
+     * Starts at the head of the log before anything is cached or the Merkle
+     * tree is first built, so every write those may have missed is replayed.
+     */
+    @PostConstruct
+    public void start() {
+        position = Long.parseLong(bookChangeLog.latest().getNextToken());
+    }
+
+    @Scheduled(fixedDelayString = "${hotkeys.invalidation-interval-ms:1000}")
+    public void follow() {
+        BookChangeKeysDTO page;
+        do {
+            page = bookChangeLog.keysSince(position, PAGE);
+            Set<String> isbns = new LinkedHashSet<>();
+            for (BookChangeKeysDTO.Key change : page.getChanges()) {
+                isbns.add(change.getIsbn());
+            }
+            if (!isbns.isEmpty()) {
+                isbns.forEach(hotBookCache::invalidate);
+                Map<String, Long> hashes = bookStore.findContentHashes(isbns);
+                hashes.forEach(merkleIndex::put);
+            }
+            position = Long.parseLong(page.getNextToken());
+        } while (page.isHasMore());
+    }
+}
@@ -0,0 +1,180 @@
+package bookservice.sync;
+
+import bookservice.dto.BookChangeKeysDTO;
+import bookservice.dto.BookChangesDTO;
+import bookservice.dto.BookDTO;
+import bookservice.entity.Book;
+import bookservice.entity.BookChange;
+import bookservice.repository.BookChangeRepository;
+import bookservice.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only log of book writes. A book that has a change row but no longer
+ * exists is reported as deleted.
+ * <p>
+ * The sync token handed to replicas is not the row's IDENTITY value: those
+ * are allocated at insert but become visible at commit, so a reader could
+ * pass a value whose transaction has not committed yet and never see it.
+ * Instead {@link #publish()} numbers rows only once they have committed,
+ * holding the {@code id_sequences} row for the log until its numbers are
+ * committed. Numbers therefore become visible in order, and a replica that
+ * has seen N has seen every change numbered below N.
+ */
+@Component
+@Profile("!embedded")
+public class BookChangeLog {
+
+    private static final String SEQUENCES = "id_sequences";
+    private static final String SEQUENCE = "book_changes";
+
+    @Autowired
+    private BookChangeRepository bookChangeRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${changes.publish-batch-size:1000}")
+    private int publishBatchSize;
+
+    /**
+     * Creates the log's counter, starting above every IDENTITY value so
+     * tokens handed out before publishing existed stay valid.
+     */
+    @PostConstruct
+    public void seed() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + SEQUENCES
+                + " (sequence_name VARCHAR(255) PRIMARY KEY, next_val BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT IGNORE INTO " + SEQUENCES + " (sequence_name, next_val)"
+                + " SELECT '" + SEQUENCE + "', COALESCE(MAX(seq), 0) + 1 FROM book_changes");
+    }
+
+    public void record(String isbn) {
+        bookChangeRepository.save(new BookChange(isbn));
+    }
+
+    public void record(Collection<String> isbns) {
+        bookChangeRepository.saveAll(isbns.stream().map(BookChange::new).toList());
+    }
+
+    public BookChangesDTO changesSince(long since, int limit) {
+        List<BookChange> page = bookChangeRepository.findByPublishedGreaterThanOrderByPublishedAsc(
+                since, PageRequest.of(0, limit));
+        if (page.isEmpty()) {
+            return new BookChangesDTO(List.of(), List.of(), Long.toString(since), false);
+        }
+
+        LinkedHashSet<String> isbns = new LinkedHashSet<>();
+        for (BookChange change : page) {
+            isbns.remove(change.getIsbn());
+            isbns.add(change.getIsbn());
+        }
+        Map<String, Book> books = bookRepository.findAllById(isbns).stream()
+                .collect(Collectors.toMap(Book::getIsbn, Function.identity()));
+
+        List<BookDTO> changed = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        for (String isbn : isbns) {
+            Book book = books.get(isbn);
+            if (book != null) {
+                changed.add(new BookDTO(book));
+            } else {
+                deleted.add(isbn);
+            }
+        }
+        long next = page.get(page.size() - 1).getPublished();
+        return new BookChangesDTO(changed, deleted, Long.toString(next), page.size() == limit);
+    }
+
+    /**
+     * Like {@link #changesSince} but only the ISBN and number of each change,
+     * without reading the books; a book written twice in the page appears twice.
+     */
+    public BookChangeKeysDTO keysSince(long since, int limit) {
+        List<BookChangeKeysDTO.Key> keys = jdbcTemplate.query(
+                "SELECT isbn, published FROM book_changes WHERE published > ? ORDER BY published LIMIT ?",
+                (rs, rowNum) -> new BookChangeKeysDTO.Key(rs.getString(1), rs.getLong(2)), since, limit);
+        long next = keys.isEmpty() ? since : keys.get(keys.size() - 1).getSeq();
+        return new BookChangeKeysDTO(keys, Long.toString(next), keys.size() == limit);
+    }
+
+    /**
+     * An empty page whose token is where a replica that is caught up now would resume.
+     */
+    public BookChangesDTO latest() {
+        Long head = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(published), 0) FROM book_changes", Long.class);
+        return new BookChangesDTO(List.of(), List.of(), Long.toString(head), false);
+    }
+
+    /**
+     * Numbers committed change rows that have no number yet, in IDENTITY
+     * order. Rows still being written are invisible here and get a higher
+     * number on a later run. The counter row stays locked until this
+     * transaction commits, so runs on other instances wait and continue
+     * after the numbers handed out here.
+     */
+    @Scheduled(fixedDelayString = "${changes.publish-interval-ms:200}")
+    @Transactional
+    public void publish() {
+        Long next = jdbcTemplate.queryForObject("SELECT next_val FROM " + SEQUENCES
+                + " WHERE sequence_name = '" + SEQUENCE + "' FOR UPDATE", Long.class);
+        // A plain read taken after the lock, so its snapshot includes the previous run's numbers
+        List<Long> pending = jdbcTemplate.queryForList(
+                "SELECT seq FROM book_changes WHERE published IS NULL ORDER BY seq LIMIT ?", Long.class,
+                publishBatchSize);
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Object[]> numbers = new ArrayList<>(pending.size());
+        for (Long seq : pending) {
+            numbers.add(new Object[]{next++, seq});
+        }
+        jdbcTemplate.batchUpdate("UPDATE book_changes SET published = ? WHERE seq = ?", numbers);
+        jdbcTemplate.update("UPDATE " + SEQUENCES + " SET next_val = ? WHERE sequence_name = '" + SEQUENCE + "'",
+                next);
+    }
+
+    /**
+     * Gives every book written before the log existed a change row, so a
+     * replica syncing from token 0 sees the whole catalog.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        jdbcTemplate.update("INSERT INTO book_changes (isbn, changed_at) "
+                + "SELECT b.isbn, ? FROM books b "
+                + "WHERE NOT EXISTS (SELECT 1 FROM book_changes c WHERE c.isbn = b.isbn)",
+                Instant.now());
+    }
+
+    /**
+     * Drops change rows superseded by a later change to the same ISBN. A
+     * replica behind the dropped row still receives the later one.
+     */
+    @Scheduled(fixedDelayString = "${changes.compact-interval-ms:3600000}")
+    public void compact() {
+        jdbcTemplate.update("DELETE c FROM book_changes c "
+                + "JOIN book_changes n ON n.isbn = c.isbn AND n.seq > c.seq");
+    }
+}
@@ -0,0 +1,37 @@
+package bookservice.sync;
+
+import bookservice.dto.BookDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 64-bit content hash of a book row: the first 8 bytes (big-endian) of
+ * SHA-256 over isbn, title, author, description, genre, price with two
+ * decimals and quantity, joined by U+001F. Price is formatted as MySQL
+ * stores it, so 10 and 10.00 hash the same.
+ */
+public final class BookContentHash {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private BookContentHash() {}
+
+    public static long of(BookDTO book) {
+        String price = BigDecimal.valueOf(book.getPrice()).setScale(2, RoundingMode.HALF_UP).toPlainString();
+        String canonical = String.join("\u001f", book.getIsbn(), book.getTitle(), book.getAuthor(),
+                book.getDescription(), book.getGenre(), price, book.getQuantity().toString());
+        byte[] sha = SHA_256.get().digest(canonical.getBytes(StandardCharsets.UTF_8));
+        return ByteBuffer.wrap(sha, 0, 8).getLong();
+    }
+}
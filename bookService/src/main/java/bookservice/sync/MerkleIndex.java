@@ -0,0 +1,204 @@
+package bookservice.sync;
+
+import bookservice.dto.BookDTO;
+import bookservice.entity.Book;
+import bookservice.store.BookStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Merkle tree over ISBN prefixes for anti-entropy checks by caches and
+ * replicas. A node is an ISBN prefix ("" is the root); its children are the
+ * prefixes one character longer that have books under them. A node's hash is
+ * the sum, mod 2^64, of the {@link BookContentHash} of every book under it,
+ * so a write only adjusts the nodes on its own path.
+ * <p>
+ * To repair, compare the root, descend into children whose hash differs, and
+ * once a node is small enough its ISBNs and row hashes are listed so only
+ * those keys need to be re-fetched.
+ * <p>
+ * Each instance keeps its own tree. Local writes update it directly, and
+ * {@code BookChangeFollower} applies writes made through other instances.
+ */
+@Component
+public class MerkleIndex {
+
+    private final TreeMap<String, Long> rowHashes = new TreeMap<>();
+    private final Map<String, Node> nodes = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Hashes put while a rebuild is scanning the store; null otherwise. Guarded by lock
+    private Map<String, Long> writtenDuringRebuild;
+
+    @Autowired
+    private BookStore bookStore;
+
+    @Value("${merkle.max-depth:8}")
+    private int maxDepth;
+
+    @Value("${merkle.leaf-size:64}")
+    private int leafSize;
+
+    /**
+     * Runs at startup and periodically, so out-of-order index updates from
+     * concurrent writes to the same ISBN cannot leave the tree drifted for long.
+     * The scan runs without the lock; hashes put while it runs are kept and
+     * win over what the scan read, which may predate them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${merkle.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${merkle.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        Map<String, Long> written = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            writtenDuringRebuild = written;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<Book> books = null;
+        try {
+            books = bookStore.findAll();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                writtenDuringRebuild = null;
+                if (books != null) {
+                    rowHashes.clear();
+                    nodes.clear();
+                    for (Book book : books) {
+                        if (!written.containsKey(book.getIsbn())) {
+                            putLocked(book.getIsbn(), BookContentHash.of(new BookDTO(book)));
+                        }
+                    }
+                    written.forEach(this::putLocked);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void put(Book book) {
+        put(book.getIsbn(), BookContentHash.of(new BookDTO(book)));
+    }
+
+    /**
+     * Sets the row hash of {@code isbn}, already computed as {@link BookContentHash}.
+     */
+    public void put(String isbn, long hash) {
+        lock.writeLock().lock();
+        try {
+            if (writtenDuringRebuild != null) {
+                writtenDuringRebuild.put(isbn, hash);
+            }
+            putLocked(isbn, hash);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The node for {@code prefix}: hash and count, then either its children
+     * or, at a leaf, the ISBNs under it with their row hashes.
+     */
+    public Map<String, Object> node(String prefix) {
+        lock.readLock().lock();
+        try {
+            SortedMap<String, Long> range = rowHashes.subMap(prefix, prefix + Character.MAX_VALUE);
+            long[] aggregate = aggregate(prefix, range);
+            Map<String, Object> node = describe(prefix, aggregate);
+            if (aggregate[1] <= leafSize) {
+                List<Map<String, Object>> keys = new ArrayList<>();
+                range.forEach((isbn, hash) -> {
+                    Map<String, Object> key = new LinkedHashMap<>();
+                    key.put("ISBN", isbn);
+                    key.put("hash", hex(hash));
+                    keys.add(key);
+                });
+                node.put("keys", keys);
+                return node;
+            }
+            List<Map<String, Object>> children = new ArrayList<>();
+            List<Map<String, Object>> keys = new ArrayList<>();
+            String next = range.isEmpty() ? null : range.firstKey();
+            while (next != null && next.startsWith(prefix)) {
+                if (next.length() == prefix.length()) {
+                    // An ISBN that is itself the prefix belongs to no child
+                    Map<String, Object> key = new LinkedHashMap<>();
+                    key.put("ISBN", next);
+                    key.put("hash", hex(rowHashes.get(next)));
+                    keys.add(key);
+                    next = rowHashes.higherKey(next);
+                    continue;
+                }
+                String child = next.substring(0, prefix.length() + 1);
+                children.add(describe(child,
+                        aggregate(child, rowHashes.subMap(child, child + Character.MAX_VALUE))));
+                next = rowHashes.ceilingKey(child + Character.MAX_VALUE);
+            }
+            node.put("children", children);
+            if (!keys.isEmpty()) {
+                node.put("keys", keys);
+            }
+            return node;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putLocked(String isbn, long hash) {
+        Long previous = rowHashes.put(isbn, hash);
+        long delta = previous == null ? hash : hash - previous;
+        int depth = Math.min(isbn.length(), maxDepth);
+        for (int i = 0; i <= depth; i++) {
+            Node node = nodes.computeIfAbsent(isbn.substring(0, i), k -> new Node());
+            node.hash += delta;
+            if (previous == null) {
+                node.count++;
+            }
+        }
+    }
+
+    // Prefixes deeper than max-depth are not materialized and are summed on demand
+    private long[] aggregate(String prefix, SortedMap<String, Long> range) {
+        if (prefix.length() <= maxDepth) {
+            Node node = nodes.get(prefix);
+            return node == null ? new long[2] : new long[]{node.hash, node.count};
+        }
+        long hash = 0;
+        for (long rowHash : range.values()) {
+            hash += rowHash;
+        }
+        return new long[]{hash, range.size()};
+    }
+
+    private static Map<String, Object> describe(String prefix, long[] aggregate) {
+        Map<String, Object> node = new LinkedHashMap<>();
+        node.put("range", prefix);
+        node.put("hash", hex(aggregate[0]));
+        node.put("count", aggregate[1]);
+        return node;
+    }
+
+    private static String hex(long hash) {
+        return String.format("%016x", hash);
+    }
+
+    private static final class Node {
+        long hash;
+        long count;
+    }
+}
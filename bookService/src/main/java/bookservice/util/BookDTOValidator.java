@@ -0,0 +1,78 @@
+package bookservice.util;
+
+import bookservice.dto.BookDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * The {@link BookDTO} constraints checked directly instead of through Bean
+ * Validation. Field names, codes and messages match what the annotations
+ * on BookDTO produce.
+ */
+@Component
+public class BookDTOValidator implements Validator {
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return BookDTO.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        BookDTO book = (BookDTO) target;
+        notNull(errors, "isbn", book.getIsbn());
+        notNull(errors, "title", book.getTitle());
+        notNull(errors, "author", book.getAuthor());
+        notNull(errors, "description", book.getDescription());
+        notNull(errors, "genre", book.getGenre());
+        notNull(errors, "price", book.getPrice());
+        notNull(errors, "quantity", book.getQuantity());
+        if (!ValidationRules.isNonNegativePrice(book.getPrice())) {
+            errors.rejectValue("price", "DecimalMin", ValidationRules.PRICE_MIN);
+        }
+        if (!ValidationRules.hasPriceDigits(book.getPrice())) {
+            errors.rejectValue("price", "Digits", ValidationRules.PRICE_DIGITS);
+        }
+    }
+
+    /**
+     * First failed constraint as "property message", or null if the book is valid.
+     */
+    public String firstError(BookDTO book) {
+        if (book.getIsbn() == null) {
+            return "isbn " + ValidationRules.NOT_NULL;
+        }
+        if (book.getTitle() == null) {
+            return "title " + ValidationRules.NOT_NULL;
+        }
+        if (book.getAuthor() == null) {
+            return "author " + ValidationRules.NOT_NULL;
+        }
+        if (book.getDescription() == null) {
+            return "description " + ValidationRules.NOT_NULL;
+        }
+        if (book.getGenre() == null) {
+            return "genre " + ValidationRules.NOT_NULL;
+        }
+        if (book.getPrice() == null) {
+            return "price " + ValidationRules.NOT_NULL;
+        }
+        if (book.getQuantity() == null) {
+            return "quantity " + ValidationRules.NOT_NULL;
+        }
+        if (!ValidationRules.isNonNegativePrice(book.getPrice())) {
+            return "price " + ValidationRules.PRICE_MIN;
+        }
+        if (!ValidationRules.hasPriceDigits(book.getPrice())) {
+            return "price " + ValidationRules.PRICE_DIGITS;
+        }
+        return null;
+    }
+
+    private static void notNull(Errors errors, String field, Object value) {
+        if (value == null) {
+            errors.rejectValue(field, "NotNull", ValidationRules.NOT_NULL);
+        }
+    }
+}
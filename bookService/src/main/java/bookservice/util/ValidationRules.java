@@ -0,0 +1,42 @@
+package bookservice.util;
+
+/**
+ * Hand-written checks for the request constraints, walking the characters
+ * directly instead of going through Bean Validation reflection or regex
+ * matchers, so the passing path allocates nothing. Only the rules BookDTO
+ * needs are kept here.
+ */
+public final class ValidationRules {
+
+    // Hibernate Validator default messages, so error output is unchanged
+    public static final String NOT_NULL = "must not be null";
+    public static final String PRICE_MIN = "must be greater than or equal to 0.00";
+    public static final String PRICE_DIGITS = "numeric value out of bounds (<10 digits>.<2 digits> expected)";
+
+    private static final double PRICE_LIMIT = 1e10;
+
+    private ValidationRules() {}
+
+    /**
+     * {@code @DecimalMin("0.00")}.
+     */
+    public static boolean isNonNegativePrice(Double value) {
+        return value == null || value >= 0;
+    }
+
+    /**
+     * {@code @Digits(integer = 10, fraction = 2)}: under 10^10 in magnitude
+     * and, like Hibernate's check on the shortest decimal form of the double,
+     * no more than two decimals.
+     */
+    public static boolean hasPriceDigits(Double value) {
+        if (value == null) {
+            return true;
+        }
+        double magnitude = Math.abs(value);
+        if (!(magnitude < PRICE_LIMIT)) {
+            return false;
+        }
+        return Math.rint(magnitude * 100) / 100 == magnitude;
+    }
+}
@@ -0,0 +1,44 @@
+package bookservice.browse;
+
+import bookservice.entity.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FacetIndexTest {
+
+    @Test
+    void genreFilterIgnoresCase() {
+        FacetIndex index = new FacetIndex();
+        index.put(book("1", "Technology"));
+        index.put(book("2", "technology"));
+        index.put(book("3", "Fiction"));
+
+        FacetIndex.Result result = index.browse(List.of("TECHNOLOGY"), null, null, null, 0, 10);
+
+        assertThat(result.getIsbns()).containsExactly("1", "2");
+        assertThat(result.getFacets().get("genre")).containsEntry("Technology", 2).containsEntry("Fiction", 1);
+    }
+
+    @Test
+    void pageBeyondIntRangeIsEmpty() {
+        FacetIndex index = new FacetIndex();
+        index.put(book("1", "Fiction"));
+
+        FacetIndex.Result result = index.browse(null, null, null, null, Integer.MAX_VALUE / 2, 100);
+
+        assertThat(result.getIsbns()).isEmpty();
+        assertThat(result.getTotal()).isEqualTo(1);
+    }
+
+    private static Book book(String isbn, String genre) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setGenre(genre);
+        book.setPrice(15.0);
+        book.setQuantity(1);
+        return book;
+    }
+}
@@ -0,0 +1,69 @@
+package bookservice.hotkeys;
+
+import bookservice.dto.BookDTO;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotBookCacheTest {
+
+    @Test
+    void readOverlappingAnInvalidateDoesNotCacheTheOldRow() {
+        HotBookCache cache = new HotBookCache(64, 2, 10, 1, 100, 60000);
+        long stamp = cache.stamp("1");
+        BookDTO loadedBeforeWrite = book("1", "old");
+
+        cache.invalidate("1");
+        cache.put("1", loadedBeforeWrite, stamp);
+
+        assertThat(cache.get("1")).isNull();
+        cache.put("1", book("1", "new"), cache.stamp("1"));
+        assertThat(cache.get("1").getTitle()).isEqualTo("new");
+    }
+
+    @Test
+    void pinnedBooksAreGuardedToo() {
+        HotBookCache cache = new HotBookCache(64, 2, 10, 1, 100, 60000);
+        for (int i = 0; i < 5; i++) {
+            cache.get("1");
+        }
+        cache.refresh(isbn -> book(isbn, "pinned"));
+        assertThat(cache.hotSet()).anySatisfy(hit -> assertThat(hit).containsEntry("pinned", true));
+
+        long stamp = cache.stamp("1");
+        cache.invalidate("1");
+        cache.put("1", book("1", "old"), stamp);
+
+        assertThat(cache.get("1")).isNull();
+    }
+
+    @Test
+    void trimsRecentAreaToCapacityKeepingRecentReads() throws InterruptedException {
+        HotBookCache cache = new HotBookCache(64, 2, 10, 1000, 100, 60000);
+        for (int i = 0; i < 100; i++) {
+            cache.put("k" + i, book("k" + i, "t"), cache.stamp("k" + i));
+        }
+        Thread.sleep(5);
+        cache.get("k0");
+        for (int i = 100; i < 150; i++) {
+            cache.put("k" + i, book("k" + i, "t"), cache.stamp("k" + i));
+        }
+
+        int cached = 0;
+        for (int i = 0; i < 150; i++) {
+            if (cache.get("k" + i) != null) {
+                cached++;
+            }
+        }
+        assertThat(cached).isLessThanOrEqualTo(100);
+        assertThat(cache.get("k0")).isNotNull();
+        assertThat(cache.get("k149")).isNotNull();
+    }
+
+    private static BookDTO book(String isbn, String title) {
+        BookDTO book = new BookDTO();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        return book;
+    }
+}
@@ -0,0 +1,148 @@
+package bookservice.search;
+
+import bookservice.entity.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestIndexTest {
+
+    @Test
+    void findsBooksByTitleAuthorAndWordStarts() {
+        SuggestIndex index = new SuggestIndex();
+        index.put(book("1", "Spring Boot in Action", "Craig Walls", 5));
+        index.put(book("2", "Spring Security", "Laurentiu Spilca", 3));
+
+        assertThat(isbns(index.suggest("spr", 10))).containsExactly("1", "2");
+        assertThat(isbns(index.suggest("boot", 10))).containsExactly("1");
+        assertThat(isbns(index.suggest("walls", 10))).containsExactly("1");
+        assertThat(isbns(index.suggest("  SPRING   sec", 10))).containsExactly("2");
+        assertThat(index.suggest("spring x", 10)).isEmpty();
+        assertThat(index.suggest("", 10)).isEmpty();
+    }
+
+    @Test
+    void ranksByStockThenTitleAndHonoursLimit() {
+        SuggestIndex index = new SuggestIndex();
+        index.put(book("1", "Java B", "A", 1));
+        index.put(book("2", "Java A", "A", 1));
+        index.put(book("3", "Java C", "A", 9));
+
+        assertThat(isbns(index.suggest("java", 10))).containsExactly("3", "2", "1");
+        assertThat(isbns(index.suggest("java", 2))).containsExactly("3", "2");
+    }
+
+    @Test
+    void updateStockReranksWithoutReindexing() {
+        SuggestIndex index = new SuggestIndex();
+        index.put(book("1", "Kotlin", "A", 1));
+        index.put(book("2", "Kotlin Coroutines", "B", 2));
+
+        index.updateStock("1", 7);
+
+        assertThat(isbns(index.suggest("kot", 10))).containsExactly("1", "2");
+        assertThat(index.suggest("kot", 10).get(0).getScore()).isEqualTo(7);
+    }
+
+    @Test
+    void bookWithoutKeysIsSkippedAndStockUpdatesIgnoreIt() {
+        SuggestIndex index = new SuggestIndex();
+        index.put(book("1", "  ", null, 1));
+
+        index.updateStock("1", 5);
+        index.remove("1");
+
+        assertThat(index.stats()).containsEntry("books", 0);
+    }
+
+    @Test
+    void putReplacesOldKeysAndRemoveMergesNodes() {
+        SuggestIndex index = new SuggestIndex();
+        index.put(book("1", "Clean Code", "Martin", 1));
+        index.put(book("2", "Clean Architecture", "Martin", 1));
+
+        index.put(book("1", "Refactoring", "Fowler", 1));
+        assertThat(isbns(index.suggest("clean c", 10))).isEmpty();
+        assertThat(isbns(index.suggest("refac", 10))).containsExactly("1");
+
+        index.remove("2");
+        assertThat(index.suggest("clean", 10)).isEmpty();
+        assertThat(index.suggest("martin", 10)).isEmpty();
+        assertThat(isbns(index.suggest("fow", 10))).containsExactly("1");
+        assertThat(index.stats()).containsEntry("books", 1);
+    }
+
+    @Test
+    void matchesBruteForceUnderRandomWrites() {
+        Random random = new Random(42);
+        String[] words = {"java", "jav", "javascript", "spring", "spr", "boot", "data", "dat", "go", "gopher"};
+        SuggestIndex index = new SuggestIndex();
+        Map<String, Book> books = new HashMap<>();
+        for (int step = 0; step < 3000; step++) {
+            String isbn = "isbn-" + random.nextInt(200);
+            int op = random.nextInt(10);
+            if (op < 6) {
+                Book book = book(isbn, phrase(random, words), phrase(random, words), random.nextInt(50));
+                index.put(book);
+                books.put(isbn, book);
+            } else if (op < 8) {
+                int quantity = random.nextInt(50);
+                index.updateStock(isbn, quantity);
+                Book book = books.get(isbn);
+                if (book != null) {
+                    book.setQuantity(quantity);
+                }
+            } else {
+                index.remove(isbn);
+                books.remove(isbn);
+            }
+            if (step % 50 == 0) {
+                for (String word : words) {
+                    String prefix = word.substring(0, 1 + random.nextInt(word.length()));
+                    assertThat(isbns(index.suggest(prefix, SuggestIndex.TOP_K)))
+                            .as("prefix %s at step %d", prefix, step)
+                            .isEqualTo(expected(books, prefix));
+                }
+            }
+        }
+    }
+
+    private static List<String> expected(Map<String, Book> books, String prefix) {
+        return books.values().stream()
+                .filter(book -> SuggestIndex.keysFor(book).stream().anyMatch(key -> key.startsWith(prefix)))
+                .sorted(Comparator.comparing(Book::getQuantity).reversed()
+                        .thenComparing(Book::getTitle)
+                        .thenComparing(Book::getIsbn))
+                .limit(SuggestIndex.TOP_K)
+                .map(Book::getIsbn)
+                .toList();
+    }
+
+    private static String phrase(Random random, String[] words) {
+        List<String> parts = new ArrayList<>();
+        for (int i = 0, n = 1 + random.nextInt(3); i < n; i++) {
+            parts.add(words[random.nextInt(words.length)]);
+        }
+        return String.join(" ", parts);
+    }
+
+    private static List<String> isbns(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getIsbn).toList();
+    }
+
+    private static Book book(String isbn, String title, String author, int quantity) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setQuantity(quantity);
+        return book;
+    }
+}
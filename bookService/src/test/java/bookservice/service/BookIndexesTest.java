@@ -0,0 +1,115 @@
+package bookservice.service;
+
+import bookservice.browse.FacetIndex;
+import bookservice.dto.BookFields;
+import bookservice.dto.BookPatch;
+import bookservice.entity.Book;
+import bookservice.hotkeys.HotBookCache;
+import bookservice.related.RelatedIndex;
+import bookservice.search.SuggestIndex;
+import bookservice.store.BookStore;
+import bookservice.sync.MerkleIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookIndexesTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Mock
+    private BookStore bookStore;
+
+    @Mock
+    private HotBookCache hotBookCache;
+
+    @Mock
+    private SuggestIndex suggestIndex;
+
+    @Mock
+    private FacetIndex facetIndex;
+
+    @Mock
+    private MerkleIndex merkleIndex;
+
+    @Mock
+    private RelatedIndex relatedIndex;
+
+    @InjectMocks
+    private BookIndexes bookIndexes;
+
+    @Test
+    void stockPatchUpdatesIndexesWithoutLoadingTheBook() throws Exception {
+        when(bookStore.findContentHash("1")).thenReturn(OptionalLong.of(42L));
+
+        bookIndexes.patched("1", patch("{\"quantity\": 7, \"price\": 9.5}"));
+
+        verify(bookStore, never()).findById(anyString());
+        verify(bookStore, never()).findFields(anyString(), any());
+        verify(suggestIndex).updateStock("1", 7);
+        verify(relatedIndex, never()).touched(anyString());
+        verify(merkleIndex).put("1", 42L);
+        verify(hotBookCache).invalidate("1");
+    }
+
+    @Test
+    void titlePatchReadsOnlySuggestFields() throws Exception {
+        when(bookStore.findFields(eq("1"), any())).thenReturn(
+                Optional.of(Map.of("title", "New", "Author", "A", "quantity", 3)));
+        when(bookStore.findContentHash("1")).thenReturn(OptionalLong.of(42L));
+
+        bookIndexes.patched("1", patch("{\"title\": \"New\"}"));
+
+        ArgumentCaptor<BookFields> fields = ArgumentCaptor.forClass(BookFields.class);
+        verify(bookStore).findFields(eq("1"), fields.capture());
+        assertThat(fields.getValue().getAttributes()).containsExactly("title", "author", "quantity");
+        ArgumentCaptor<Book> book = ArgumentCaptor.forClass(Book.class);
+        verify(suggestIndex).put(book.capture());
+        assertThat(book.getValue().getTitle()).isEqualTo("New");
+        assertThat(book.getValue().getQuantity()).isEqualTo(3);
+        verify(relatedIndex).touched("1");
+        verify(bookStore, never()).findById(anyString());
+    }
+
+    @Test
+    void patchOfDeletedBookLeavesMerkleAlone() throws Exception {
+        when(bookStore.findContentHash("1")).thenReturn(OptionalLong.empty());
+
+        bookIndexes.patched("1", patch("{\"genre\": \"x\"}"));
+
+        verify(merkleIndex, never()).put(anyString(), anyLong());
+        verify(relatedIndex).touched("1");
+    }
+
+    @Test
+    void bulkRestockUsesTheHashItWasGiven() {
+        bookIndexes.patched("1", BookPatch.of("quantity", 12), 42L);
+
+        verify(bookStore, never()).findContentHash(anyString());
+        verify(suggestIndex).updateStock("1", 12);
+        verify(merkleIndex).put("1", 42L);
+        verify(hotBookCache).invalidate("1");
+    }
+
+    private static BookPatch patch(String json) throws Exception {
+        return BookPatch.from(MAPPER.readTree(json), "1");
+    }
+}
@@ -0,0 +1,175 @@
+package bookservice.service;
+
+import bookservice.entity.Book;
+import bookservice.sync.BookChangeLog;
+import bookstore.audit.AuditLog;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Commits/sec and latency of PUT-style book updates, one transaction per
+ * request against {@link GroupCommitWriter}. Needs a MySQL database it may
+ * create a {@code books} table in; rows it writes use the {@code bench-}
+ * ISBN prefix and are removed afterwards:
+ * <pre>
+ * mvn test -Dtest=GroupCommitBenchmarkTest \
+ *     -Dbench.jdbc-url='jdbc:mysql://localhost:3306/bookstore?rewriteBatchedStatements=true' \
+ *     -Dbench.user=root -Dbench.password=... [-Dbench.threads=64] [-Dbench.seconds=10]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "bench.jdbc-url", matches = ".+")
+class GroupCommitBenchmarkTest {
+
+    private static final int THREADS = Integer.getInteger("bench.threads", 64);
+    private static final int SECONDS = Integer.getInteger("bench.seconds", 10);
+    private static final int BOOKS = 1000;
+    private static final String UPDATE_BOOK =
+            "UPDATE books SET title = ?, author = ?, description = ?, genre = ?, price = ?, quantity = ? WHERE isbn = ?";
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("bench.jdbc-url"));
+        dataSource.setUsername(System.getProperty("bench.user", "root"));
+        dataSource.setPassword(System.getProperty("bench.password", ""));
+        dataSource.setMaximumPoolSize(THREADS + 2);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS books (isbn VARCHAR(20) PRIMARY KEY,"
+                + " title VARCHAR(255) NOT NULL, author VARCHAR(255) NOT NULL, description TEXT NOT NULL,"
+                + " genre VARCHAR(100) NOT NULL, price DECIMAL(10,2) NOT NULL, quantity INT NOT NULL)");
+        jdbcTemplate.update("DELETE FROM books WHERE isbn LIKE 'bench-%'");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            rows.add(new Object[]{"bench-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO books VALUES (?, 'Title', 'Author', 'Description', 'fiction', 9.99, 1)",
+                rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM books WHERE isbn LIKE 'bench-%'");
+        dataSource.close();
+    }
+
+    @Test
+    void groupCommitAgainstPerRequestTransactions() throws InterruptedException {
+        Result perRequest = run(book -> transactionTemplate.execute(status -> jdbcTemplate.update(UPDATE_BOOK,
+                book.getTitle(), book.getAuthor(), book.getDescription(), book.getGenre(), book.getPrice(),
+                book.getQuantity(), book.getIsbn())));
+
+        GroupCommitWriter writer = new GroupCommitWriter();
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(writer, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(writer, "bookChangeLog", mock(BookChangeLog.class));
+        ReflectionTestUtils.setField(writer, "auditLog", mock(AuditLog.class));
+        ReflectionTestUtils.setField(writer, "enabled", true);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 10000);
+        ReflectionTestUtils.setField(writer, "maxBatch", 200);
+        ReflectionTestUtils.setField(writer, "maxWaitMillis", 5L);
+        writer.start();
+        Result grouped;
+        try {
+            grouped = run(writer::update);
+        } finally {
+            writer.stop();
+        }
+
+        System.out.printf("%d threads, %d s each%n", THREADS, SECONDS);
+        System.out.println("per-request transactions: " + perRequest);
+        System.out.println("group commit:             " + grouped);
+        assertThat(perRequest.errors).isZero();
+        assertThat(grouped.errors).isZero();
+    }
+
+    private Result run(Consumer<Book> write) throws InterruptedException {
+        long deadline = System.nanoTime() + SECONDS * 1_000_000_000L;
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] samples = new long[1 << 12];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    Book book = new Book();
+                    book.setIsbn("bench-" + random.nextInt(BOOKS));
+                    book.setTitle("Title");
+                    book.setAuthor("Author");
+                    book.setDescription("Description");
+                    book.setGenre("fiction");
+                    book.setPrice(9.99);
+                    book.setQuantity(random.nextInt(100));
+                    long start = System.nanoTime();
+                    try {
+                        write.accept(book);
+                    } catch (RuntimeException e) {
+                        errors.incrementAndGet();
+                        continue;
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                synchronized (latencies) {
+                    latencies.add(Arrays.copyOf(samples, count));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get());
+    }
+
+    private static final class Result {
+        final long[] sortedNanos;
+        final long errors;
+
+        Result(long[] sortedNanos, long errors) {
+            this.sortedNanos = sortedNanos;
+            this.errors = errors;
+        }
+
+        double percentileMillis(double p) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            return sortedNanos[(int) Math.min(sortedNanos.length - 1, p * sortedNanos.length)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f writes/s, p50 %.2f ms, p99 %.2f ms, max %.2f ms, %d errors",
+                    sortedNanos.length / (double) SECONDS, percentileMillis(0.5), percentileMillis(0.99),
+                    percentileMillis(1.0), errors);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package bookservice.service;
+
+import bookservice.entity.Book;
+import bookservice.exception.WriteQueueFullException;
+import bookservice.sync.BookChangeLog;
+import bookstore.audit.AuditLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GroupCommitWriterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private GroupCommitWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        writer = new GroupCommitWriter();
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(writer, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(writer, "bookChangeLog", mock(BookChangeLog.class));
+        ReflectionTestUtils.setField(writer, "auditLog", mock(AuditLog.class));
+        ReflectionTestUtils.setField(writer, "enabled", true);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 100);
+        ReflectionTestUtils.setField(writer, "maxBatch", 100);
+        // Long enough that writes submitted a few ms apart share a batch
+        ReflectionTestUtils.setField(writer, "maxWaitMillis", 300L);
+        writer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.stop();
+    }
+
+    @Test
+    void appliesWritesInQueueOrderWithinABatch() throws Exception {
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenAnswer(invocation ->
+                new int[invocation.<List<?>>getArgument(1).size()]);
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenAnswer(invocation -> {
+            int[] counts = new int[invocation.<List<?>>getArgument(1).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+
+        CompletableFuture<Book> post = CompletableFuture.supplyAsync(() -> writer.insert(book("x", "v1")));
+        Thread.sleep(30);
+        CompletableFuture<Book> put = CompletableFuture.supplyAsync(() -> writer.update(book("x", "v2")));
+        Thread.sleep(30);
+        CompletableFuture<Book> post2 = CompletableFuture.supplyAsync(() -> writer.insert(book("y", "v1")));
+
+        assertThat(post.get(5, TimeUnit.SECONDS).getTitle()).isEqualTo("v1");
+        assertThat(put.get(5, TimeUnit.SECONDS)).as("PUT after POST in the same batch").isNotNull();
+        assertThat(post2.get(5, TimeUnit.SECONDS)).isNotNull();
+
+        verify(transactionTemplate, times(1)).execute(any());
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), anyList());
+        order.verify(jdbcTemplate).batchUpdate(startsWith("UPDATE"), anyList());
+        order.verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), anyList());
+    }
+
+    @Test
+    void updateOfMissingIsbnReturnsNull() {
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenReturn(new int[]{0});
+
+        assertThat(writer.update(book("missing", "t"))).isNull();
+    }
+
+    @Test
+    void refusesWritesAfterStop() throws InterruptedException {
+        writer.stop();
+
+        assertThatThrownBy(() -> writer.insert(book("x", "t")))
+                .isInstanceOf(WriteQueueFullException.class)
+                .hasMessageContaining("shutting down");
+    }
+
+    private static Book book(String isbn, String title) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        return book;
+    }
+}
@@ -0,0 +1,195 @@
+package bookservice.service;
+
+import bookservice.dto.OrderDTO;
+import bookservice.dto.OrderLineDTO;
+import bookservice.entity.Order;
+import bookservice.repository.BookRepository;
+import bookservice.repository.OrderRepository;
+import bookservice.sync.BookChangeLog;
+import bookstore.audit.AuditLog;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Orders/sec and latency of {@link OrderService#placeOrder} with many
+ * threads placing overlapping carts over a small set of hot books, against
+ * the same stock updates applied in cart order, which is what deadlocks.
+ * Needs a MySQL database it may create a {@code books} table in; rows it
+ * writes use the {@code bench-} ISBN prefix and are removed afterwards.
+ * Orders themselves are not stored, only the stock decrements are timed:
+ * <pre>
+ * mvn test -Dtest=OrderBenchmarkTest \
+ *     -Dbench.jdbc-url='jdbc:mysql://localhost:3306/bookstore?rewriteBatchedStatements=true' \
+ *     -Dbench.user=root -Dbench.password=... [-Dbench.threads=64] [-Dbench.seconds=10] [-Dbench.books=50]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "bench.jdbc-url", matches = ".+")
+class OrderBenchmarkTest {
+
+    private static final int THREADS = Integer.getInteger("bench.threads", 64);
+    private static final int SECONDS = Integer.getInteger("bench.seconds", 10);
+    private static final int BOOKS = Integer.getInteger("bench.books", 50);
+    private static final int MAX_LINES = 5;
+    private static final String DECREMENT_STOCK =
+            "UPDATE books SET quantity = quantity - ? WHERE isbn = ? AND quantity >= ?";
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("bench.jdbc-url"));
+        dataSource.setUsername(System.getProperty("bench.user", "root"));
+        dataSource.setPassword(System.getProperty("bench.password", ""));
+        dataSource.setMaximumPoolSize(THREADS + 2);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS books (isbn VARCHAR(20) PRIMARY KEY,"
+                + " title VARCHAR(255) NOT NULL, author VARCHAR(255) NOT NULL, description TEXT NOT NULL,"
+                + " genre VARCHAR(100) NOT NULL, price DECIMAL(10,2) NOT NULL, quantity INT NOT NULL)");
+        jdbcTemplate.update("DELETE FROM books WHERE isbn LIKE 'bench-%'");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            rows.add(new Object[]{"bench-" + i});
+        }
+        // Enough stock that no order is rejected for the length of a run
+        jdbcTemplate.batchUpdate("INSERT INTO books VALUES (?, 'Title', 'Author', 'Description', 'fiction', 9.99, 1000000000)",
+                rows);
+
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.save(any())).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(1L);
+            return order;
+        });
+        orderService = new OrderService();
+        ReflectionTestUtils.setField(orderService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(orderService, "bookRepository", mock(BookRepository.class));
+        ReflectionTestUtils.setField(orderService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(orderService, "bookChangeLog", mock(BookChangeLog.class));
+        ReflectionTestUtils.setField(orderService, "auditLog", mock(AuditLog.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM books WHERE isbn LIKE 'bench-%'");
+        dataSource.close();
+    }
+
+    @Test
+    void isbnOrderedBatchAgainstCartOrder() throws InterruptedException {
+        Result isbnOrdered = run(order -> transactionTemplate.executeWithoutResult(status ->
+                orderService.placeOrder(order)));
+        Result cartOrdered = run(order -> transactionTemplate.executeWithoutResult(status -> {
+            for (OrderLineDTO line : order.getLines()) {
+                jdbcTemplate.update(DECREMENT_STOCK, line.getQuantity(), line.getIsbn(), line.getQuantity());
+            }
+        }));
+
+        System.out.printf("%d threads, %d s each, carts of 1-%d lines over %d books%n",
+                THREADS, SECONDS, MAX_LINES, BOOKS);
+        System.out.println("ISBN-ordered batch (OrderService): " + isbnOrdered);
+        System.out.println("cart order, one UPDATE per line:   " + cartOrdered);
+        assertThat(isbnOrdered.errors).as("deadlocks or failures with ISBN ordering").isZero();
+    }
+
+    private Result run(Consumer<OrderDTO> place) throws InterruptedException {
+        long deadline = System.nanoTime() + SECONDS * 1_000_000_000L;
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] samples = new long[1 << 12];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    OrderDTO order = cart(random);
+                    long start = System.nanoTime();
+                    try {
+                        place.accept(order);
+                    } catch (DataAccessException e) {
+                        errors.incrementAndGet();
+                        continue;
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                synchronized (latencies) {
+                    latencies.add(Arrays.copyOf(samples, count));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get());
+    }
+
+    // Distinct random books in random order, so concurrent carts overlap and disagree on order
+    private static OrderDTO cart(ThreadLocalRandom random) {
+        List<OrderLineDTO> lines = new ArrayList<>();
+        random.ints(0, BOOKS).distinct().limit(1 + random.nextInt(MAX_LINES)).forEach(book -> {
+            OrderLineDTO line = new OrderLineDTO();
+            line.setIsbn("bench-" + book);
+            line.setQuantity(1 + random.nextInt(3));
+            lines.add(line);
+        });
+        OrderDTO order = new OrderDTO();
+        order.setCustomerId(1L);
+        order.setLines(lines);
+        return order;
+    }
+
+    private static final class Result {
+        final long[] sortedNanos;
+        final long errors;
+
+        Result(long[] sortedNanos, long errors) {
+            this.sortedNanos = sortedNanos;
+            this.errors = errors;
+        }
+
+        double percentileMillis(double p) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            return sortedNanos[(int) Math.min(sortedNanos.length - 1, p * sortedNanos.length)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f orders/s, p50 %.2f ms, p99 %.2f ms, max %.2f ms, %d failed (deadlocks)",
+                    sortedNanos.length / (double) SECONDS, percentileMillis(0.5), percentileMillis(0.99),
+                    percentileMillis(1.0), errors);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package bookservice.service;
+
+import bookservice.dto.OrderDTO;
+import bookservice.dto.OrderLineDTO;
+import bookservice.entity.Order;
+import bookservice.exception.OrderRejectedException;
+import bookservice.repository.BookRepository;
+import bookservice.repository.OrderRepository;
+import bookservice.sync.BookChangeLog;
+import bookstore.audit.AuditLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private BookChangeLog bookChangeLog;
+
+    @Mock
+    private AuditLog auditLog;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    @Test
+    void mergesLinesAndDecrementsInIsbnOrder() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 1, 1});
+        when(orderRepository.save(any())).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(7L);
+            return order;
+        });
+
+        Order order = orderService.placeOrder(order(line("c", 1), line("a", 2), line("b", 1), line("a", 3)));
+
+        assertThat(lastBatch(1)).containsExactly(
+                List.of(5, "a", 5),
+                List.of(1, "b", 1),
+                List.of(1, "c", 1));
+        assertThat(order.getLines()).extracting("isbn", "quantity")
+                .containsExactly(tuple("a", 5), tuple("b", 1), tuple("c", 1));
+    }
+
+    @Test
+    void overlappingCartsLockRowsInTheSameOrder() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 1, 1});
+        when(orderRepository.save(any())).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(1L);
+            return order;
+        });
+
+        orderService.placeOrder(order(line("z", 1), line("m", 1), line("a", 1)));
+        List<List<Object>> first = lastBatch(1);
+        orderService.placeOrder(order(line("a", 1), line("z", 1), line("m", 1)));
+        List<List<Object>> second = lastBatch(2);
+
+        assertThat(isbns(first)).containsExactly("a", "m", "z");
+        assertThat(isbns(second)).isEqualTo(isbns(first));
+    }
+
+    @Test
+    void rejectsShortStockWithoutSavingTheOrder() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 0});
+        when(bookRepository.existsById("b")).thenReturn(true);
+
+        assertThatThrownBy(() -> orderService.placeOrder(order(line("a", 1), line("b", 9))))
+                .isInstanceOf(OrderRejectedException.class)
+                .hasMessage("Insufficient stock for ISBN b.");
+        verify(orderRepository, never()).save(any());
+        verify(bookChangeLog, never()).record(anyList());
+    }
+
+    @Test
+    void rejectsUnknownIsbn() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{0});
+        when(bookRepository.existsById("x")).thenReturn(false);
+
+        assertThatThrownBy(() -> orderService.placeOrder(order(line("x", 1))))
+                .isInstanceOf(OrderRejectedException.class)
+                .hasMessage("ISBN x does not exist in the system.");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object>> lastBatch(int calls) {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(calls)).batchUpdate(anyString(), captor.capture());
+        return captor.getValue().stream().map(Arrays::asList).toList();
+    }
+
+    private static List<Object> isbns(List<List<Object>> batch) {
+        return batch.stream().map(args -> args.get(1)).toList();
+    }
+
+    private static OrderDTO order(OrderLineDTO... lines) {
+        OrderDTO order = new OrderDTO();
+        order.setCustomerId(1L);
+        order.setLines(List.of(lines));
+        return order;
+    }
+
+    private static OrderLineDTO line(String isbn, int quantity) {
+        OrderLineDTO line = new OrderLineDTO();
+        line.setIsbn(isbn);
+        line.setQuantity(quantity);
+        return line;
+    }
+}
@@ -0,0 +1,109 @@
+package bookservice.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Crashes are simulated by reopening a directory without closing the store
+ * that wrote it, or by putting files back as a crash would have left them.
+ */
+class LogStoreTest {
+
+    private static final int MAP_BYTES = 1 << 16;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoversUncheckpointedWritesFromTheWal() throws IOException {
+        LogStore store = new LogStore(dir, MAP_BYTES, true);
+        store.put("a", bytes("1"));
+        store.put("a", bytes("2"));
+        store.put("b", bytes("3"));
+
+        try (LogStore recovered = new LogStore(dir, MAP_BYTES, true)) {
+            assertThat(string(recovered.get("a"))).isEqualTo("2");
+            assertThat(string(recovered.get("b"))).isEqualTo("3");
+        }
+    }
+
+    @Test
+    void compactionKeepsLatestValuesAndDropsTheOldGeneration() throws IOException {
+        try (LogStore store = new LogStore(dir, MAP_BYTES, false)) {
+            for (int i = 0; i < 10; i++) {
+                store.put("a", bytes("v" + i));
+            }
+            store.put("b", bytes("b"));
+
+            assertThat(store.compact(0.5)).isTrue();
+            assertThat(string(store.get("a"))).isEqualTo("v9");
+            store.put("c", bytes("c"));
+        }
+
+        assertThat(files()).containsExactlyInAnyOrder("data-000002.dat", "wal.log");
+        try (LogStore recovered = new LogStore(dir, MAP_BYTES, false)) {
+            assertThat(string(recovered.get("a"))).isEqualTo("v9");
+            assertThat(string(recovered.get("b"))).isEqualTo("b");
+            assertThat(string(recovered.get("c"))).isEqualTo("c");
+        }
+    }
+
+    @Test
+    void crashWhileWritingNewGenerationKeepsTheOldOne() throws IOException {
+        try (LogStore store = new LogStore(dir, MAP_BYTES, false)) {
+            store.put("a", bytes("1"));
+            store.put("a", bytes("2"));
+        }
+        // A compaction that died before its rename leaves a partial temp file
+        Files.write(dir.resolve("data-000002.dat.tmp"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+
+        try (LogStore recovered = new LogStore(dir, MAP_BYTES, false)) {
+            assertThat(string(recovered.get("a"))).isEqualTo("2");
+            assertThat(recovered.stats()).containsEntry("generation", 1L);
+        }
+        assertThat(files()).containsExactlyInAnyOrder("data-000001.dat", "wal.log");
+    }
+
+    @Test
+    void crashAfterRenameUsesNewGenerationAndDeletesTheOld() throws IOException {
+        Path old = dir.resolve("data-000001.dat");
+        LogStore store = new LogStore(dir, MAP_BYTES, true);
+        store.put("a", bytes("1"));
+        store.put("a", bytes("2"));
+        store.checkpoint();
+        byte[] oldGeneration = Files.readAllBytes(old);
+        store.compact(0.1);
+        store.put("b", bytes("3"));
+        // As if the process stopped before deleting the old generation
+        Files.write(old, oldGeneration);
+
+        try (LogStore recovered = new LogStore(dir, MAP_BYTES, true)) {
+            assertThat(string(recovered.get("a"))).isEqualTo("2");
+            assertThat(string(recovered.get("b"))).isEqualTo("3");
+            assertThat(recovered.stats()).containsEntry("generation", 2L);
+        }
+        assertThat(files()).containsExactlyInAnyOrder("data-000002.dat", "wal.log");
+    }
+
+    private String[] files() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString()).toArray(String[]::new);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,133 @@
+package bookservice.store;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Point-read and single-row-write latency of the embedded {@link LogStore}
+ * against the MySQL {@code books} table, on the same book-sized records and
+ * the same random key sequence. Each side runs on its own, so the embedded
+ * numbers can be taken where there is no database:
+ * <pre>
+ * mvn test -Dtest=StoreLatencyBenchmarkTest -Dbench.embedded=true [-Dbench.sync-writes=true]
+ * mvn test -Dtest=StoreLatencyBenchmarkTest \
+ *     -Dbench.jdbc-url='jdbc:mysql://localhost:3306/bookstore' -Dbench.user=root -Dbench.password=...
+ * </pre>
+ * Optional: {@code -Dbench.books=10000 -Dbench.ops=20000}. The MySQL run
+ * writes rows with the {@code bench-} ISBN prefix and removes them afterwards.
+ */
+class StoreLatencyBenchmarkTest {
+
+    private static final int BOOKS = Integer.getInteger("bench.books", 10000);
+    private static final int OPS = Integer.getInteger("bench.ops", 20000);
+    private static final String DESCRIPTION = "x".repeat(800);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @EnabledIfSystemProperty(named = "bench.embedded", matches = "true")
+    void logStore() throws IOException {
+        boolean syncWrites = Boolean.parseBoolean(System.getProperty("bench.sync-writes", "true"));
+        try (LogStore store = new LogStore(dir, 1 << 24, syncWrites)) {
+            for (int i = 0; i < BOOKS; i++) {
+                store.put(isbn(i), json(i, 1));
+            }
+            int[] keys = keys();
+            long[] reads = new long[OPS];
+            long[] writes = new long[OPS];
+            for (int i = 0; i < OPS; i++) {
+                long start = System.nanoTime();
+                store.get(isbn(keys[i]));
+                reads[i] = System.nanoTime() - start;
+            }
+            for (int i = 0; i < OPS; i++) {
+                byte[] value = json(keys[i], i);
+                long start = System.nanoTime();
+                store.replace(isbn(keys[i]), value);
+                writes[i] = System.nanoTime() - start;
+            }
+            report("LogStore (sync-writes=" + syncWrites + ")", reads, writes);
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "bench.jdbc-url", matches = ".+")
+    void mysql() {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl(System.getProperty("bench.jdbc-url"));
+            dataSource.setUsername(System.getProperty("bench.user", "root"));
+            dataSource.setPassword(System.getProperty("bench.password", ""));
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS books (isbn VARCHAR(20) PRIMARY KEY,"
+                    + " title VARCHAR(255) NOT NULL, author VARCHAR(255) NOT NULL, description TEXT NOT NULL,"
+                    + " genre VARCHAR(100) NOT NULL, price DECIMAL(10,2) NOT NULL, quantity INT NOT NULL)");
+            jdbcTemplate.update("DELETE FROM books WHERE isbn LIKE 'bench-%'");
+            try {
+                List<Object[]> rows = new ArrayList<>();
+                for (int i = 0; i < BOOKS; i++) {
+                    rows.add(new Object[]{isbn(i), DESCRIPTION});
+                }
+                jdbcTemplate.batchUpdate("INSERT INTO books VALUES (?, 'Title', 'Author', ?, 'fiction', 9.99, 1)", rows);
+                int[] keys = keys();
+                long[] reads = new long[OPS];
+                long[] writes = new long[OPS];
+                for (int i = 0; i < OPS; i++) {
+                    long start = System.nanoTime();
+                    jdbcTemplate.queryForList("SELECT * FROM books WHERE isbn = ?", isbn(keys[i]));
+                    reads[i] = System.nanoTime() - start;
+                }
+                for (int i = 0; i < OPS; i++) {
+                    long start = System.nanoTime();
+                    jdbcTemplate.update("UPDATE books SET title = 'Title', author = 'Author', description = ?,"
+                            + " genre = 'fiction', price = 9.99, quantity = ? WHERE isbn = ?",
+                            DESCRIPTION, i, isbn(keys[i]));
+                    writes[i] = System.nanoTime() - start;
+                }
+                report("MySQL", reads, writes);
+            } finally {
+                jdbcTemplate.update("DELETE FROM books WHERE isbn LIKE 'bench-%'");
+            }
+        }
+    }
+
+    private static String isbn(int i) {
+        return "bench-" + i;
+    }
+
+    // Same shape as the BookDTO JSON the embedded store keeps
+    private static byte[] json(int i, int quantity) {
+        return ("{\"ISBN\":\"" + isbn(i) + "\",\"title\":\"Title\",\"Author\":\"Author\",\"description\":\""
+                + DESCRIPTION + "\",\"genre\":\"fiction\",\"price\":9.99,\"quantity\":" + quantity + "}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int[] keys() {
+        return ThreadLocalRandom.current().ints(OPS, 0, BOOKS).toArray();
+    }
+
+    private static void report(String name, long[] reads, long[] writes) {
+        System.out.printf("%s, %d books, %d ops each%n", name, BOOKS, OPS);
+        System.out.println("  point read: " + percentiles(reads));
+        System.out.println("  write:      " + percentiles(writes));
+    }
+
+    private static String percentiles(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return String.format("p50 %.1f us, p99 %.1f us, max %.1f us",
+                sorted[sorted.length / 2] / 1e3, sorted[(int) (sorted.length * 0.99)] / 1e3,
+                sorted[sorted.length - 1] / 1e3);
+    }
+}
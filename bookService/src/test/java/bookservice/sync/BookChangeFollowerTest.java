@@ -0,0 +1,76 @@
+package bookservice.sync;
+
+import bookservice.dto.BookChangeKeysDTO;
+import bookservice.dto.BookChangesDTO;
+import bookservice.hotkeys.HotBookCache;
+import bookservice.store.BookStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookChangeFollowerTest {
+
+    @Mock
+    private BookChangeLog bookChangeLog;
+
+    @Mock
+    private BookStore bookStore;
+
+    @Mock
+    private HotBookCache hotBookCache;
+
+    @Mock
+    private MerkleIndex merkleIndex;
+
+    @InjectMocks
+    private BookChangeFollower follower;
+
+    @BeforeEach
+    void setUp() {
+        when(bookChangeLog.latest()).thenReturn(new BookChangesDTO(List.of(), List.of(), "7", false));
+        follower.start();
+    }
+
+    @Test
+    void appliesEveryPageUntilCaughtUp() {
+        when(bookChangeLog.keysSince(7, 1000)).thenReturn(new BookChangeKeysDTO(
+                List.of(new BookChangeKeysDTO.Key("a", 8), new BookChangeKeysDTO.Key("a", 9)), "9", true));
+        when(bookChangeLog.keysSince(9, 1000)).thenReturn(new BookChangeKeysDTO(
+                List.of(new BookChangeKeysDTO.Key("b", 10)), "10", false));
+        when(bookStore.findContentHashes(Set.of("a"))).thenReturn(Map.of("a", 1L));
+        when(bookStore.findContentHashes(Set.of("b"))).thenReturn(Map.of());
+
+        follower.follow();
+
+        verify(hotBookCache).invalidate("a");
+        verify(hotBookCache).invalidate("b");
+        verify(merkleIndex).put("a", 1L);
+    }
+
+    @Test
+    void resumesFromTheLastToken() {
+        when(bookChangeLog.keysSince(7, 1000)).thenReturn(new BookChangeKeysDTO(
+                List.of(new BookChangeKeysDTO.Key("a", 8)), "8", false));
+        when(bookChangeLog.keysSince(8, 1000)).thenReturn(new BookChangeKeysDTO(List.of(), "8", false));
+        when(bookStore.findContentHashes(any())).thenReturn(Map.of("a", 1L));
+
+        follower.follow();
+        follower.follow();
+
+        verify(bookChangeLog).keysSince(8, 1000);
+        verify(hotBookCache, never()).invalidateAll();
+    }
+}
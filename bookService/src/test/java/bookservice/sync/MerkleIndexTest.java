@@ -0,0 +1,74 @@
+package bookservice.sync;
+
+import bookservice.dto.BookDTO;
+import bookservice.entity.Book;
+import bookservice.store.BookStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MerkleIndexTest {
+
+    @Mock
+    private BookStore bookStore;
+
+    @InjectMocks
+    private MerkleIndex merkleIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(merkleIndex, "maxDepth", 8);
+        ReflectionTestUtils.setField(merkleIndex, "leafSize", 64);
+    }
+
+    @Test
+    void writeDuringRebuildScanIsNotLost() {
+        Book stale = book("1", 5);
+        Book fresh = book("1", 4);
+        when(bookStore.findAll()).thenAnswer(invocation -> {
+            // Committed and indexed while the scan runs, which read the row before it
+            merkleIndex.put(fresh);
+            return List.of(stale, book("2", 1));
+        });
+
+        merkleIndex.rebuild();
+
+        long expected = BookContentHash.of(new BookDTO(fresh)) + BookContentHash.of(new BookDTO(book("2", 1)));
+        assertThat(merkleIndex.node("").get("hash")).isEqualTo(String.format("%016x", expected));
+        assertThat(merkleIndex.node("").get("count")).isEqualTo(2L);
+    }
+
+    @Test
+    void writesAfterRebuildAreNoLongerTracked() {
+        when(bookStore.findAll()).thenReturn(List.of(book("1", 5)));
+        merkleIndex.rebuild();
+        merkleIndex.put(book("1", 3));
+
+        merkleIndex.rebuild();
+
+        assertThat(merkleIndex.node("").get("hash"))
+                .isEqualTo(String.format("%016x", BookContentHash.of(new BookDTO(book("1", 5)))));
+    }
+
+    private static Book book(String isbn, int quantity) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle("Title");
+        book.setAuthor("Author");
+        book.setDescription("Description");
+        book.setGenre("fiction");
+        book.setPrice(9.99);
+        book.setQuantity(quantity);
+        return book;
+    }
+}
@@ -0,0 +1,94 @@
+package bookservice.util;
+
+import bookservice.dto.BookDTO;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the hand-written rules against Hibernate Validator running the
+ * annotations that are still on {@link BookDTO}.
+ */
+class BookDTOValidatorTest {
+
+    private static final int SAMPLES = 100_000;
+
+    private static ValidatorFactory factory;
+    private static Validator annotations;
+    private final BookDTOValidator validator = new BookDTOValidator();
+
+    @BeforeAll
+    static void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        annotations = factory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    void boundaryPrices() {
+        for (double price : new double[]{0, -0.0, -0.01, 0.1, 0.105, 19.99, 9_999_999_999.99, 1e10, 0.1 + 0.2, 1e-7}) {
+            BookDTO book = book(price);
+            assertThat(errors(book)).as("price %s", price).isEqualTo(annotationErrors(book));
+        }
+    }
+
+    @Test
+    void missingFieldsReportNotNullLikeTheAnnotations() {
+        BookDTO book = new BookDTO();
+
+        assertThat(errors(book)).isEqualTo(annotationErrors(book)).hasSize(7);
+        assertThat(validator.firstError(book)).isEqualTo("isbn must not be null");
+    }
+
+    @Test
+    void randomPricesMatchTheAnnotations() {
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            double scale = Math.pow(10, random.nextInt(5));
+            double price = Math.round(random.nextDouble() * Math.pow(10, random.nextInt(13)) * scale) / scale;
+            BookDTO book = book(random.nextInt(10) == 0 ? -price : price);
+            assertThat(errors(book)).as("price %s", book.getPrice()).isEqualTo(annotationErrors(book));
+        }
+    }
+
+    private List<String> errors(BookDTO book) {
+        BeanPropertyBindingResult result = new BeanPropertyBindingResult(book, "book");
+        validator.validate(book, result);
+        return result.getFieldErrors().stream()
+                .map(error -> error.getField() + " " + error.getDefaultMessage())
+                .sorted()
+                .toList();
+    }
+
+    private static List<String> annotationErrors(BookDTO book) {
+        return annotations.validate(book).stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .toList();
+    }
+
+    private static BookDTO book(double price) {
+        BookDTO book = new BookDTO();
+        book.setIsbn("978-0-00-000000-0");
+        book.setTitle("Title");
+        book.setAuthor("Author");
+        book.setDescription("Description");
+        book.setGenre("Fiction");
+        book.setPrice(price);
+        book.setQuantity(1);
+        return book;
+    }
+}
@@ -0,0 +1,92 @@
+package customerservice.util;
+
+import customerservice.dto.CustomerDTO;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.validation.BeanPropertyBindingResult;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * {@link CustomerDTOValidator} against Hibernate Validator running the
+ * annotations on {@link CustomerDTO}, and {@link ValidationService#isValidEmail}
+ * against the regex it replaced. Built only with the {@code jmh} profile:
+ * <pre>
+ * mvn -Pjmh test-compile dependency:build-classpath -Dmdep.outputFile=target/jmh.classpath
+ * java -cp target/test-classes:target/classes:$(cat target/jmh.classpath) org.openjdk.jmh.Main CustomerValidationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerValidationBenchmark {
+
+    private static final Pattern EMAIL_PATTERN =
+            Pattern.compile("^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+.[a-zA-Z]{2,}$");
+
+    @Param({"jane.doe@example.com", "jane.doe@example"})
+    public String userId;
+
+    private final CustomerDTOValidator validator = new CustomerDTOValidator();
+    private ValidatorFactory factory;
+    private Validator annotations;
+    private CustomerDTO customer;
+
+    @Setup
+    public void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        annotations = factory.getValidator();
+        customer = new CustomerDTO();
+        customer.setUserId(userId);
+        customer.setName("Name");
+        customer.setPhone("555-123-4567");
+        customer.setAddress("1 Main St");
+        customer.setCity("City");
+        customer.setState("PA");
+        customer.setZipcode("10001");
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Object handWritten() {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(customer, "customerDTO");
+        validator.validate(customer, errors);
+        return errors;
+    }
+
+    @Benchmark
+    public Object hibernateValidator() {
+        return annotations.validate(customer);
+    }
+
+    @Benchmark
+    public boolean emailLoop() {
+        return ValidationService.isValidEmail(userId);
+    }
+
+    @Benchmark
+    public boolean emailRegex() {
+        return EMAIL_PATTERN.matcher(userId).matches();
+    }
+}
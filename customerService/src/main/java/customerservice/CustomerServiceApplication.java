@@ -2,8 +2,10 @@ package customerservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+@SpringBootApplication(scanBasePackages = {"customerservice", "bookstore.audit", "bookstore.sqllog"})
+@EnableScheduling
 public class CustomerServiceApplication {
 
     public static void main(String[] args) {
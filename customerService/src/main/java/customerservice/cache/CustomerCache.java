@@ -0,0 +1,267 @@
+package customerservice.cache;
+
+import customerservice.dto.CustomerDTO;
+import customerservice.repository.ShardedCustomerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-through customer cache keyed by id and by lower-cased userId (MySQL
+ * compares user_id case-insensitively, so both spellings are one customer).
+ * Both keys share the same entry. A userId that is not found gets a
+ * negative entry with a short TTL, so repeated misses from login flows
+ * stay off the database too.
+ * <p>
+ * Negative entries are only stored if no customer was added while the
+ * lookup ran, so a miss racing a create cannot hide the new customer.
+ * Other instances may still serve a stale miss for up to the negative TTL.
+ * <p>
+ * Lookups take no lock: both maps are concurrent, and recency is a
+ * timestamp on the entry. A map over capacity is trimmed by one thread at a
+ * time, dropping the least recently read tenth, as HotBookCache does in
+ * bookService.
+ */
+@Component
+public class CustomerCache {
+
+    private final int capacity;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final ConcurrentHashMap<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Entry> byUserId = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+    private final ReentrantLock trimming = new ReentrantLock();
+
+    @Autowired
+    private ShardedCustomerRepository customerRepository;
+
+    public CustomerCache(@Value("${customers.cache.capacity:10000}") int capacity,
+                         @Value("${customers.cache.ttl-ms:600000}") long ttlMillis,
+                         @Value("${customers.cache.negative-ttl-ms:5000}") long negativeTtlMillis) {
+        this.capacity = Math.max(capacity, 1);
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+    }
+
+    public Optional<CustomerDTO> findById(Long id) {
+        Entry entry = read(byId, id);
+        if (entry != null && !entry.isExpired()) {
+            return Optional.of(entry.customer);
+        }
+        Optional<CustomerDTO> customer = customerRepository.findById(id).map(CustomerDTO::new);
+        customer.ifPresent(this::put);
+        return customer;
+    }
+
+    public Optional<CustomerDTO> findByUserId(String userId) {
+        String key = normalize(userId);
+        Entry entry = read(byUserId, key);
+        if (entry != null && !entry.isExpired()) {
+            return Optional.ofNullable(entry.customer);
+        }
+        long writesBefore = writes.get();
+        Optional<CustomerDTO> customer = customerRepository.findByUserId(userId).map(CustomerDTO::new);
+        if (customer.isPresent()) {
+            put(customer.get());
+        } else {
+            putNegative(key, new Entry(null, System.currentTimeMillis() + negativeTtlMillis), writesBefore);
+        }
+        return customer;
+    }
+
+    /**
+     * The cached customer for {@code id}, or null; never reads the database.
+     */
+    public CustomerDTO getIfPresent(Long id) {
+        Entry entry = read(byId, id);
+        return entry != null && !entry.isExpired() ? entry.customer : null;
+    }
+
+    /**
+     * The cached customer for {@code userId}, or null if it is not cached or
+     * cached as missing; never reads the database.
+     */
+    public CustomerDTO getIfPresentByUserId(String userId) {
+        Entry entry = read(byUserId, normalize(userId));
+        return entry != null && !entry.isExpired() ? entry.customer : null;
+    }
+
+    /**
+     * Customers for the given ids, cached ones first and the rest with one
+     * IN query per shard, run in parallel. Ids that do not exist are absent
+     * from the result.
+     */
+    public Map<Long, CustomerDTO> findAllById(Collection<Long> ids) {
+        Map<Long, CustomerDTO> found = new HashMap<>(ids.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Entry entry = read(byId, id);
+            if (entry != null && !entry.isExpired()) {
+                found.put(id, entry.customer);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            customerRepository.findAllById(missing).forEach(customer -> {
+                CustomerDTO dto = new CustomerDTO(customer);
+                put(dto);
+                found.put(dto.getId(), dto);
+            });
+        }
+        return found;
+    }
+
+    /**
+     * Customers for the given userIds, keyed by the userId as passed in.
+     * Cached entries, including negative ones, are used first; the rest are
+     * read with one IN query per shard and cached the same way as single
+     * lookups.
+     */
+    public Map<String, CustomerDTO> findAllByUserId(Collection<String> userIds) {
+        Map<String, CustomerDTO> found = new HashMap<>(userIds.size() * 2);
+        Map<String, List<String>> missing = new HashMap<>();
+        for (String userId : userIds) {
+            Entry entry = read(byUserId, normalize(userId));
+            if (entry != null && !entry.isExpired()) {
+                if (entry.customer != null) {
+                    found.put(userId, entry.customer);
+                }
+            } else {
+                missing.computeIfAbsent(normalize(userId), k -> new ArrayList<>()).add(userId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+        long writesBefore = writes.get();
+        Map<String, CustomerDTO> loaded = new HashMap<>();
+        customerRepository.findByUserIdIn(missing.keySet()).forEach(customer -> {
+            CustomerDTO dto = new CustomerDTO(customer);
+            put(dto);
+            loaded.put(normalize(dto.getUserId()), dto);
+        });
+        // Our own puts above are the only writes expected since writesBefore
+        long expectedWrites = writesBefore + loaded.size();
+        long negativeExpiry = System.currentTimeMillis() + negativeTtlMillis;
+        missing.forEach((key, requested) -> {
+            CustomerDTO customer = loaded.get(key);
+            if (customer != null) {
+                requested.forEach(userId -> found.put(userId, customer));
+            } else {
+                putNegative(key, new Entry(null, negativeExpiry), expectedWrites);
+            }
+        });
+        return found;
+    }
+
+    /**
+     * Caches a customer under both keys, replacing any negative entry for its userId.
+     */
+    public void put(CustomerDTO customer) {
+        Entry entry = new Entry(customer, System.currentTimeMillis() + ttlMillis);
+        writes.incrementAndGet();
+        byId.put(customer.getId(), entry);
+        byUserId.put(normalize(customer.getUserId()), entry);
+        trimIfFull();
+    }
+
+    /**
+     * Drops userId entries for customers written without going through
+     * {@link #put}, so a cached miss does not outlive their insert.
+     */
+    public void evictUserIds(Collection<String> userIds) {
+        writes.incrementAndGet();
+        for (String userId : userIds) {
+            byUserId.remove(normalize(userId));
+        }
+    }
+
+    static String normalize(String userId) {
+        return userId.toLowerCase(Locale.ROOT);
+    }
+
+    private static <K> Entry read(Map<K, Entry> map, K key) {
+        Entry entry = map.get(key);
+        if (entry != null) {
+            entry.touch();
+        }
+        return entry;
+    }
+
+    // A write counted by put() or evictUserIds() either lands before the first
+    // check, or after our put and so replaces it, or before the second check and
+    // we take the negative entry back out
+    private void putNegative(String key, Entry negative, long expectedWrites) {
+        if (writes.get() != expectedWrites) {
+            return;
+        }
+        byUserId.put(key, negative);
+        if (writes.get() != expectedWrites) {
+            byUserId.remove(key, negative);
+        } else {
+            trimIfFull();
+        }
+    }
+
+    private void trimIfFull() {
+        if ((byId.size() > capacity || byUserId.size() > capacity) && trimming.tryLock()) {
+            try {
+                trim(byId);
+                trim(byUserId);
+            } finally {
+                trimming.unlock();
+            }
+        }
+    }
+
+    private <K> void trim(Map<K, Entry> map) {
+        int excess = map.size() - capacity * 9 / 10;
+        if (excess <= 0 || map.size() <= capacity) {
+            return;
+        }
+        long[] reads = map.values().stream().mapToLong(entry -> entry.lastRead).toArray();
+        if (reads.length == 0) {
+            return;
+        }
+        Arrays.sort(reads);
+        long cutoff = reads[Math.min(excess, reads.length) - 1];
+        map.values().removeIf(entry -> entry.lastRead <= cutoff);
+    }
+
+    private static final class Entry {
+        final CustomerDTO customer;
+        final long expiresAt;
+        volatile long lastRead = System.currentTimeMillis();
+
+        Entry(CustomerDTO customer, long expiresAt) {
+            this.customer = customer;
+            this.expiresAt = expiresAt;
+        }
+
+        // Skips the store when unchanged so a hot entry's cache line is not written on every hit
+        void touch() {
+            long now = System.currentTimeMillis();
+            if (lastRead != now) {
+                lastRead = now;
+            }
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package customerservice.controller;
+
+import customerservice.pool.PoolController;
+import customerservice.shard.CustomerShards;
+import customerservice.shard.ShardDirectory;
+import customerservice.shard.ShardRebalancer;
+import bookstore.sqllog.SlowQueryLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Autowired
+    private PoolController poolController;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @GetMapping("/sql")
+    public ResponseEntity<List<Map<String, Object>>> getSqlStats() {
+        return ResponseEntity.ok(slowQueryLog.snapshot());
+    }
+
+    @GetMapping("/pool")
+    public ResponseEntity<Map<String, Object>> getPool() {
+        return ResponseEntity.ok(poolController.snapshot());
+    }
+
+    @GetMapping("/shards")
+    public ResponseEntity<Map<String, Object>> getShards() {
+        Map<String, Object> shards = shardDirectory.describe();
+        shards.put("rebalance", shardRebalancer.status());
+        return ResponseEntity.ok(shards);
+    }
+
+    /**
+     * Starts moving buckets so every shard holds an even share, e.g. after
+     * adding a shard URL. Progress is reported by GET /admin/shards.
+     */
+    @PostMapping("/shards/rebalance")
+    public ResponseEntity<?> rebalanceShards() {
+        List<ShardRebalancer.Move> plan = shardRebalancer.plan();
+        if (plan.isEmpty()) {
+            return ResponseEntity.ok(Map.of("moves", List.of()));
+        }
+        return startMoves(plan);
+    }
+
+    @PostMapping("/shards/buckets/{bucket}/move")
+    public ResponseEntity<?> moveBucket(@PathVariable int bucket, @RequestParam int to) {
+        if (bucket < 0 || bucket >= CustomerShards.BUCKETS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Bucket must be between 0 and " + (CustomerShards.BUCKETS - 1) + "."));
+        }
+        if (to < 0 || to >= customerShards.count()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Shard must be between 0 and " + (customerShards.count() - 1) + "."));
+        }
+        int from = shardDirectory.shardOf(bucket);
+        if (from == to) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Bucket " + bucket + " is already on shard " + to + "."));
+        }
+        return startMoves(List.of(new ShardRebalancer.Move(bucket, from, to)));
+    }
+
+    private ResponseEntity<?> startMoves(List<ShardRebalancer.Move> moves) {
+        try {
+            shardRebalancer.start(moves);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage()));
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("moves", moves.stream().map(ShardRebalancer.Move::toMap).toList());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(body);
+    }
+
+    @DeleteMapping("/sql")
+    public ResponseEntity<Void> resetSqlStats() {
+        slowQueryLog.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,59 +1,261 @@
 package customerservice.controller;
 
+import customerservice.cache.CustomerCache;
+import customerservice.dto.CustomerBatchRequestDTO;
 import customerservice.dto.CustomerDTO;
+import customerservice.dto.CustomerFields;
+import customerservice.dto.CustomerPageDTO;
 import customerservice.entity.Customer;
-import customerservice.repository.CustomerRepository;
+import customerservice.exception.ShardUnavailableException;
+import customerservice.service.CustomerImportService;
+import customerservice.service.CustomerProjectionService;
+import customerservice.service.CustomerSearchService;
+import customerservice.service.CustomerService;
+import customerservice.repository.ShardedCustomerRepository;
+import customerservice.util.CustomerDTOValidator;
+import customerservice.util.PhoneNormalizer;
 import customerservice.util.ValidationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/customers")
 public class CustomerController {
 
+    private static final int MAX_BATCH = 100;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerCache customerCache;
+
+    @Autowired
+    private CustomerDTOValidator customerDTOValidator;
+
+    @Autowired
+    private CustomerImportService customerImportService;
+
+    @Autowired
+    private CustomerSearchService customerSearchService;
+
+    @Autowired
+    private CustomerProjectionService customerProjectionService;
+
     @Autowired
-    private CustomerRepository customerRepository;
+    private ShardedCustomerRepository customerRepository;
+
+    @Autowired
+    private PhoneNormalizer phoneNormalizer;
+
+    @InitBinder("customerDTO")
+    public void initCustomerBinder(WebDataBinder binder) {
+        binder.setValidator(customerDTOValidator);
+    }
 
     @PostMapping
     public ResponseEntity<?> addCustomer(@Valid @RequestBody CustomerDTO customerDTO) {
-
-        if (customerRepository.findByUserId(customerDTO.getUserId()).isPresent())
+        Customer savedCustomer;
+        try {
+            savedCustomer = customerService.create(customerDTO);
+        } catch (DuplicateKeyException e) {
             return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
                     .body(Map.of("message", "This user ID already exists in the system."));
-        Customer customer = new Customer(customerDTO);
-        Customer savedCustomer = customerRepository.save(customer);
+        } catch (ShardUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("message", e.getMessage()));
+        }
+        CustomerDTO savedDTO = new CustomerDTO(savedCustomer);
+        customerCache.put(savedDTO);
         return ResponseEntity.status(HttpStatus.CREATED)
                 .header("Location", "/customers/" + savedCustomer.getId())
-                .body(new CustomerDTO(savedCustomer));
+                .body(savedDTO);
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/json", "application/x-ndjson"})
+    public ResponseEntity<?> importCustomers(InputStream feed) throws IOException {
+        try {
+            return ResponseEntity.ok(customerImportService.importFeed(feed));
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Malformed feed: " + e.getOriginalMessage()));
+        }
+    }
+
+    /**
+     * Customers for up to 100 ids and/or userIds in one call: the ids'
+     * results in request order, then the userIds', with null for any key
+     * that does not exist. Cache misses cost at most one IN query per list.
+     * With {@code fields}, each result has only those members.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> getCustomersBatch(@RequestBody CustomerBatchRequestDTO request,
+                                               @RequestParam(required = false) String fields) {
+        List<Long> ids = request.getIds() == null ? Collections.emptyList() : request.getIds();
+        List<String> userIds = request.getUserIds() == null ? Collections.emptyList() : request.getUserIds();
+        if (ids.contains(null) || userIds.contains(null)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "ids and userIds must not contain null."));
+        }
+        if (ids.size() + userIds.size() > MAX_BATCH) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "At most " + MAX_BATCH + " ids and userIds per request."));
+        }
+        if (fields != null) {
+            CustomerFields customerFields;
+            try {
+                customerFields = CustomerFields.parse(fields);
+            } catch (IllegalArgumentException e) {
+                return badFields(e);
+            }
+            Map<Long, Map<String, Object>> byId = customerProjectionService.findAllById(ids, customerFields);
+            Map<String, Map<String, Object>> byUserId =
+                    customerProjectionService.findAllByUserId(userIds, customerFields);
+            List<Map<String, Object>> customers = new ArrayList<>(ids.size() + userIds.size());
+            ids.forEach(id -> customers.add(byId.get(id)));
+            userIds.forEach(userId -> customers.add(byUserId.get(userId)));
+            return ResponseEntity.ok(customers);
+        }
+        Map<Long, CustomerDTO> byId = customerCache.findAllById(ids);
+        Map<String, CustomerDTO> byUserId = customerCache.findAllByUserId(userIds);
+        List<CustomerDTO> customers = new ArrayList<>(ids.size() + userIds.size());
+        ids.forEach(id -> customers.add(byId.get(id)));
+        userIds.forEach(userId -> customers.add(byUserId.get(userId)));
+        return ResponseEntity.ok(customers);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<?> searchCustomers(@RequestParam(required = false) String state,
+                                             @RequestParam(required = false) String city,
+                                             @RequestParam(required = false) String zipPrefix,
+                                             @RequestParam(required = false) String after,
+                                             @RequestParam(defaultValue = "20") int limit) {
+        if (state == null && city == null && (zipPrefix == null || zipPrefix.isEmpty())) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "At least one of state, city or zipPrefix is required."));
+        }
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            CustomerPageDTO page = customerSearchService.search(state, city, zipPrefix, after, Math.min(limit, 100));
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Invalid cursor."));
+        }
+    }
+
+    /**
+     * With {@code fields}, only those members are returned, and a customer
+     * that is not cached is read with just those columns.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<CustomerDTO> getCustomerById(@PathVariable Long id) {
-        return customerRepository.findById(id)
-                .map(customer -> ResponseEntity.ok(new CustomerDTO(customer)))
+    public ResponseEntity<?> getCustomerById(@PathVariable Long id, @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return getFieldsById(id, fields);
+        }
+        return customerCache.findById(id)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("isbn/{id}")
-    public ResponseEntity<CustomerDTO> getCustomerIsbnById(@PathVariable Long id) {
-        return customerRepository.findById(id)
-                .map(customer -> ResponseEntity.ok(new CustomerDTO(customer)))
+    public ResponseEntity<?> getCustomerIsbnById(@PathVariable Long id, @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return getFieldsById(id, fields);
+        }
+        return customerCache.findById(id)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping
-    public ResponseEntity<CustomerDTO> getCustomerByUserId(@RequestParam String userId) {
+    public ResponseEntity<?> getCustomerByUserId(@RequestParam String userId,
+                                                 @RequestParam(required = false) String fields) {
         if(!ValidationService.isValidEmail(userId)){
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(null);
         }
-        return customerRepository.findByUserId(userId)
-                .map(customer -> ResponseEntity.ok(new CustomerDTO(customer)))
+        if (fields != null) {
+            CustomerFields customerFields;
+            try {
+                customerFields = CustomerFields.parse(fields);
+            } catch (IllegalArgumentException e) {
+                return badFields(e);
+            }
+            return customerProjectionService.findByUserId(userId, customerFields)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        return customerCache.findByUserId(userId)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
-}
\ No newline at end of file
+
+    /**
+     * Customers whose phone normalizes to the same E.164 number as
+     * {@code phone}, in id order. Ids come from the phone index of every
+     * shard, rows from the customer cache.
+     */
+    @GetMapping(params = "phone")
+    public ResponseEntity<?> getCustomersByPhone(@RequestParam String phone,
+                                                 @RequestParam(required = false) String fields) {
+        String e164 = phoneNormalizer.toE164(phone);
+        if (e164 == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Invalid phone number."));
+        }
+        if (fields != null) {
+            CustomerFields customerFields;
+            try {
+                customerFields = CustomerFields.parse(fields);
+            } catch (IllegalArgumentException e) {
+                return badFields(e);
+            }
+            List<Map<String, Object>> customers = customerProjectionService.findByPhoneE164(e164, customerFields);
+            return customers.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(customers);
+        }
+        List<Long> ids = customerRepository.findIdsByPhoneE164(e164);
+        Map<Long, CustomerDTO> found = customerCache.findAllById(ids);
+        List<CustomerDTO> customers = ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+        if (customers.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(customers);
+    }
+
+    private ResponseEntity<?> getFieldsById(Long id, String fields) {
+        CustomerFields customerFields;
+        try {
+            customerFields = CustomerFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return badFields(e);
+        }
+        return customerProjectionService.findById(id, customerFields)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<?> badFields(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", e.getMessage()));
+    }
+}
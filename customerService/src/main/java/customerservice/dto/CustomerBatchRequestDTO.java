@@ -0,0 +1,28 @@
+package customerservice.dto;
+
+import java.util.List;
+
+public class CustomerBatchRequestDTO {
+    private List<Long> ids;
+    private List<String> userIds;
+
+    public CustomerBatchRequestDTO() {}
+
+    // Getters
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public List<String> getUserIds() {
+        return userIds;
+    }
+
+    // Setters
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public void setUserIds(List<String> userIds) {
+        this.userIds = userIds;
+    }
+}
@@ -0,0 +1,80 @@
+package customerservice.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@code fields=} selection for customer reads: the {@link CustomerDTO}
+ * field names a client asked for, in the order given. They are also the
+ * entity attribute names, so a read with a selection fetches only those
+ * columns and returns only those members.
+ */
+public class CustomerFields {
+    private final List<String> names = new ArrayList<>();
+
+    private CustomerFields() {}
+
+    /**
+     * Parses a comma-separated list of field names. Repeats are ignored;
+     * an unknown or empty list is rejected with {@link IllegalArgumentException}.
+     */
+    public static CustomerFields parse(String fields) {
+        CustomerFields customerFields = new CustomerFields();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty() || customerFields.names.contains(name)) {
+                continue;
+            }
+            switch (name) {
+                case "id", "userId", "name", "phone", "address", "address2", "city", "state", "zipcode" ->
+                        customerFields.names.add(name);
+                default -> throw new IllegalArgumentException("Unknown field " + name + ".");
+            }
+        }
+        if (customerFields.names.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one field.");
+        }
+        return customerFields;
+    }
+
+    /**
+     * Entity attribute names, in the order {@link #project(Object[])} expects values.
+     */
+    public List<String> getAttributes() {
+        return names;
+    }
+
+    /**
+     * The selected members of an already loaded customer.
+     */
+    public Map<String, Object> project(CustomerDTO customer) {
+        Map<String, Object> projection = new LinkedHashMap<>();
+        for (String name : names) {
+            projection.put(name, switch (name) {
+                case "id" -> customer.getId();
+                case "userId" -> customer.getUserId();
+                case "name" -> customer.getName();
+                case "phone" -> customer.getPhone();
+                case "address" -> customer.getAddress();
+                case "address2" -> customer.getAddress2();
+                case "city" -> customer.getCity();
+                case "state" -> customer.getState();
+                default -> customer.getZipcode();
+            });
+        }
+        return projection;
+    }
+
+    /**
+     * The selected members from a row whose leading values follow {@link #getAttributes()}.
+     */
+    public Map<String, Object> project(Object[] values) {
+        Map<String, Object> projection = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            projection.put(names.get(i), values[i]);
+        }
+        return projection;
+    }
+}
@@ -0,0 +1,33 @@
+package customerservice.dto;
+
+import java.util.List;
+
+public class CustomerPageDTO {
+    private List<CustomerSummaryDTO> customers;
+    private String next;
+
+    public CustomerPageDTO() {}
+
+    public CustomerPageDTO(List<CustomerSummaryDTO> customers, String next) {
+        this.customers = customers;
+        this.next = next;
+    }
+
+    // Getters
+    public List<CustomerSummaryDTO> getCustomers() {
+        return customers;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    // Setters
+    public void setCustomers(List<CustomerSummaryDTO> customers) {
+        this.customers = customers;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+}
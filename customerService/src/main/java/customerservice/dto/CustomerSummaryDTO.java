@@ -0,0 +1,85 @@
+package customerservice.dto;
+
+/**
+ * Search result row: the customer without address lines, so it can be
+ * read straight from the covering search indexes.
+ */
+public class CustomerSummaryDTO {
+    private Long id;
+    private String userId;
+    private String name;
+    private String phone;
+    private String city;
+    private String state;
+    private String zipcode;
+
+    public CustomerSummaryDTO() {}
+
+    public CustomerSummaryDTO(Long id, String userId, String name, String phone, String city, String state, String zipcode) {
+        this.id = id;
+        this.userId = userId;
+        this.name = name;
+        this.phone = phone;
+        this.city = city;
+        this.state = state;
+        this.zipcode = zipcode;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public String getZipcode() {
+        return zipcode;
+    }
+
+    // Setters
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setPhone(String phone) {
+        this.phone = phone;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public void setZipcode(String zipcode) {
+        this.zipcode = zipcode;
+    }
+}
@@ -1,28 +1,45 @@
 package customerservice.entity;
 
 import customerservice.dto.CustomerDTO;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", uniqueConstraints = {
+        // Creates rely on it to reject a taken userId; named as MySQL names an existing UNIQUE (user_id)
+        @UniqueConstraint(name = "user_id", columnNames = "user_id")
+}, indexes = {
+        // Covering indexes for GET /customers/search, one per leading filter (see CustomerSearchService)
+        @Index(name = "idx_customers_state_city", columnList = "state, city, id, zipcode, user_id, name, phone"),
+        @Index(name = "idx_customers_city_state", columnList = "city, state, id, zipcode, user_id, name, phone"),
+        @Index(name = "idx_customers_zipcode", columnList = "zipcode, state, city, id, user_id, name, phone"),
+        @Index(name = "idx_customers_phone_e164", columnList = "phone_e164"),
+        @Index(name = "idx_customers_shard_bucket", columnList = "shard_bucket, id")
+})
 public class Customer {
+    // Assigned by the service layer: CustomerIdAllocator value with the bucket in the low bits (see CustomerShards)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String userId;
     private String name;
     private String phone;
+    // Normalized copy of phone for lookups; set by the service layer, null if phone is not a valid number
+    @Column(name = "phone_e164", length = 16)
+    private String phoneE164;
     private String address;
     private String address2;
     private String city;
     private String state;
     private String zipcode;
+    // Bucket of userId, for moving a bucket's rows between shards; null on rows from before sharding until moved
+    @Column(name = "shard_bucket")
+    private Integer shardBucket;
 
     public Customer() {}
 
@@ -55,6 +72,10 @@ public class Customer {
         return phone;
     }
 
+    public String getPhoneE164() {
+        return phoneE164;
+    }
+
     public String getAddress() {
         return address;
     }
@@ -75,6 +96,10 @@ public class Customer {
         return zipcode;
     }
 
+    public Integer getShardBucket() {
+        return shardBucket;
+    }
+
     // Setters
     public void setId(Long id) {
         this.id = id;
@@ -92,6 +117,10 @@ public class Customer {
         this.phone = phone;
     }
 
+    public void setPhoneE164(String phoneE164) {
+        this.phoneE164 = phoneE164;
+    }
+
     public void setAddress(String address) {
         this.address = address;
     }
@@ -111,4 +140,8 @@ public class Customer {
     public void setZipcode(String zipcode) {
         this.zipcode = zipcode;
     }
+
+    public void setShardBucket(Integer shardBucket) {
+        this.shardBucket = shardBucket;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package customerservice.exception;
+
+public class ShardUnavailableException extends RuntimeException {
+    public ShardUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,97 @@
+package customerservice.repository;
+
+import customerservice.shard.CustomerShards;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Customer ids come from the "customers" row of {@code id_sequences} on
+ * shard 0, which holds the next unreserved value. Single creates take
+ * values from an in-memory block of {@value #BLOCK}; JDBC bulk writers
+ * reserve their own blocks. Every instance and every shard draws from this
+ * one counter, and {@link CustomerShards#composeId} adds the bucket below
+ * the counter value, so ids stay unique when buckets move between shards
+ * and increase in allocation order. Across instances they interleave by
+ * block, as with any pooled generator.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class CustomerIdAllocator {
+
+    public static final String TABLE = "id_sequences";
+    public static final String SEQUENCE = "customers";
+
+    private static final int BLOCK = 50;
+
+    private static final String SEED =
+            "INSERT INTO " + TABLE + " (sequence_name, next_val)"
+                    + " SELECT '" + SEQUENCE + "', COALESCE(MAX(id), 0) + 1 FROM customers"
+                    + " WHERE id <= " + CustomerShards.MAX_LOCAL_ID
+                    + " ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val))";
+    private static final String RESERVE =
+            "UPDATE " + TABLE + " SET next_val = LAST_INSERT_ID(next_val + ?) WHERE sequence_name = '" + SEQUENCE + "'";
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    // Bound to shard 0 itself, not the router, so callers working on another shard still reach the counter
+    private JdbcTemplate jdbcTemplate;
+
+    private long next;
+    private long limit;
+
+    /**
+     * Moves the counter past any id from before sharding, e.g. rows written
+     * under AUTO_INCREMENT before the sequence existed.
+     */
+    @PostConstruct
+    public void seed() {
+        jdbcTemplate = new JdbcTemplate(customerShards.dataSource(0));
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE
+                + " (sequence_name VARCHAR(255) PRIMARY KEY, next_val BIGINT NOT NULL)");
+        jdbcTemplate.update(SEED);
+    }
+
+    /**
+     * The next value for a single create, before the bucket is added.
+     */
+    public synchronized long next() {
+        if (next == limit) {
+            next = reserve(BLOCK);
+            limit = next + BLOCK;
+        }
+        return next++;
+    }
+
+    /**
+     * Reserves {@code count} consecutive values and returns the first. Runs
+     * in its own autocommitted statement so the counter row is not held
+     * locked while the caller inserts. Fails rather than returning a stale
+     * LAST_INSERT_ID() if the counter row is missing.
+     */
+    public long reserve(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (var update = connection.prepareStatement(RESERVE)) {
+                update.setInt(1, count);
+                if (update.executeUpdate() != 1) {
+                    throw new IllegalStateException("Customer id sequence row is missing from " + TABLE);
+                }
+            }
+            try (Statement select = connection.createStatement();
+                 ResultSet rs = select.executeQuery("SELECT LAST_INSERT_ID()")) {
+                rs.next();
+                return rs.getLong(1) - count;
+            }
+        });
+    }
+}
@@ -2,9 +2,19 @@ package customerservice.repository;
 
 import customerservice.entity.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByUserId(String userId);
+
+    List<Customer> findByUserIdIn(Collection<String> userIds);
+
+    // Read from idx_customers_phone_e164 alone (InnoDB secondary indexes carry the id)
+    @Query("SELECT c.id FROM Customer c WHERE c.phoneE164 = :phone ORDER BY c.id")
+    List<Long> findIdsByPhoneE164(@Param("phone") String phoneE164);
 }
@@ -0,0 +1,87 @@
+package customerservice.repository;
+
+import customerservice.entity.Customer;
+import customerservice.shard.CustomerShards;
+import customerservice.shard.ShardDirectory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * {@link CustomerRepository} routed to the right shard. Keyed reads go to
+ * the owning shard; ids from before sharding and phone lookups ask every
+ * shard in parallel. While a bucket is being moved its rows exist on two
+ * shards, so results from several shards are de-duplicated by id.
+ */
+@Repository
+public class ShardedCustomerRepository {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public Optional<Customer> findById(Long id) {
+        int shard = shardDirectory.shardOfId(id);
+        if (shard >= 0) {
+            return customerShards.on(shard, () -> customerRepository.findById(id));
+        }
+        return customerShards.onAll(s -> customerRepository.findById(id)).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    public Optional<Customer> findByUserId(String userId) {
+        return customerShards.on(shardDirectory.shardOfUserId(userId), () -> customerRepository.findByUserId(userId));
+    }
+
+    public List<Customer> findAllById(Collection<Long> ids) {
+        Map<Integer, List<Long>> byShard = shardDirectory.groupIds(ids);
+        return distinct(customerShards.onEach(byShard.keySet(),
+                shard -> customerRepository.findAllById(byShard.get(shard))).values());
+    }
+
+    public List<Customer> findByUserIdIn(Collection<String> userIds) {
+        Map<Integer, List<String>> byShard = shardDirectory.groupUserIds(userIds);
+        return distinct(customerShards.onEach(byShard.keySet(),
+                shard -> customerRepository.findByUserIdIn(byShard.get(shard))).values());
+    }
+
+    public List<Long> findIdsByPhoneE164(String phoneE164) {
+        TreeSet<Long> ids = new TreeSet<>();
+        customerShards.onAll(shard -> customerRepository.findIdsByPhoneE164(phoneE164)).forEach(ids::addAll);
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Inserts a customer with an assigned id in the caller's transaction,
+     * which decides the shard. A plain save would merge, reading the id first.
+     */
+    public Customer insert(Customer customer) {
+        entityManager.persist(customer);
+        entityManager.flush();
+        return customer;
+    }
+
+    private static List<Customer> distinct(Collection<? extends List<Customer>> results) {
+        Map<Long, Customer> byId = new LinkedHashMap<>();
+        results.forEach(customers -> customers.forEach(customer -> byId.putIfAbsent(customer.getId(), customer)));
+        return new ArrayList<>(byId.values());
+    }
+}
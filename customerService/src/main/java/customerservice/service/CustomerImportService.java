@@ -0,0 +1,302 @@
+package customerservice.service;
+
+import customerservice.cache.CustomerCache;
+import customerservice.dto.CustomerDTO;
+import customerservice.exception.ShardUnavailableException;
+import customerservice.repository.CustomerIdAllocator;
+import customerservice.shard.CustomerShards;
+import customerservice.shard.ShardDirectory;
+import customerservice.util.CustomerDTOValidator;
+import customerservice.util.PhoneNormalizer;
+import bookstore.audit.AuditLog;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Bulk customer onboarding. The feed is streamed a chunk at a time, so
+ * memory stays flat however many customers it holds. A userId repeated
+ * within the feed is caught by a {@link UserIdSet}; userIds already in the
+ * table are found with one IN lookup per chunk and shard; the rest of the
+ * chunk takes a block of ids from {@link CustomerIdAllocator} and each
+ * shard's share is inserted as a single JDBC batch in one transaction.
+ * Records whose bucket is being moved between shards are rejected.
+ * <p>
+ * If a concurrent create wins a userId between the lookup and the insert,
+ * the unique index rejects the batch and that shard's share is retried row
+ * by row in a single transaction, so the racing row is reported as existing
+ * rather than failing the import, and a failure part-way through the retry
+ * leaves none of the share behind.
+ */
+@Service
+public class CustomerImportService {
+
+    private static final String INSERT_CUSTOMER =
+            "INSERT INTO customers (id, user_id, name, phone, phone_e164, address, address2, city, state, zipcode,"
+                    + " shard_bucket) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DUPLICATE_IN_FEED = "duplicate userId earlier in the import";
+    private static final String ALREADY_EXISTS = "This user ID already exists in the system.";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerDTOValidator customerDTOValidator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CustomerIdAllocator customerIdAllocator;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private PhoneNormalizer phoneNormalizer;
+
+    @Autowired
+    private CustomerCache customerCache;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Value("${customer-import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${customer-import.max-reported:1000}")
+    private int maxReported;
+
+    /**
+     * Reads a JSON array or newline-delimited JSON of customers in the
+     * {@link CustomerDTO} shape. Every skipped record is counted, and the
+     * first {@code max-reported} are listed with their 1-based line (record)
+     * number and reason. Throws {@link IOException} if the feed is not
+     * well-formed JSON; chunks before the bad record stay imported.
+     */
+    public Map<String, Object> importFeed(InputStream feed) throws IOException {
+        Report report = new Report();
+        UserIdSet seen = new UserIdSet(chunkSize);
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        int line = 0;
+        try (MappingIterator<CustomerDTO> iterator = objectMapper.readerFor(CustomerDTO.class).readValues(feed)) {
+            while (iterator.hasNextValue()) {
+                CustomerDTO customer = iterator.nextValue();
+                line++;
+                String error = customerDTOValidator.firstError(customer);
+                if (error != null) {
+                    report.rejected(line, customer.getUserId(), error);
+                    continue;
+                }
+                if (!seen.add(customer.getUserId())) {
+                    report.duplicate(line, customer.getUserId(), DUPLICATE_IN_FEED);
+                    continue;
+                }
+                chunk.add(new Row(line, customer));
+                if (chunk.size() >= chunkSize) {
+                    applyChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            applyChunk(chunk, report);
+        }
+        return report.toMap(line);
+    }
+
+    private void applyChunk(List<Row> chunk, Report report) {
+        report.chunks++;
+        Map<Integer, List<Row>> byShard = new TreeMap<>();
+        for (Row row : chunk) {
+            row.bucket = CustomerShards.bucketOf(row.customer.getUserId());
+            try {
+                shardDirectory.checkWritable(row.bucket);
+            } catch (ShardUnavailableException e) {
+                report.rejected(row.line, row.customer.getUserId(), e.getMessage());
+                continue;
+            }
+            byShard.computeIfAbsent(shardDirectory.shardOf(row.bucket), k -> new ArrayList<>()).add(row);
+        }
+        List<Row> fresh = new ArrayList<>(chunk.size());
+        Map<Integer, List<Row>> freshByShard = new TreeMap<>();
+        byShard.forEach((shard, rows) -> {
+            Set<String> existing = customerShards.on(shard, () -> existingUserIds(rows));
+            for (Row row : rows) {
+                if (existing.contains(normalize(row.customer.getUserId()))) {
+                    report.duplicate(row.line, row.customer.getUserId(), ALREADY_EXISTS);
+                } else {
+                    fresh.add(row);
+                    freshByShard.computeIfAbsent(shard, k -> new ArrayList<>()).add(row);
+                }
+            }
+        });
+        if (fresh.isEmpty()) {
+            return;
+        }
+        long firstId = customerIdAllocator.reserve(fresh.size());
+        for (int i = 0; i < fresh.size(); i++) {
+            Row row = fresh.get(i);
+            row.id = CustomerShards.composeId(row.bucket, firstId + i);
+        }
+        List<Row> inserted = new ArrayList<>(fresh.size());
+        freshByShard.forEach((shard, rows) -> inserted.addAll(customerShards.on(shard, () -> insert(rows, report))));
+        if (inserted.isEmpty()) {
+            return;
+        }
+        List<String> userIds = inserted.stream().map(row -> row.customer.getUserId()).toList();
+        report.imported += userIds.size();
+        customerCache.evictUserIds(userIds);
+        auditLog.append("customer", "import", userIds.get(0) + ".." + userIds.get(userIds.size() - 1),
+                Map.of("userIds", userIds));
+    }
+
+    private List<Row> insert(List<Row> rows, Report report) {
+        List<Row> moving = new ArrayList<>();
+        List<Row> inserted;
+        try {
+            List<Row> writable = new ArrayList<>(rows.size());
+            transactionTemplate.executeWithoutResult(status -> {
+                writable.addAll(fence(rows, moving));
+                if (!writable.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_CUSTOMER, writable.stream().map(this::values).toList());
+                }
+            });
+            inserted = writable;
+        } catch (DuplicateKeyException e) {
+            inserted = insertOneByOne(rows, moving, report);
+        }
+        moving.forEach(row -> report.rejected(row.line, row.customer.getUserId(), ShardDirectory.MOVING));
+        return inserted;
+    }
+
+    // A duplicate key only fails its own statement in InnoDB, so the rest of the transaction still commits
+    private List<Row> insertOneByOne(List<Row> rows, List<Row> moving, Report report) {
+        List<Row> inserted = new ArrayList<>(rows.size());
+        List<Row> duplicates = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Row row : fence(rows, moving)) {
+                try {
+                    jdbcTemplate.update(INSERT_CUSTOMER, values(row));
+                    inserted.add(row);
+                } catch (DuplicateKeyException e) {
+                    duplicates.add(row);
+                }
+            }
+        });
+        // Reported only once committed, so a failed retry does not leave duplicates counted for rows never kept
+        duplicates.forEach(row -> report.duplicate(row.line, row.customer.getUserId(), ALREADY_EXISTS));
+        return inserted;
+    }
+
+    /**
+     * Fences the rows' buckets in the current transaction and returns the rows
+     * this shard may write, leaving those of buckets being moved in {@code moving}.
+     */
+    private List<Row> fence(List<Row> rows, List<Row> moving) {
+        Set<Integer> refused = shardDirectory.fence(rows.stream().map(row -> row.bucket).toList());
+        List<Row> writable = new ArrayList<>(rows.size());
+        moving.clear();
+        for (Row row : rows) {
+            (refused.contains(row.bucket) ? moving : writable).add(row);
+        }
+        return writable;
+    }
+
+    // Lower-cased, as MySQL compares user_id case-insensitively
+    private Set<String> existingUserIds(List<Row> rows) {
+        Set<String> existing = new HashSet<>();
+        jdbcTemplate.query("SELECT user_id FROM customers WHERE user_id IN ("
+                        + String.join(", ", Collections.nCopies(rows.size(), "?")) + ")",
+                rs -> {
+                    existing.add(normalize(rs.getString(1)));
+                }, rows.stream().map(row -> row.customer.getUserId()).toArray());
+        return existing;
+    }
+
+    private Object[] values(Row row) {
+        CustomerDTO customer = row.customer;
+        return new Object[]{row.id, customer.getUserId(), customer.getName(), customer.getPhone(),
+                phoneNormalizer.toE164(customer.getPhone()), customer.getAddress(), customer.getAddress2(),
+                customer.getCity(), customer.getState(), customer.getZipcode(), row.bucket};
+    }
+
+    private static String normalize(String userId) {
+        return userId.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Row {
+        final int line;
+        final CustomerDTO customer;
+        int bucket;
+        long id;
+
+        Row(int line, CustomerDTO customer) {
+            this.line = line;
+            this.customer = customer;
+        }
+    }
+
+    private final class Report {
+        int imported;
+        int duplicates;
+        int rejected;
+        int chunks;
+        final List<Map<String, Object>> lines = new ArrayList<>();
+
+        void duplicate(int line, String userId, String reason) {
+            duplicates++;
+            add(line, userId, reason);
+        }
+
+        void rejected(int line, String userId, String reason) {
+            rejected++;
+            add(line, userId, reason);
+        }
+
+        private void add(int line, String userId, String reason) {
+            if (lines.size() >= maxReported) {
+                return;
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("line", line);
+            entry.put("userId", userId);
+            entry.put("reason", reason);
+            lines.add(entry);
+        }
+
+        Map<String, Object> toMap(int rows) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("rows", rows);
+            result.put("imported", imported);
+            result.put("duplicates", duplicates);
+            result.put("rejected", rejected);
+            result.put("chunks", chunks);
+            result.put("lines", lines);
+            return result;
+        }
+    }
+}
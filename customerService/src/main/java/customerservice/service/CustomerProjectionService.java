@@ -0,0 +1,166 @@
+package customerservice.service;
+
+import customerservice.cache.CustomerCache;
+import customerservice.dto.CustomerDTO;
+import customerservice.dto.CustomerFields;
+import customerservice.shard.CustomerShards;
+import customerservice.shard.ShardDirectory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Customer reads restricted to a {@link CustomerFields} selection. A
+ * customer already in {@link CustomerCache} is cut down from there;
+ * otherwise a JPQL query selects only the requested attributes, so
+ * unrequested columns are neither read nor sent. Partial rows are not
+ * cached, as the cache only holds whole customers. Queries are routed like
+ * {@link customerservice.repository.ShardedCustomerRepository}.
+ */
+@Service
+public class CustomerProjectionService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CustomerCache customerCache;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    public Optional<Map<String, Object>> findById(Long id, CustomerFields fields) {
+        CustomerDTO cached = customerCache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(fields.project(cached));
+        }
+        int shard = shardDirectory.shardOfId(id);
+        List<Integer> shards = shard >= 0 ? List.of(shard) : allShards();
+        return customerShards.onEach(shards, s -> query(fields, null, "c.id = :key", id)).values().stream()
+                .flatMap(List::stream)
+                .findFirst()
+                .map(tuple -> fields.project(tuple.toArray()));
+    }
+
+    public Optional<Map<String, Object>> findByUserId(String userId, CustomerFields fields) {
+        CustomerDTO cached = customerCache.getIfPresentByUserId(userId);
+        if (cached != null) {
+            return Optional.of(fields.project(cached));
+        }
+        return customerShards.on(shardDirectory.shardOfUserId(userId),
+                        () -> query(fields, null, "c.userId = :key", userId)).stream()
+                .findFirst()
+                .map(tuple -> fields.project(tuple.toArray()));
+    }
+
+    /**
+     * Customers with the given E.164 phone, in id order.
+     */
+    public List<Map<String, Object>> findByPhoneE164(String phoneE164, CustomerFields fields) {
+        int key = fields.getAttributes().size();
+        Set<Long> seen = new HashSet<>();
+        return customerShards.onAll(shard -> query(fields, "c.id", "c.phoneE164 = :key", phoneE164)).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(tuple -> tuple.get(key, Long.class)))
+                .filter(tuple -> seen.add(tuple.get(key, Long.class)))
+                .map(tuple -> fields.project(tuple.toArray()))
+                .toList();
+    }
+
+    /**
+     * Projections for the given ids, cached ones first and the rest with one
+     * IN query per shard. Ids that do not exist are absent from the result.
+     */
+    public Map<Long, Map<String, Object>> findAllById(Collection<Long> ids, CustomerFields fields) {
+        Map<Long, Map<String, Object>> found = new HashMap<>(ids.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            CustomerDTO cached = customerCache.getIfPresent(id);
+            if (cached != null) {
+                found.put(id, fields.project(cached));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            int key = fields.getAttributes().size();
+            Map<Integer, List<Long>> byShard = shardDirectory.groupIds(missing);
+            customerShards.onEach(byShard.keySet(), shard -> query(fields, "c.id", "c.id IN :key", byShard.get(shard)))
+                    .values().forEach(tuples -> tuples.forEach(tuple ->
+                            found.putIfAbsent(tuple.get(key, Long.class), fields.project(tuple.toArray()))));
+        }
+        return found;
+    }
+
+    /**
+     * Projections for the given userIds, keyed by the userId as passed in
+     * and matched case-insensitively like the user_id column.
+     */
+    public Map<String, Map<String, Object>> findAllByUserId(Collection<String> userIds, CustomerFields fields) {
+        Map<String, Map<String, Object>> found = new HashMap<>(userIds.size() * 2);
+        Map<String, List<String>> missing = new HashMap<>();
+        for (String userId : userIds) {
+            CustomerDTO cached = customerCache.getIfPresentByUserId(userId);
+            if (cached != null) {
+                found.put(userId, fields.project(cached));
+            } else {
+                missing.computeIfAbsent(normalize(userId), k -> new ArrayList<>()).add(userId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            int key = fields.getAttributes().size();
+            Map<Integer, List<String>> byShard = shardDirectory.groupUserIds(missing.keySet());
+            customerShards.onEach(byShard.keySet(),
+                    shard -> query(fields, "c.userId", "c.userId IN :key", byShard.get(shard))).values()
+                    .forEach(tuples -> tuples.forEach(tuple -> {
+                        List<String> requested = missing.get(normalize(tuple.get(key, String.class)));
+                        if (requested != null) {
+                            Map<String, Object> projection = fields.project(tuple.toArray());
+                            requested.forEach(userId -> found.put(userId, projection));
+                        }
+                    }));
+        }
+        return found;
+    }
+
+    // The key attribute, if any, is selected after the requested ones so batch rows can be matched
+    private List<Tuple> query(CustomerFields fields, String keyAttribute, String where, Object key) {
+        StringBuilder jpql = new StringBuilder("SELECT ");
+        for (String attribute : fields.getAttributes()) {
+            jpql.append("c.").append(attribute).append(", ");
+        }
+        if (keyAttribute != null) {
+            jpql.append(keyAttribute).append(", ");
+        }
+        jpql.setLength(jpql.length() - 2);
+        jpql.append(" FROM Customer c WHERE ").append(where);
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        return query.setParameter("key", key).getResultList();
+    }
+
+    private List<Integer> allShards() {
+        return IntStream.range(0, customerShards.count()).boxed().toList();
+    }
+
+    private static String normalize(String userId) {
+        return userId.toLowerCase(Locale.ROOT);
+    }
+}
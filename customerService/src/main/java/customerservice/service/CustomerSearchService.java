@@ -0,0 +1,186 @@
+package customerservice.service;
+
+import customerservice.dto.CustomerPageDTO;
+import customerservice.dto.CustomerSummaryDTO;
+import customerservice.shard.CustomerShards;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Customer listing by state, city and/or zipcode prefix, ordered by
+ * (state, city, id) and paged by keyset: the {@code next} cursor encodes
+ * the last row's (state, city, id), so every page is a range scan that
+ * starts where the previous one stopped, however deep the client pages.
+ * <p>
+ * Each filter has a covering index led by it and followed by the sort key
+ * and the summary columns (see {@code Customer}), so every query is an
+ * index-only range scan:
+ * <ul>
+ *     <li>state given: (state, city, id, ...), already in page order;</li>
+ *     <li>city without state: (city, state, id, ...), also in page order
+ *     since city is fixed;</li>
+ *     <li>zipcode prefix only: (zipcode, state, city, id, ...), where the
+ *     matching range is sorted, so narrow prefixes keep this cheap.</li>
+ * </ul>
+ * Every shard runs the same query in parallel and the pages are merged in
+ * (state, city, id) order, which is the page order in all three cases, since
+ * the filtered columns are equal across a page.
+ */
+@Service
+public class CustomerSearchService {
+
+    private static final String SELECT =
+            "SELECT id, user_id, name, phone, city, state, zipcode FROM customers WHERE ";
+    private static final char SEPARATOR = '\u001F';
+    private static final Comparator<CustomerSummaryDTO> PAGE_ORDER = pageOrder();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    /**
+     * One page of matches after {@code after} (null for the first page).
+     * Throws {@link IllegalArgumentException} for a malformed cursor.
+     */
+    public CustomerPageDTO search(String state, String city, String zipPrefix, String after, int limit) {
+        Cursor cursor = after == null ? null : Cursor.decode(after);
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>();
+        String orderBy;
+        if (state != null) {
+            sql.append("state = ?");
+            args.add(state);
+            if (city != null) {
+                sql.append(" AND city = ?");
+                args.add(city);
+                if (cursor != null) {
+                    sql.append(" AND id > ?");
+                    args.add(cursor.id);
+                }
+                orderBy = "id";
+            } else {
+                if (cursor != null) {
+                    sql.append(" AND (city > ? OR (city = ? AND id > ?))");
+                    args.add(cursor.city);
+                    args.add(cursor.city);
+                    args.add(cursor.id);
+                }
+                orderBy = "city, id";
+            }
+        } else if (city != null) {
+            sql.append("city = ?");
+            args.add(city);
+            if (cursor != null) {
+                sql.append(" AND (state > ? OR (state = ? AND id > ?))");
+                args.add(cursor.state);
+                args.add(cursor.state);
+                args.add(cursor.id);
+            }
+            orderBy = "state, id";
+        } else {
+            sql.append("zipcode LIKE ?");
+            args.add(likePrefix(zipPrefix));
+            if (cursor != null) {
+                sql.append(" AND (state > ? OR (state = ? AND (city > ? OR (city = ? AND id > ?))))");
+                args.add(cursor.state);
+                args.add(cursor.state);
+                args.add(cursor.city);
+                args.add(cursor.city);
+                args.add(cursor.id);
+            }
+            orderBy = "state, city, id";
+        }
+        if (zipPrefix != null && (state != null || city != null)) {
+            sql.append(" AND zipcode LIKE ?");
+            args.add(likePrefix(zipPrefix));
+        }
+        sql.append(" ORDER BY ").append(orderBy).append(" LIMIT ?");
+        args.add(limit + 1);
+
+        List<List<CustomerSummaryDTO>> pages = customerShards.onAll(shard -> jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new CustomerSummaryDTO(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        rs.getString(4), rs.getString(5), rs.getString(6), rs.getString(7)), args.toArray()));
+        List<CustomerSummaryDTO> customers = merge(pages);
+        String next = null;
+        if (customers.size() > limit) {
+            customers = customers.subList(0, limit);
+            CustomerSummaryDTO last = customers.get(limit - 1);
+            next = new Cursor(last.getState(), last.getCity(), last.getId()).encode();
+        }
+        return new CustomerPageDTO(customers, next);
+    }
+
+    // Each shard's first limit + 1 rows contain the overall first limit + 1; a bucket mid-move can return a row twice
+    private static List<CustomerSummaryDTO> merge(List<List<CustomerSummaryDTO>> pages) {
+        if (pages.size() == 1) {
+            return pages.get(0);
+        }
+        Map<Long, CustomerSummaryDTO> byId = new LinkedHashMap<>();
+        pages.forEach(page -> page.forEach(customer -> byId.putIfAbsent(customer.getId(), customer)));
+        List<CustomerSummaryDTO> merged = new ArrayList<>(byId.values());
+        merged.sort(PAGE_ORDER);
+        return merged;
+    }
+
+    // Primary strength ignores case and accents, like MySQL 8's default utf8mb4_0900_ai_ci collation
+    private static Comparator<CustomerSummaryDTO> pageOrder() {
+        Collator collator = Collator.getInstance(Locale.ROOT);
+        collator.setStrength(Collator.PRIMARY);
+        return Comparator.comparing(CustomerSummaryDTO::getState, collator)
+                .thenComparing(CustomerSummaryDTO::getCity, collator)
+                .thenComparingLong(CustomerSummaryDTO::getId);
+    }
+
+    private static String likePrefix(String prefix) {
+        StringBuilder pattern = new StringBuilder(prefix.length() + 1);
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') {
+                pattern.append('\\');
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    private static final class Cursor {
+        final String state;
+        final String city;
+        final long id;
+
+        Cursor(String state, String city, long id) {
+            this.state = state;
+            this.city = city;
+            this.id = id;
+        }
+
+        String encode() {
+            String raw = state + SEPARATOR + city + SEPARATOR + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int second = raw.indexOf(SEPARATOR, first + 1);
+            if (first < 0 || second < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new Cursor(raw.substring(0, first), raw.substring(first + 1, second),
+                    Long.parseLong(raw.substring(second + 1)));
+        }
+    }
+}
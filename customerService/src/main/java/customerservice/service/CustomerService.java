@@ -0,0 +1,74 @@
+package customerservice.service;
+
+import customerservice.dto.CustomerDTO;
+import customerservice.entity.Customer;
+import customerservice.repository.CustomerIdAllocator;
+import customerservice.repository.ShardedCustomerRepository;
+import customerservice.shard.CustomerShards;
+import customerservice.shard.ShardDirectory;
+import customerservice.util.PhoneNormalizer;
+import bookstore.audit.AuditLog;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class CustomerService {
+
+    @Autowired
+    private ShardedCustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerIdAllocator customerIdAllocator;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PhoneNormalizer phoneNormalizer;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    /**
+     * Inserts a new customer, throwing {@link DuplicateKeyException} if the
+     * userId is taken. There is no lookup first: the unique index on user_id
+     * decides, so concurrent sign-ups with the same userId cannot both succeed
+     * and the loser costs one rejected INSERT. The userId's bucket picks the
+     * shard, so every spelling of a userId meets the same index. Throws
+     * {@link customerservice.exception.ShardUnavailableException} while the
+     * bucket is being moved, checked by the insert's own transaction.
+     */
+    public Customer create(CustomerDTO customerDTO) {
+        Customer customer = new Customer(customerDTO);
+        int bucket = CustomerShards.bucketOf(customer.getUserId());
+        shardDirectory.checkWritable(bucket);
+        // Ids are always generated, never taken from the client
+        customer.setId(CustomerShards.composeId(bucket, customerIdAllocator.next()));
+        customer.setShardBucket(bucket);
+        customer.setPhoneE164(phoneNormalizer.toE164(customer.getPhone()));
+        try {
+            return customerShards.on(shardDirectory.shardOf(bucket), () -> transactionTemplate.execute(status -> {
+                shardDirectory.fence(bucket);
+                Customer saved = customerRepository.insert(customer);
+                auditLog.append("customer", "create", saved.getId().toString(), new CustomerDTO(saved));
+                return saved;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE) {
+                throw new DuplicateKeyException("User ID " + customerDTO.getUserId() + " already exists", e);
+            }
+            throw e;
+        }
+    }
+}
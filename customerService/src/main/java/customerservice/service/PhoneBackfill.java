@@ -0,0 +1,94 @@
+package customerservice.service;
+
+import customerservice.shard.CustomerShards;
+import customerservice.util.PhoneNormalizer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills phone_e164 for rows written before the column existed. Each run
+ * handles one batch per shard in id order, continuing after the last id
+ * seen there, so the backfill is throttled to one short UPDATE batch per
+ * shard and interval and stops for good once it reaches the end of every
+ * shard. Phones that cannot be normalized stay null and are not retried.
+ */
+@Component
+public class PhoneBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(PhoneBackfill.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PhoneNormalizer phoneNormalizer;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Value("${customers.phone.backfill-batch-size:1000}")
+    private int batchSize;
+
+    private long[] lastIds;
+    private boolean[] finished;
+    private long updated;
+    private volatile boolean done;
+
+    @PostConstruct
+    public void init() {
+        lastIds = new long[customerShards.count()];
+        finished = new boolean[customerShards.count()];
+    }
+
+    @Scheduled(initialDelayString = "${customers.phone.backfill-interval-ms:1000}",
+            fixedDelayString = "${customers.phone.backfill-interval-ms:1000}")
+    public void backfillBatch() {
+        if (done) {
+            return;
+        }
+        boolean remaining = false;
+        for (int shard = 0; shard < finished.length; shard++) {
+            if (!finished[shard]) {
+                int current = shard;
+                finished[shard] = customerShards.on(shard, () -> backfillShard(current));
+                remaining |= !finished[shard];
+            }
+        }
+        if (!remaining) {
+            done = true;
+            log.info("Phone backfill finished: {} rows updated", updated);
+        }
+    }
+
+    // True once the shard has no rows left past the last id seen
+    private boolean backfillShard(int shard) {
+        long lastId = lastIds[shard];
+        List<Object[]> updates = new ArrayList<>();
+        long[] last = {lastId};
+        int[] scanned = new int[1];
+        jdbcTemplate.query("SELECT id, phone FROM customers WHERE id > ? AND phone_e164 IS NULL ORDER BY id LIMIT ?",
+                rs -> {
+                    scanned[0]++;
+                    last[0] = rs.getLong(1);
+                    String e164 = phoneNormalizer.toE164(rs.getString(2));
+                    if (e164 != null) {
+                        updates.add(new Object[]{e164, rs.getLong(1)});
+                    }
+                }, lastId, batchSize);
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE customers SET phone_e164 = ? WHERE id = ? AND phone_e164 IS NULL", updates);
+            updated += updates.size();
+        }
+        lastIds[shard] = last[0];
+        return scanned[0] < batchSize;
+    }
+}
@@ -0,0 +1,79 @@
+package customerservice.service;
+
+/**
+ * Open-addressing set of 64-bit userId fingerprints, about 11 bytes per
+ * entry instead of the ~100 a {@code HashSet<String>} spends. UserIds are
+ * folded to lower case first, matching MySQL's case-insensitive comparison
+ * of user_id. Two distinct userIds share a fingerprint with probability
+ * around n^2 / 2^65 (under 10^-7 for a million rows), in which case the
+ * later one is reported as a duplicate.
+ */
+final class UserIdSet {
+
+    private static final double MAX_LOAD = 0.75;
+
+    private long[] slots;
+    private int size;
+
+    UserIdSet(int expected) {
+        slots = new long[tableSize(expected)];
+    }
+
+    /**
+     * Adds the userId; returns false if it (or a fingerprint twin) was already present.
+     */
+    boolean add(String userId) {
+        if (size + 1 > slots.length * MAX_LOAD) {
+            long[] previous = slots;
+            slots = new long[previous.length * 2];
+            for (long fingerprint : previous) {
+                if (fingerprint != 0) {
+                    slots[probe(slots, fingerprint)] = fingerprint;
+                }
+            }
+        }
+        long fingerprint = fingerprint(userId);
+        int slot = probe(slots, fingerprint);
+        if (slots[slot] == fingerprint) {
+            return false;
+        }
+        slots[slot] = fingerprint;
+        size++;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Slot holding the fingerprint, or the empty slot where it belongs
+    private static int probe(long[] table, long fingerprint) {
+        int mask = table.length - 1;
+        int slot = (int) fingerprint & mask;
+        while (table[slot] != 0 && table[slot] != fingerprint) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // FNV-1a over lower-cased chars, then a SplitMix64 finalizer; 0 marks an empty slot
+    static long fingerprint(String userId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < userId.length(); i++) {
+            hash ^= Character.toLowerCase(userId.charAt(i));
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        hash ^= hash >>> 31;
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static int tableSize(int expected) {
+        int size = 16;
+        while (size * MAX_LOAD < expected) {
+            size <<= 1;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,223 @@
+package customerservice.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * The customer shards: shard 0 is {@code spring.datasource}, shards 1..N-1
+ * the JDBC URLs in {@code customers.shards.urls}, all with the same
+ * credentials and Hikari settings. Work runs on a shard through
+ * {@link #on}; work that spans shards runs on each in parallel through
+ * {@link #onEach} / {@link #onAll}.
+ * <p>
+ * A customer belongs to one of {@link #BUCKETS} buckets by a hash of its
+ * lower-cased userId, and {@link ShardDirectory} maps buckets to shards.
+ * The bucket is also stored in the id's low bits ({@link #composeId}), so a
+ * lookup by id goes straight to its shard, while the counter value above
+ * them keeps ids in allocation order whatever their bucket. Ids minted
+ * before sharding have no bucket there and are looked up on every shard.
+ */
+@Component
+public class CustomerShards {
+
+    public static final int BUCKETS = 1024;
+
+    // Sharded ids are FIRST_SHARDED_ID + (localId << 10 | bucket), which ends just below 2^53 for JSON clients.
+    // Ids from the earlier layout (bucket + 1 above bit 42) are all lower, so they read as pre-sharding ids.
+    private static final int BUCKET_BITS = 10;
+    private static final int LOCAL_BITS = 41;
+    private static final long FIRST_SHARDED_ID = 3L << 51;
+    public static final long MAX_LOCAL_ID = (1L << LOCAL_BITS) - 1;
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private final ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+    private final ExecutorService executor;
+
+    public CustomerShards(DataSourceProperties properties, Environment environment,
+                          @Value("${customers.shards.urls:}") String urls,
+                          @Value("${customers.shards.query-threads:16}") int queryThreads) {
+        List<String> shardUrls = new ArrayList<>();
+        shardUrls.add(properties.determineUrl());
+        for (String url : urls.split(",")) {
+            if (!url.isBlank()) {
+                shardUrls.add(url.trim());
+            }
+        }
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        for (int shard = 0; shard < shardUrls.size(); shard++) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(shardUrls.get(shard))
+                    .build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+            dataSource.setPoolName("customers-shard-" + shard);
+            dataSources.add(dataSource);
+            targets.put(shard, dataSource);
+        }
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(dataSources.get(0));
+        routingDataSource.setLenientFallback(false);
+        routingDataSource.afterPropertiesSet();
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(queryThreads, 1), runnable -> {
+            Thread thread = new Thread(runnable, "customers-shard-query-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+        dataSources.forEach(HikariDataSource::close);
+    }
+
+    public int count() {
+        return dataSources.size();
+    }
+
+    /**
+     * The data source every JPA and JdbcTemplate call goes through.
+     */
+    DataSource routingDataSource() {
+        return routingDataSource;
+    }
+
+    /**
+     * The pool of one shard, bypassing the routing, for work that must stay
+     * on that shard whatever the calling thread is doing.
+     */
+    public DataSource dataSource(int shard) {
+        return dataSources.get(shard);
+    }
+
+    /**
+     * Runs {@code work} with its database calls going to {@code shard}.
+     * Transactions must begin inside it to be on that shard. Throws
+     * {@link IllegalStateException} if called for another shard inside a
+     * transaction, whose calls would all stay on the shard it began on.
+     */
+    public <T> T on(int shard, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive() && shard != currentShard()) {
+            throw new IllegalStateException("Cannot switch to shard " + shard
+                    + " inside a transaction on shard " + currentShard());
+        }
+        Integer previous = ShardContext.set(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    private static int currentShard() {
+        Integer current = ShardContext.current();
+        return current == null ? 0 : current;
+    }
+
+    public void run(int shard, Runnable work) {
+        on(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code work} on each of {@code shards} in parallel and returns the
+     * results by shard. The first failure is rethrown once all have finished
+     * or been cancelled.
+     */
+    public <T> Map<Integer, T> onEach(Collection<Integer> shards, IntFunction<T> work) {
+        Map<Integer, T> results = new LinkedHashMap<>();
+        if (shards.size() == 1) {
+            int shard = shards.iterator().next();
+            results.put(shard, on(shard, () -> work.apply(shard)));
+            return results;
+        }
+        Map<Integer, Future<T>> futures = new LinkedHashMap<>();
+        for (int shard : shards) {
+            futures.put(shard, executor.submit(() -> on(shard, () -> work.apply(shard))));
+        }
+        try {
+            for (Map.Entry<Integer, Future<T>> future : futures.entrySet()) {
+                results.put(future.getKey(), future.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            futures.values().forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying shards", e);
+        } catch (ExecutionException e) {
+            futures.values().forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * {@link #onEach} over every shard, results in shard order.
+     */
+    public <T> List<T> onAll(IntFunction<T> work) {
+        return new ArrayList<>(onEach(IntStream.range(0, count()).boxed().toList(), work).values());
+    }
+
+    /**
+     * The bucket of a userId: FNV-1a of the lower-cased userId, as MySQL
+     * compares user_id case-insensitively and both spellings must meet on
+     * one shard's unique index.
+     */
+    public static int bucketOf(String userId) {
+        String key = userId.toLowerCase(Locale.ROOT);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return Math.floorMod(hash, BUCKETS);
+    }
+
+    /**
+     * The id for counter value {@code localId} in {@code bucket}. Ids grow
+     * with {@code localId}, so one instance's ids are increasing and rows
+     * from a block land next to each other in the primary key.
+     */
+    public static long composeId(int bucket, long localId) {
+        if (localId < 0 || localId > MAX_LOCAL_ID) {
+            throw new IllegalStateException("Customer id sequence exhausted at " + localId);
+        }
+        return FIRST_SHARDED_ID + ((localId << BUCKET_BITS) | bucket);
+    }
+
+    /**
+     * The bucket encoded in {@code id}, or -1 for an id minted before sharding.
+     */
+    public static int bucketOfId(long id) {
+        return id >= FIRST_SHARDED_ID && id < 1L << 53 ? (int) (id & (BUCKETS - 1)) : -1;
+    }
+}
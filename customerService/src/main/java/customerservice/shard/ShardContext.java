@@ -0,0 +1,29 @@
+package customerservice.shard;
+
+/**
+ * The shard the current thread's database work goes to. Unset means
+ * shard 0, which also holds the shard directory and the id sequence.
+ */
+final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {}
+
+    static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Sets the shard (null to unset) and returns the previous one for restoring.
+     */
+    static Integer set(Integer shard) {
+        Integer previous = CURRENT.get();
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+        return previous;
+    }
+}
@@ -0,0 +1,29 @@
+package customerservice.shard;
+
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured pool with the shard router, so JPA,
+ * JdbcTemplate and the transaction manager all follow {@link CustomerShards#on}.
+ */
+@Configuration
+public class ShardDataSourceConfig {
+
+    @Bean
+    public DataSource dataSource(CustomerShards customerShards) {
+        return customerShards.routingDataSource();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaIntegrator(ShardSchema shardSchema) {
+        return properties -> properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(shardSchema));
+    }
+}
@@ -0,0 +1,369 @@
+package customerservice.shard;
+
+import customerservice.exception.ShardUnavailableException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Which shard owns each bucket, kept in {@code customer_shard_buckets} on
+ * shard 0 and reloaded by every instance every
+ * {@code customers.shards.directory-refresh-ms}. A bucket being moved is
+ * frozen: it is still read from its old shard, but writes to it are
+ * refused until the move switches it over.
+ * <p>
+ * The directory only routes; it is not what keeps writes off a bucket in
+ * the middle of a move, since an instance may act on a copy that is a
+ * refresh old. Each shard also has a {@code customer_bucket_fences} row per
+ * bucket saying whether that shard takes writes for it. Every write
+ * transaction share-locks its buckets' rows on the shard it writes to
+ * ({@link #fence}), and {@link ShardRebalancer} flips them with an UPDATE,
+ * which waits for writes in flight and makes later ones fail.
+ * <p>
+ * Every change of owner bumps the directory version. Each instance records
+ * the version it has loaded in {@code customer_shard_directory_acks} at
+ * every refresh, so {@link ShardRebalancer} can wait for all of them to
+ * stop reading a bucket from its old shard. An instance whose copy is
+ * older than a lease ({@link #leaseMillis}) reloads before it routes
+ * anything, which bounds how long a stalled one can act on an old copy.
+ * <p>
+ * On first start the buckets are spread round-robin if shard 0 has no
+ * customers yet; otherwise they all stay on shard 0, where the existing
+ * rows are, and are moved out by rebalancing.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class ShardDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardDirectory.class);
+
+    private static final String TABLE = "customer_shard_buckets";
+    private static final String FENCES = "customer_bucket_fences";
+    private static final String VERSION = "customer_shard_directory_version";
+    private static final String ACKS = "customer_shard_directory_acks";
+    private static final long ACK_POLL_MILLIS = 200;
+    public static final String MOVING = "Customers in this range are being moved between shards; retry shortly.";
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Autowired
+    private ShardSchema shardSchema;
+
+    @Value("${customers.shards.directory-refresh-ms:5000}")
+    private long refreshMillis;
+
+    private JdbcTemplate jdbcTemplate;
+    // Follows CustomerShards#on, so a fence joins the caller's transaction on the shard it writes to
+    private JdbcTemplate routedJdbcTemplate;
+    private final String instance = UUID.randomUUID().toString();
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(customerShards.dataSource(0));
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                + "bucket INT PRIMARY KEY, shard INT NOT NULL, frozen BOOLEAN NOT NULL DEFAULT FALSE)");
+        Integer assigned = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + TABLE, Integer.class);
+        if (assigned == null || assigned < CustomerShards.BUCKETS) {
+            boolean spread = !Boolean.TRUE.equals(
+                    jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM customers)", Boolean.class));
+            List<Object[]> rows = new ArrayList<>(CustomerShards.BUCKETS);
+            for (int bucket = 0; bucket < CustomerShards.BUCKETS; bucket++) {
+                rows.add(new Object[]{bucket, spread ? bucket % customerShards.count() : 0});
+            }
+            // IGNORE keeps whatever a concurrently starting instance wrote first
+            jdbcTemplate.batchUpdate("INSERT IGNORE INTO " + TABLE + " (bucket, shard) VALUES (?, ?)", rows);
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + VERSION
+                + " (id INT PRIMARY KEY, version BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT IGNORE INTO " + VERSION + " (id, version) VALUES (0, 0)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + ACKS
+                + " (instance VARCHAR(36) PRIMARY KEY, version BIGINT NOT NULL, acked_at TIMESTAMP(3) NOT NULL)");
+        // Instances that stopped long ago; they no longer count as running after two leases anyway
+        jdbcTemplate.update("DELETE FROM " + ACKS + " WHERE acked_at < NOW(3) - INTERVAL 1 DAY");
+        load();
+        routedJdbcTemplate = new JdbcTemplate(customerShards.routingDataSource());
+        for (int shard = 0; shard < customerShards.count(); shard++) {
+            shardSchema.requireUniqueUserId(shard);
+            seedFences(shard);
+        }
+    }
+
+    // A shard added later starts with fences matching the directory, i.e. owning nothing until buckets move to it
+    private void seedFences(int shard) {
+        JdbcTemplate shardJdbcTemplate = new JdbcTemplate(customerShards.dataSource(shard));
+        shardJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + FENCES
+                + " (bucket INT PRIMARY KEY, owned BOOLEAN NOT NULL)");
+        Integer seeded = shardJdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + FENCES, Integer.class);
+        if (seeded != null && seeded >= CustomerShards.BUCKETS) {
+            return;
+        }
+        Snapshot current = snapshot;
+        List<Object[]> rows = new ArrayList<>(CustomerShards.BUCKETS);
+        for (int bucket = 0; bucket < CustomerShards.BUCKETS; bucket++) {
+            rows.add(new Object[]{bucket, current.owners[bucket] == shard && !current.frozen[bucket]});
+        }
+        shardJdbcTemplate.batchUpdate("INSERT IGNORE INTO " + FENCES + " (bucket, owned) VALUES (?, ?)", rows);
+    }
+
+    @Scheduled(fixedDelayString = "${customers.shards.directory-refresh-ms:5000}")
+    public void refresh() {
+        try {
+            load();
+        } catch (DataAccessException e) {
+            log.warn("Shard directory refresh failed: {}", e.getMessage());
+        }
+    }
+
+    // The version is read before the buckets, and assign bumps it after them,
+    // so an instance never acknowledges owners it has not seen
+    private synchronized void load() {
+        int[] owners = new int[CustomerShards.BUCKETS];
+        boolean[] frozen = new boolean[CustomerShards.BUCKETS];
+        long loadedAt = System.currentTimeMillis();
+        long loadedNanos = System.nanoTime();
+        Long version = jdbcTemplate.queryForObject("SELECT version FROM " + VERSION + " WHERE id = 0", Long.class);
+        jdbcTemplate.query("SELECT bucket, shard, frozen FROM " + TABLE, rs -> {
+            int bucket = rs.getInt(1);
+            owners[bucket] = rs.getInt(2);
+            frozen[bucket] = rs.getBoolean(3);
+        });
+        for (int bucket = 0; bucket < owners.length; bucket++) {
+            if (owners[bucket] >= customerShards.count()) {
+                throw new IllegalStateException("Bucket " + bucket + " is on shard " + owners[bucket]
+                        + " but only " + customerShards.count() + " shards are configured");
+            }
+        }
+        snapshot = new Snapshot(owners, frozen, version, loadedAt, loadedNanos);
+        jdbcTemplate.update("INSERT INTO " + ACKS + " (instance, version, acked_at) VALUES (?, ?, NOW(3))"
+                + " ON DUPLICATE KEY UPDATE version = VALUES(version), acked_at = VALUES(acked_at)", instance, version);
+    }
+
+    // The copy to route by, reloaded first if it is older than a lease, e.g. because refreshes stalled or failed
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (System.nanoTime() - current.loadedNanos <= TimeUnit.MILLISECONDS.toNanos(leaseMillis())) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == current) {
+                load();
+            }
+            return snapshot;
+        }
+    }
+
+    public int shardOf(int bucket) {
+        return current().owners[bucket];
+    }
+
+    public int shardOfUserId(String userId) {
+        return shardOf(CustomerShards.bucketOf(userId));
+    }
+
+    /**
+     * The shard of a customer id, or -1 if the id predates sharding and
+     * could be on any shard.
+     */
+    public int shardOfId(long id) {
+        int bucket = CustomerShards.bucketOfId(id);
+        return bucket < 0 ? -1 : shardOf(bucket);
+    }
+
+    /**
+     * Ids grouped by shard. Ids from before sharding are listed under every shard.
+     */
+    public Map<Integer, List<Long>> groupIds(Collection<Long> ids) {
+        Map<Integer, List<Long>> byShard = new TreeMap<>();
+        List<Long> unsharded = new ArrayList<>();
+        for (Long id : ids) {
+            int shard = shardOfId(id);
+            if (shard < 0) {
+                unsharded.add(id);
+            } else {
+                byShard.computeIfAbsent(shard, k -> new ArrayList<>()).add(id);
+            }
+        }
+        if (!unsharded.isEmpty()) {
+            for (int shard = 0; shard < customerShards.count(); shard++) {
+                byShard.computeIfAbsent(shard, k -> new ArrayList<>()).addAll(unsharded);
+            }
+        }
+        return byShard;
+    }
+
+    public Map<Integer, List<String>> groupUserIds(Collection<String> userIds) {
+        Map<Integer, List<String>> byShard = new TreeMap<>();
+        for (String userId : userIds) {
+            byShard.computeIfAbsent(shardOfUserId(userId), k -> new ArrayList<>()).add(userId);
+        }
+        return byShard;
+    }
+
+    /**
+     * Throws {@link ShardUnavailableException} if this instance's directory
+     * shows {@code bucket} as being moved. A quick early refusal only; the
+     * write itself is guarded by {@link #fence}.
+     */
+    public void checkWritable(int bucket) {
+        if (current().frozen[bucket]) {
+            throw new ShardUnavailableException(MOVING);
+        }
+    }
+
+    /**
+     * Share-locks the fence rows of {@code buckets} on the shard the current
+     * transaction writes to, until it ends, and returns the buckets that shard
+     * does not take writes for. Must be called inside that transaction.
+     */
+    public Set<Integer> fence(Collection<Integer> buckets) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("A shard fence only holds inside the write transaction");
+        }
+        Set<Integer> refused = new TreeSet<>(buckets);
+        if (refused.isEmpty()) {
+            return refused;
+        }
+        routedJdbcTemplate.query("SELECT bucket, owned FROM " + FENCES + " WHERE bucket IN ("
+                        + String.join(", ", Collections.nCopies(refused.size(), "?")) + ") FOR SHARE",
+                rs -> {
+                    if (rs.getBoolean(2)) {
+                        refused.remove(rs.getInt(1));
+                    }
+                }, refused.toArray());
+        return refused;
+    }
+
+    /**
+     * {@link #fence} for a single bucket, throwing {@link ShardUnavailableException} if it is refused.
+     */
+    public void fence(int bucket) {
+        if (!fence(List.of(bucket)).isEmpty()) {
+            throw new ShardUnavailableException(MOVING);
+        }
+    }
+
+    /**
+     * How old this instance's copy of the directory may get before it
+     * reloads it to route.
+     */
+    public long leaseMillis() {
+        return 3 * refreshMillis;
+    }
+
+    /**
+     * Current owner of every bucket, indexed by bucket.
+     */
+    public int[] owners() {
+        return current().owners.clone();
+    }
+
+    /**
+     * Waits until every running instance has loaded directory
+     * {@code version} or later, so none reads a moved bucket from its old
+     * shard. An instance that has acknowledged nothing for two leases is
+     * taken to have stopped: if it is still running, its copy is over a
+     * lease old and it reloads before routing. Throws
+     * {@link IllegalStateException} naming the instances still behind after
+     * three leases.
+     */
+    void awaitAcknowledged(long version) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(3 * leaseMillis());
+        while (true) {
+            List<String> behind = jdbcTemplate.queryForList("SELECT instance FROM " + ACKS
+                            + " WHERE version < ? AND acked_at > NOW(3) - INTERVAL ? MICROSECOND",
+                    String.class, version, 2 * leaseMillis() * 1000);
+            if (behind.isEmpty()) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Instances " + behind + " have not loaded shard directory version "
+                        + version);
+            }
+            Thread.sleep(ACK_POLL_MILLIS);
+        }
+    }
+
+    /**
+     * Sets whether {@code shard} takes writes for {@code bucket}. Revoking
+     * waits for write transactions holding the fence there to finish; once
+     * it returns, no further write to the bucket can commit on that shard.
+     */
+    void setOwned(int shard, int bucket, boolean owned) {
+        new JdbcTemplate(customerShards.dataSource(shard))
+                .update("UPDATE " + FENCES + " SET owned = ? WHERE bucket = ?", owned, bucket);
+    }
+
+    void freeze(int bucket) {
+        jdbcTemplate.update("UPDATE " + TABLE + " SET frozen = TRUE WHERE bucket = ?", bucket);
+        load();
+    }
+
+    /**
+     * Hands {@code bucket} to {@code shard}, unfreezes it and returns the new
+     * directory version.
+     */
+    long assign(int bucket, int shard) {
+        jdbcTemplate.update("UPDATE " + TABLE + " SET shard = ?, frozen = FALSE WHERE bucket = ?", shard, bucket);
+        jdbcTemplate.update("UPDATE " + VERSION + " SET version = version + 1 WHERE id = 0");
+        load();
+        return snapshot.version;
+    }
+
+    public Map<String, Object> describe() {
+        Snapshot current = snapshot;
+        int[] bucketsPerShard = new int[customerShards.count()];
+        List<Integer> frozen = new ArrayList<>();
+        for (int bucket = 0; bucket < current.owners.length; bucket++) {
+            bucketsPerShard[current.owners[bucket]]++;
+            if (current.frozen[bucket]) {
+                frozen.add(bucket);
+            }
+        }
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("shards", customerShards.count());
+        description.put("buckets", CustomerShards.BUCKETS);
+        description.put("bucketsPerShard", bucketsPerShard);
+        description.put("frozen", frozen);
+        description.put("version", current.version);
+        description.put("loadedAt", current.loadedAt);
+        return description;
+    }
+
+    private static final class Snapshot {
+        final int[] owners;
+        final boolean[] frozen;
+        final long version;
+        final long loadedAt;
+        final long loadedNanos;
+
+        Snapshot(int[] owners, boolean[] frozen, long version, long loadedAt, long loadedNanos) {
+            this.owners = owners;
+            this.frozen = frozen;
+            this.version = version;
+            this.loadedAt = loadedAt;
+            this.loadedNanos = loadedNanos;
+        }
+    }
+}
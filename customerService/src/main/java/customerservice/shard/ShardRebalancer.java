@@ -0,0 +1,285 @@
+package customerservice.shard;
+
+import customerservice.util.PhoneNormalizer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Moves buckets between shards while the service keeps running. A move of
+ * bucket B from shard S to shard T:
+ * <ol>
+ *     <li>gives S's rows from before sharding their bucket, so B's rows can
+ *     be found by (shard_bucket, id);</li>
+ *     <li>copies B's rows to T in id-ordered batches, while B still takes
+ *     writes on S;</li>
+ *     <li>freezes B and revokes S's fence for it, which waits for the writes
+ *     to B in flight on S and refuses later ones;</li>
+ *     <li>copies again, picking up rows created during the first copy;</li>
+ *     <li>grants T the fence for B and hands B to T, then waits until every
+ *     running instance has acknowledged that directory version
+ *     ({@link ShardDirectory#awaitAcknowledged}), so none reads B from S;</li>
+ *     <li>deletes B's rows from S in batches.</li>
+ * </ol>
+ * Reads keep working throughout: B is read from S until the switch, and S
+ * keeps its copy until every instance has switched. If some instance does
+ * not acknowledge in time, the rebalance stops there with B on T and its
+ * rows left on S. Creates for B are
+ * refused between the revoke and the grant only, including by instances
+ * whose directory is behind. Queries that span shards drop the
+ * duplicate rows a move leaves for that time.
+ * <p>
+ * Moves run one at a time on a background thread. Run a rebalance from
+ * one instance only.
+ */
+@Component
+public class ShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private static final String COLUMNS =
+            "id, user_id, name, phone, phone_e164, address, address2, city, state, zipcode, shard_bucket";
+    private static final String COPY =
+            "INSERT INTO customers (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"
+                    + " ON DUPLICATE KEY UPDATE phone_e164 = VALUES(phone_e164)";
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "customers-shard-rebalancer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PhoneNormalizer phoneNormalizer;
+
+    @Value("${customers.shards.move-batch-size:1000}")
+    private int batchSize;
+
+    private boolean running;
+    private List<Move> moves = List.of();
+    private int completed;
+    private Move current;
+    private String error;
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Moves that even out the number of buckets per shard: the first
+     * (buckets mod shards) shards get one more. Buckets are taken from the
+     * most loaded shards, highest bucket first.
+     */
+    public List<Move> plan() {
+        int[] owners = shardDirectory.owners();
+        int shards = customerShards.count();
+        List<List<Integer>> held = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            held.add(new ArrayList<>());
+        }
+        for (int bucket = 0; bucket < owners.length; bucket++) {
+            held.get(owners[bucket]).add(bucket);
+        }
+        int[] target = new int[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            target[shard] = owners.length / shards + (shard < owners.length % shards ? 1 : 0);
+        }
+        List<Move> plan = new ArrayList<>();
+        int to = 0;
+        for (int from = 0; from < shards; from++) {
+            List<Integer> buckets = held.get(from);
+            while (buckets.size() > target[from]) {
+                while (held.get(to).size() >= target[to]) {
+                    to++;
+                }
+                int bucket = buckets.remove(buckets.size() - 1);
+                held.get(to).add(bucket);
+                plan.add(new Move(bucket, from, to));
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Starts running {@code moves} in order. Throws
+     * {@link IllegalStateException} if a rebalance is already running.
+     */
+    public synchronized void start(List<Move> moves) {
+        if (running) {
+            throw new IllegalStateException("A rebalance is already running.");
+        }
+        running = true;
+        this.moves = List.copyOf(moves);
+        completed = 0;
+        current = null;
+        error = null;
+        worker.execute(this::runMoves);
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running);
+        status.put("moves", moves.size());
+        status.put("completed", completed);
+        status.put("current", current == null ? null : current.toMap());
+        status.put("error", error);
+        return status;
+    }
+
+    private void runMoves() {
+        try {
+            for (Move move : moves) {
+                synchronized (this) {
+                    current = move;
+                }
+                move(move);
+                synchronized (this) {
+                    completed++;
+                }
+            }
+        } catch (RuntimeException | InterruptedException e) {
+            log.error("Rebalance stopped at {}", current == null ? null : current.toMap(), e);
+            synchronized (this) {
+                error = e.toString();
+            }
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            synchronized (this) {
+                running = false;
+                current = null;
+            }
+        }
+    }
+
+    private void move(Move move) throws InterruptedException {
+        if (shardDirectory.shardOf(move.bucket) != move.from) {
+            throw new IllegalStateException("Bucket " + move.bucket + " is no longer on shard " + move.from);
+        }
+        log.info("Moving bucket {} from shard {} to shard {}", move.bucket, move.from, move.to);
+        customerShards.run(move.from, this::assignBuckets);
+        boolean switched = false;
+        try {
+            copy(move);
+            shardDirectory.freeze(move.bucket);
+            shardDirectory.setOwned(move.from, move.bucket, false);
+            long copied = copy(move);
+            shardDirectory.setOwned(move.to, move.bucket, true);
+            long version = shardDirectory.assign(move.bucket, move.to);
+            switched = true;
+            try {
+                shardDirectory.awaitAcknowledged(version);
+            } catch (IllegalStateException e) {
+                throw new IllegalStateException("Bucket " + move.bucket + " is on shard " + move.to
+                        + " but its rows were left on shard " + move.from + ": " + e.getMessage(), e);
+            }
+            long deleted = customerShards.on(move.from, () -> delete(move.bucket));
+            log.info("Moved bucket {} to shard {}: {} rows copied, {} deleted", move.bucket, move.to, copied, deleted);
+        } finally {
+            if (!switched) {
+                // Give the bucket back to its shard and drop the partial copy
+                shardDirectory.setOwned(move.to, move.bucket, false);
+                shardDirectory.setOwned(move.from, move.bucket, true);
+                shardDirectory.assign(move.bucket, move.from);
+                customerShards.on(move.to, () -> delete(move.bucket));
+            }
+        }
+    }
+
+    // Rows from before sharding have no shard_bucket yet; it is derived from user_id like for new rows
+    private void assignBuckets() {
+        long lastId = 0;
+        while (true) {
+            List<Object[]> updates = new ArrayList<>();
+            jdbcTemplate.query("SELECT id, user_id FROM customers WHERE shard_bucket IS NULL AND id > ? ORDER BY id LIMIT ?",
+                    rs -> {
+                        updates.add(new Object[]{CustomerShards.bucketOf(rs.getString(2)), rs.getLong(1)});
+                    }, lastId, batchSize);
+            if (updates.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate("UPDATE customers SET shard_bucket = ? WHERE id = ?", updates);
+            lastId = (Long) updates.get(updates.size() - 1)[1];
+        }
+    }
+
+    /**
+     * Copies the bucket's rows from the source to the target shard and
+     * returns how many were read. Rows already on the target are kept, apart
+     * from phone_e164, which the phone backfill may have filled since.
+     */
+    private long copy(Move move) {
+        long lastId = 0;
+        long copied = 0;
+        while (true) {
+            long after = lastId;
+            List<Object[]> rows = customerShards.on(move.from, () -> jdbcTemplate.query(
+                    "SELECT " + COLUMNS + " FROM customers WHERE shard_bucket = ? AND id > ? ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> {
+                        String phoneE164 = rs.getString(5);
+                        return new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                                phoneE164 != null ? phoneE164 : phoneNormalizer.toE164(rs.getString(4)),
+                                rs.getString(6), rs.getString(7), rs.getString(8), rs.getString(9),
+                                rs.getString(10), rs.getInt(11)};
+                    }, move.bucket, after, batchSize));
+            if (rows.isEmpty()) {
+                return copied;
+            }
+            customerShards.run(move.to, () -> jdbcTemplate.batchUpdate(COPY, rows));
+            copied += rows.size();
+            lastId = (Long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    private long delete(int bucket) {
+        long deleted = 0;
+        int batch;
+        do {
+            batch = jdbcTemplate.update("DELETE FROM customers WHERE shard_bucket = ? LIMIT ?", bucket, batchSize);
+            deleted += batch;
+        } while (batch > 0);
+        return deleted;
+    }
+
+    public static final class Move {
+        final int bucket;
+        final int from;
+        final int to;
+
+        public Move(int bucket, int from, int to) {
+            this.bucket = bucket;
+            this.from = from;
+            this.to = to;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> move = new LinkedHashMap<>();
+            move.put("bucket", bucket);
+            move.put("from", from);
+            move.put("to", to);
+            return move;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package customerservice.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections to the shard set by {@link CustomerShards#on}, or
+ * shard 0 outside of it. The shard is resolved when a connection is taken,
+ * so a transaction stays on the shard it began on.
+ */
+class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
@@ -0,0 +1,74 @@
+package customerservice.shard;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.DelayedDropRegistryNotAvailableImpl;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate's schema action ({@code spring.jpa.hibernate.ddl-auto}) only
+ * runs against the default connection, i.e. shard 0. This applies the same
+ * action with the same mappings to every other shard while the entity
+ * manager factory starts, so a newly added shard gets its tables and indexes.
+ * <p>
+ * Hibernate adds a missing unique constraint quietly, skipping it if the
+ * ALTER fails, and creates rely on the one on user_id. {@link #requireUniqueUserId}
+ * checks for it on each shard once the tables exist.
+ */
+@Component
+public class ShardSchema implements Integrator {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardSchema.class);
+
+    // Unique indexes on user_id alone, whatever their name
+    private static final String UNIQUE_USER_ID_INDEXES =
+            "SELECT index_name FROM information_schema.statistics"
+                    + " WHERE table_schema = DATABASE() AND table_name = 'customers' AND non_unique = 0"
+                    + " GROUP BY index_name HAVING COUNT(*) = 1 AND MAX(column_name) = 'user_id'";
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                          SessionFactoryImplementor sessionFactory) {
+        for (int shard = 1; shard < customerShards.count(); shard++) {
+            customerShards.run(shard, () -> SchemaManagementToolCoordinator.process(metadata,
+                    sessionFactory.getServiceRegistry(), sessionFactory.getProperties(),
+                    DelayedDropRegistryNotAvailableImpl.INSTANCE));
+        }
+    }
+
+    /**
+     * Adds the unique index on customers.user_id to {@code shard} if it has
+     * none. Throws {@link IllegalStateException} if it cannot be added, e.g.
+     * because the shard already holds duplicate userIds, which must be
+     * resolved by hand before the service can start.
+     */
+    void requireUniqueUserId(int shard) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(customerShards.dataSource(shard));
+        if (!jdbcTemplate.queryForList(UNIQUE_USER_ID_INDEXES, String.class).isEmpty()) {
+            return;
+        }
+        log.info("Adding the unique index on customers.user_id on shard {}", shard);
+        try {
+            jdbcTemplate.execute("ALTER TABLE customers ADD UNIQUE INDEX user_id (user_id)");
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Shard " + shard + " has no unique index on customers.user_id"
+                    + " and it could not be added; remove duplicate userIds first", e);
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
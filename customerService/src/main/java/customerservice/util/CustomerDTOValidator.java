@@ -0,0 +1,78 @@
+package customerservice.util;
+
+import customerservice.dto.CustomerDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * The {@link CustomerDTO} constraints checked directly instead of through
+ * Bean Validation. Field names, codes and messages match what the
+ * annotations on CustomerDTO produce.
+ */
+@Component
+public class CustomerDTOValidator implements Validator {
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return CustomerDTO.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        CustomerDTO customer = (CustomerDTO) target;
+        notNull(errors, "userId", customer.getUserId());
+        notNull(errors, "name", customer.getName());
+        notNull(errors, "phone", customer.getPhone());
+        notNull(errors, "address", customer.getAddress());
+        notNull(errors, "city", customer.getCity());
+        notNull(errors, "state", customer.getState());
+        notNull(errors, "zipcode", customer.getZipcode());
+        if (!ValidationRules.isWellFormedEmail(customer.getUserId())) {
+            errors.rejectValue("userId", "Email", ValidationRules.EMAIL);
+        }
+        if (!ValidationRules.isStateCode(customer.getState())) {
+            errors.rejectValue("state", "Pattern", ValidationRules.STATE);
+        }
+    }
+
+    /**
+     * First failed constraint as "property message", or null if the customer is valid.
+     */
+    public String firstError(CustomerDTO customer) {
+        if (customer.getUserId() == null) {
+            return "userId " + ValidationRules.NOT_NULL;
+        }
+        if (customer.getName() == null) {
+            return "name " + ValidationRules.NOT_NULL;
+        }
+        if (customer.getPhone() == null) {
+            return "phone " + ValidationRules.NOT_NULL;
+        }
+        if (customer.getAddress() == null) {
+            return "address " + ValidationRules.NOT_NULL;
+        }
+        if (customer.getCity() == null) {
+            return "city " + ValidationRules.NOT_NULL;
+        }
+        if (customer.getState() == null) {
+            return "state " + ValidationRules.NOT_NULL;
+        }
+        if (customer.getZipcode() == null) {
+            return "zipcode " + ValidationRules.NOT_NULL;
+        }
+        if (!ValidationRules.isWellFormedEmail(customer.getUserId())) {
+            return "userId " + ValidationRules.EMAIL;
+        }
+        if (!ValidationRules.isStateCode(customer.getState())) {
+            return "state " + ValidationRules.STATE;
+        }
+        return null;
+    }
+
+    private static void notNull(Errors errors, String field, Object value) {
+        if (value == null) {
+            errors.rejectValue(field, "NotNull", ValidationRules.NOT_NULL);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package customerservice.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reduces free-form phone numbers to E.164 ("+15551234567") so they can be
+ * matched by equality. Separators are dropped and anything after the first
+ * letter (an extension such as "x12") is ignored. Numbers written with "+"
+ * or the "00" international prefix keep their country code; national
+ * numbers get the configured default country code, with a leading trunk
+ * "0" removed. North American numbers must have 10 digits, or 11 starting
+ * with 1.
+ */
+@Component
+public class PhoneNormalizer {
+
+    private static final int MIN_DIGITS = 8;
+    private static final int MAX_DIGITS = 15;
+
+    private final String defaultCountryCode;
+
+    public PhoneNormalizer(@Value("${customers.phone.default-country-code:1}") String defaultCountryCode) {
+        this.defaultCountryCode = defaultCountryCode;
+    }
+
+    /**
+     * The E.164 form, or null if {@code raw} is not a plausible phone number.
+     */
+    public String toE164(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(MAX_DIGITS + 1);
+        boolean international = false;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c == '+' && digits.length() == 0 && !international) {
+                international = true;
+            } else if (Character.isLetter(c)) {
+                break;
+            } else if (c != ' ' && c != '-' && c != '.' && c != '(' && c != ')' && c != '/') {
+                return null;
+            }
+        }
+        if (!international && digits.length() > 2 && digits.charAt(0) == '0' && digits.charAt(1) == '0') {
+            digits.delete(0, 2);
+            international = true;
+        }
+        if (!international) {
+            if (defaultCountryCode.equals("1")) {
+                if (digits.length() == 11 && digits.charAt(0) == '1') {
+                    digits.deleteCharAt(0);
+                }
+                if (digits.length() != 10) {
+                    return null;
+                }
+            } else if (digits.length() > 0 && digits.charAt(0) == '0') {
+                digits.deleteCharAt(0);
+            }
+            digits.insert(0, defaultCountryCode);
+        }
+        if (digits.length() < MIN_DIGITS || digits.length() > MAX_DIGITS || digits.charAt(0) == '0') {
+            return null;
+        }
+        return digits.insert(0, '+').toString();
+    }
+}
@@ -0,0 +1,141 @@
+package customerservice.util;
+
+/**
+ * Hand-written checks for the request constraints, walking the characters
+ * directly instead of going through Bean Validation reflection or regex
+ * matchers, so the passing path allocates nothing. Only the rules CustomerDTO
+ * needs are kept here.
+ */
+public final class ValidationRules {
+
+    // Hibernate Validator default messages, so error output is unchanged
+    public static final String NOT_NULL = "must not be null";
+    public static final String EMAIL = "must be a well-formed email address";
+    public static final String STATE = "must match \"[A-Z]{2}\"";
+
+    private static final int MAX_LOCAL_PART = 64;
+    private static final int MAX_DOMAIN = 255;
+    private static final int MAX_LABEL = 63;
+
+    private ValidationRules() {}
+
+    /**
+     * {@code @Email}: dot-separated atoms in the local part and in the
+     * domain, where domain labels may not start or end with a hyphen, as
+     * Hibernate Validator checks them. Quoted local-part words are accepted;
+     * IP-literal domains are not.
+     */
+    public static boolean isWellFormedEmail(CharSequence value) {
+        if (value == null || value.length() == 0) {
+            return true;
+        }
+        int at = lastIndexOf(value, '@');
+        if (at <= 0 || at > MAX_LOCAL_PART || value.length() - at - 1 > MAX_DOMAIN) {
+            return false;
+        }
+        int word = 0;
+        while (true) {
+            int end = value.charAt(word) == '"' ? quotedEnd(value, word, at) : atomEnd(value, word, at);
+            if (end == word) {
+                return false;
+            }
+            if (end == at) {
+                break;
+            }
+            if (value.charAt(end) != '.' || end + 1 == at) {
+                return false;
+            }
+            word = end + 1;
+        }
+        int labelStart = at + 1;
+        for (int i = labelStart; i <= value.length(); i++) {
+            if (i == value.length() || value.charAt(i) == '.') {
+                int length = i - labelStart;
+                if (length == 0 || length > MAX_LABEL
+                        || value.charAt(labelStart) == '-' || value.charAt(i - 1) == '-') {
+                    return false;
+                }
+                labelStart = i + 1;
+            } else if (!isAtomChar(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@code @Pattern(regexp = "[A-Z]{2}")}.
+     */
+    public static boolean isStateCode(CharSequence value) {
+        return value == null || value.length() == 2
+                && value.charAt(0) >= 'A' && value.charAt(0) <= 'Z'
+                && value.charAt(1) >= 'A' && value.charAt(1) <= 'Z';
+    }
+
+    private static int atomEnd(CharSequence value, int from, int limit) {
+        int i = from;
+        while (i < limit && isAtomChar(value.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * End of the quoted word starting at {@code from}, or {@code from} if it
+     * is not one. Only {@code \\} and {@code \"} escapes are allowed.
+     */
+    private static int quotedEnd(CharSequence value, int from, int limit) {
+        int i = from + 1;
+        while (i < limit) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                return i == from + 1 ? from : i + 1;
+            }
+            if (c == '\\') {
+                if (i + 1 == limit || value.charAt(i + 1) != '\\' && value.charAt(i + 1) != '"') {
+                    return from;
+                }
+                i += 2;
+            } else if (isAtomChar(c) || isQuotedOnlyChar(c)) {
+                i++;
+            } else {
+                return from;
+            }
+        }
+        return from;
+    }
+
+    private static boolean isQuotedOnlyChar(char c) {
+        return switch (c) {
+            case '.', '(', ')', ',', '<', '>', '[', ']', ':', ';', ' ', '@' -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isAtomChar(char c) {
+        if (isAsciiLetterOrDigit(c) || c >= '\u0080') {
+            return true;
+        }
+        return switch (c) {
+            case '!', '#', '$', '%', '&', '\'', '*', '+', '/', '=', '?', '^', '_', '`', '{', '|', '}', '~', '-' -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+    }
+
+    private static int lastIndexOf(CharSequence value, char target) {
+        for (int i = value.length() - 1; i >= 0; i--) {
+            if (value.charAt(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -2,14 +2,59 @@ package customerservice.util;
 
 import org.springframework.stereotype.Service;
 
-import java.util.regex.Pattern;
-
 @Service
 public class ValidationService {
-    private static final Pattern EMAIL_PATTERN =
-            Pattern.compile("^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+.[a-zA-Z]{2,}$");
 
+    /**
+     * Same acceptance as {@code ^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+.[a-zA-Z]{2,}$}
+     * (the unescaped dot matches any character): a local part, '@', then at
+     * least one domain character, any one character, and a letter run of two
+     * or more ending the string.
+     */
     public static boolean isValidEmail(String email) {
-        return email != null && EMAIL_PATTERN.matcher(email).matches();
+        if (email == null) {
+            return false;
+        }
+        int length = email.length();
+        int at = 0;
+        while (at < length && isLocalChar(email.charAt(at))) {
+            at++;
+        }
+        if (at == 0 || at == length || email.charAt(at) != '@') {
+            return false;
+        }
+        int rest = length - at - 1;
+        int domainRun = 0;
+        while (domainRun < rest && isDomainChar(email.charAt(at + 1 + domainRun))) {
+            domainRun++;
+        }
+        int letterRun = 0;
+        while (letterRun < rest && isLetter(email.charAt(length - 1 - letterRun))) {
+            letterRun++;
+        }
+        // Letter suffix of length m works if the rest before it is domain chars plus one wildcard
+        int shortest = Math.max(2, rest - 1 - domainRun);
+        int longest = Math.min(letterRun, rest - 2);
+        if (shortest > longest) {
+            return false;
+        }
+        // Only the full letter run puts a non-letter under the wildcard, which skips line terminators
+        return shortest < letterRun || !isLineTerminator(email.charAt(length - 1 - letterRun));
+    }
+
+    private static boolean isLocalChar(char c) {
+        return isDomainChar(c) || c == '_' || c == '%' || c == '+';
+    }
+
+    private static boolean isDomainChar(char c) {
+        return isLetter(c) || c >= '0' && c <= '9' || c == '.' || c == '-';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean isLetter(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
     }
 }
@@ -0,0 +1,54 @@
+package customerservice.cache;
+
+import customerservice.dto.CustomerDTO;
+import customerservice.repository.ShardedCustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomerCacheTest {
+
+    @Test
+    void missRacingACreateIsNotCachedAsMissing() {
+        CustomerCache cache = new CustomerCache(100, 60000, 60000);
+        ShardedCustomerRepository repository = mock(ShardedCustomerRepository.class);
+        ReflectionTestUtils.setField(cache, "customerRepository", repository);
+        when(repository.findByUserId("new@example.com")).thenAnswer(invocation -> {
+            // Created through this instance while the lookup was reading
+            cache.put(customer(1L, "new@example.com"));
+            return Optional.empty();
+        });
+
+        assertThat(cache.findByUserId("new@example.com")).isEmpty();
+
+        assertThat(cache.getIfPresentByUserId("NEW@example.com")).isNotNull();
+    }
+
+    @Test
+    void trimsTheLeastRecentlyReadPastCapacity() throws InterruptedException {
+        CustomerCache cache = new CustomerCache(10, 60000, 60000);
+        for (long id = 1; id <= 10; id++) {
+            cache.put(customer(id, "user" + id + "@example.com"));
+        }
+        Thread.sleep(5);
+        cache.getIfPresent(10L);
+
+        cache.put(customer(11L, "user11@example.com"));
+
+        assertThat(cache.getIfPresent(10L)).isNotNull();
+        assertThat(cache.getIfPresent(11L)).isNotNull();
+        assertThat(cache.getIfPresent(1L)).isNull();
+    }
+
+    private static CustomerDTO customer(Long id, String userId) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setId(id);
+        customer.setUserId(userId);
+        return customer;
+    }
+}
@@ -0,0 +1,39 @@
+package customerservice.controller;
+
+import customerservice.dto.CustomerDTO;
+import customerservice.service.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerControllerTest {
+
+    @Mock
+    private CustomerService customerService;
+
+    @InjectMocks
+    private CustomerController customerController;
+
+    @Test
+    void duplicateUserIdIsUnprocessable() {
+        when(customerService.create(any(CustomerDTO.class)))
+                .thenThrow(new DuplicateKeyException("User ID john@example.com already exists"));
+
+        ResponseEntity<?> response = customerController.addCustomer(new CustomerDTO());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(response.getBody()).isEqualTo(Map.of("message", "This user ID already exists in the system."));
+    }
+}
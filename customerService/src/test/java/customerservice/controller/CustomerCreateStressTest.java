@@ -0,0 +1,163 @@
+package customerservice.controller;
+
+import customerservice.dto.CustomerDTO;
+import customerservice.repository.ShardedCustomerRepository;
+import customerservice.service.CustomerService;
+import customerservice.shard.CustomerShards;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many threads signing up the same userIds at once, through the whole
+ * service against real shards: every userId must end up created exactly
+ * once, with every other attempt answered 422 and none failing. Also times
+ * the same load through the lookup-then-insert that creates used to do.
+ * Needs throwaway MySQL databases, one per shard; rows it writes use the
+ * {@code stress-} userId prefix and are removed afterwards:
+ * <pre>
+ * mvn test -Dtest=CustomerCreateStressTest \
+ *     -Dit.shard-urls=jdbc:mysql://localhost:3306/shard_a[,jdbc:mysql://localhost:3306/shard_b] \
+ *     -Dit.user=root -Dit.password=... [-Dstress.threads=16] [-Dstress.users=500]
+ * </pre>
+ */
+@SpringBootTest(properties = {"audit.enabled=false", "pool.controller.enabled=false"})
+@EnabledIfSystemProperty(named = "it.shard-urls", matches = ".+")
+class CustomerCreateStressTest {
+
+    private static final int THREADS = Integer.getInteger("stress.threads", 16);
+    private static final int USERS = Integer.getInteger("stress.users", 500);
+
+    @DynamicPropertySource
+    static void shards(DynamicPropertyRegistry registry) {
+        List<String> urls = Arrays.asList(System.getProperty("it.shard-urls").split(","));
+        registry.add("spring.datasource.url", () -> urls.get(0).trim());
+        registry.add("spring.datasource.username", () -> System.getProperty("it.user", "root"));
+        registry.add("spring.datasource.password", () -> System.getProperty("it.password", ""));
+        registry.add("customers.shards.urls", () -> String.join(",", urls.subList(1, urls.size())));
+    }
+
+    @Autowired
+    private CustomerController customerController;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ShardedCustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @BeforeEach
+    @AfterEach
+    void removeRows() {
+        for (int shard = 0; shard < customerShards.count(); shard++) {
+            new JdbcTemplate(customerShards.dataSource(shard)).update("DELETE FROM customers WHERE user_id LIKE 'stress-%'");
+        }
+    }
+
+    @Test
+    void concurrentDuplicateSignUpsCreateEachUserIdOnce() throws InterruptedException {
+        Result insertOnly = run("stress-insert-", customer ->
+                customerController.addCustomer(customer).getStatusCode());
+        Result lookupFirst = run("stress-lookup-", customer -> {
+            if (customerRepository.findByUserId(customer.getUserId()).isPresent()) {
+                return HttpStatus.UNPROCESSABLE_ENTITY;
+            }
+            try {
+                customerService.create(customer);
+                return HttpStatus.CREATED;
+            } catch (DuplicateKeyException e) {
+                // Both passed the lookup; before the single INSERT this was the 500
+                return HttpStatus.INTERNAL_SERVER_ERROR;
+            }
+        });
+
+        System.out.printf("%d threads each signing up the same %d userIds%n", THREADS, USERS);
+        System.out.println("single INSERT (CustomerController): " + insertOnly);
+        System.out.println("lookup, then INSERT:                " + lookupFirst);
+        assertThat(insertOnly.statuses).containsOnlyKeys(HttpStatus.CREATED, HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(insertOnly.statuses.get(HttpStatus.CREATED).get()).isEqualTo(USERS);
+        assertThat(insertOnly.statuses.get(HttpStatus.UNPROCESSABLE_ENTITY).get()).isEqualTo((long) USERS * (THREADS - 1));
+        assertThat(insertOnly.failures.get()).isZero();
+        List<Long> rows = customerShards.onAll(shard -> new JdbcTemplate(customerShards.dataSource(shard))
+                .queryForObject("SELECT COUNT(*) FROM customers WHERE user_id LIKE 'stress-insert-%'", Long.class));
+        assertThat(rows.stream().mapToLong(Long::longValue).sum()).isEqualTo(USERS);
+    }
+
+    // Every thread signs up all the userIds, each in its own order, so every userId is contended THREADS ways
+    private Result run(String prefix, Function<CustomerDTO, HttpStatusCode> signUp) throws InterruptedException {
+        Result result = new Result();
+        List<Thread> threads = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                List<Integer> users = new ArrayList<>();
+                for (int user = 0; user < USERS; user++) {
+                    users.add(user);
+                }
+                Collections.shuffle(users);
+                for (int user : users) {
+                    try {
+                        result.statuses.computeIfAbsent(signUp.apply(customer(prefix + user + "@example.com")),
+                                status -> new AtomicLong()).incrementAndGet();
+                    } catch (RuntimeException e) {
+                        result.failures.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static CustomerDTO customer(String userId) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setUserId(userId);
+        customer.setName("John");
+        customer.setPhone("555-123-4567");
+        customer.setAddress("1 Main St");
+        customer.setCity("New York");
+        customer.setState("NY");
+        customer.setZipcode("10001");
+        return customer;
+    }
+
+    private static final class Result {
+        final Map<HttpStatusCode, AtomicLong> statuses = new ConcurrentHashMap<>();
+        final AtomicLong failures = new AtomicLong();
+        long nanos;
+
+        @Override
+        public String toString() {
+            long attempts = statuses.values().stream().mapToLong(AtomicLong::get).sum() + failures.get();
+            return String.format("%.0f sign-ups/s, %s, %d failed", attempts / (nanos / 1e9), statuses, failures.get());
+        }
+    }
+}
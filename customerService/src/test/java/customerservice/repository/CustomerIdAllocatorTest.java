@@ -0,0 +1,103 @@
+package customerservice.repository;
+
+import customerservice.shard.CustomerShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the allocator against a stand-in for the id_sequences row that
+ * behaves like MySQL's {@code UPDATE ... LAST_INSERT_ID(expr)}.
+ */
+class CustomerIdAllocatorTest {
+
+    private static final long SEEDED = 1001;
+
+    private final AtomicLong nextVal = new AtomicLong(SEEDED);
+    private final AtomicLong lastInsertId = new AtomicLong();
+    private boolean rowExists = true;
+    private CustomerIdAllocator allocator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        PreparedStatement update = mock(PreparedStatement.class);
+        doAnswer(invocation -> {
+            count.set(invocation.getArgument(1));
+            return null;
+        }).when(update).setInt(anyInt(), anyInt());
+        when(update.executeUpdate()).thenAnswer(invocation -> {
+            if (!rowExists) {
+                return 0;
+            }
+            lastInsertId.set(nextVal.addAndGet(count.get()));
+            return 1;
+        });
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenAnswer(invocation -> lastInsertId.get());
+        Statement select = mock(Statement.class);
+        when(select.executeQuery(anyString())).thenReturn(rs);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(update);
+        when(connection.createStatement()).thenReturn(select);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        allocator = new CustomerIdAllocator();
+        ReflectionTestUtils.setField(allocator, "jdbcTemplate", new JdbcTemplate(dataSource));
+    }
+
+    @Test
+    void singleCreatesAndBulkReservationsNeverOverlap() {
+        List<long[]> ranges = new ArrayList<>();
+        long single = allocator.next();
+        ranges.add(new long[]{single, single + 1});
+        long bulk = allocator.reserve(500);
+        ranges.add(new long[]{bulk, bulk + 500});
+        for (int i = 0; i < 60; i++) {
+            long id = allocator.next();
+            ranges.add(new long[]{id, id + 1});
+        }
+        long bulk2 = allocator.reserve(7);
+        ranges.add(new long[]{bulk2, bulk2 + 7});
+
+        assertThat(single).isEqualTo(SEEDED);
+        assertThat(bulk).isEqualTo(SEEDED + 50);
+        for (int i = 0; i < ranges.size(); i++) {
+            assertThat(ranges.get(i)[0]).isGreaterThanOrEqualTo(SEEDED).isLessThanOrEqualTo(CustomerShards.MAX_LOCAL_ID);
+            for (int j = i + 1; j < ranges.size(); j++) {
+                long[] a = ranges.get(i);
+                long[] b = ranges.get(j);
+                assertThat(a[1] <= b[0] || b[1] <= a[0]).as("[%d, %d) and [%d, %d)", a[0], a[1], b[0], b[1]).isTrue();
+            }
+        }
+        assertThat(nextVal.get()).isEqualTo(SEEDED + 50 + 500 + 50 + 7);
+    }
+
+    @Test
+    void missingCounterRowFailsInsteadOfReturningNegativeIds() {
+        rowExists = false;
+
+        assertThatThrownBy(() -> allocator.reserve(10)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(allocator::next).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,147 @@
+package customerservice.repository;
+
+import customerservice.shard.CustomerShards;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Customer inserts/sec with ids from an AUTO_INCREMENT column, one INSERT
+ * per row as Hibernate runs them under IDENTITY, against ids from blocks of
+ * the {@link CustomerIdAllocator} counter sent as JDBC batches. Needs a
+ * MySQL database it may create {@code bench_}-prefixed tables in; they are
+ * dropped afterwards:
+ * <pre>
+ * mvn test -Dtest=CustomerInsertBenchmarkTest \
+ *     -Dbench.jdbc-url='jdbc:mysql://localhost:3306/customers?rewriteBatchedStatements=true' \
+ *     -Dbench.user=root -Dbench.password=... [-Dbench.threads=8] [-Dbench.seconds=10] [-Dbench.batch=50]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "bench.jdbc-url", matches = ".+")
+class CustomerInsertBenchmarkTest {
+
+    private static final int THREADS = Integer.getInteger("bench.threads", 8);
+    private static final int SECONDS = Integer.getInteger("bench.seconds", 10);
+    private static final int BATCH = Integer.getInteger("bench.batch", 50);
+    private static final String COLUMNS = " user_id VARCHAR(255) NOT NULL, name VARCHAR(255) NOT NULL,"
+            + " phone VARCHAR(255) NOT NULL, address VARCHAR(255) NOT NULL, city VARCHAR(255) NOT NULL,"
+            + " state VARCHAR(2) NOT NULL, zipcode VARCHAR(10) NOT NULL, UNIQUE KEY (user_id))";
+    private static final String FIXED_VALUES = " 'Name', '+15555550100', '1 Main St', 'Pittsburgh', 'PA', '15213')";
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private final AtomicLong userIds = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("bench.jdbc-url"));
+        dataSource.setUsername(System.getProperty("bench.user", "root"));
+        dataSource.setPassword(System.getProperty("bench.password", ""));
+        dataSource.setMaximumPoolSize(THREADS + 2);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        tearDownTables();
+        jdbcTemplate.execute("CREATE TABLE bench_customers_identity (id BIGINT AUTO_INCREMENT PRIMARY KEY," + COLUMNS);
+        jdbcTemplate.execute("CREATE TABLE bench_customers_pooled (id BIGINT PRIMARY KEY," + COLUMNS);
+        jdbcTemplate.execute("CREATE TABLE bench_id_sequences (sequence_name VARCHAR(255) PRIMARY KEY,"
+                + " next_val BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO bench_id_sequences VALUES ('customers', 1)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tearDownTables();
+        dataSource.close();
+    }
+
+    private void tearDownTables() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS bench_customers_identity, bench_customers_pooled, bench_id_sequences");
+    }
+
+    @Test
+    void pooledBatchesAgainstIdentity() throws InterruptedException {
+        long identity = run(() -> jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO bench_customers_identity (user_id, name, phone, address, city, state, zipcode)"
+                            + " VALUES (?," + FIXED_VALUES, Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < BATCH; i++) {
+                    insert.setString(1, nextUserId());
+                    insert.executeUpdate();
+                    try (ResultSet keys = insert.getGeneratedKeys()) {
+                        keys.next();
+                    }
+                }
+            }
+            return BATCH;
+        }));
+        long pooled = run(() -> jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            long first;
+            try (PreparedStatement reserve = connection.prepareStatement("UPDATE bench_id_sequences"
+                    + " SET next_val = LAST_INSERT_ID(next_val + ?) WHERE sequence_name = 'customers'")) {
+                reserve.setInt(1, BATCH);
+                reserve.executeUpdate();
+            }
+            try (Statement select = connection.createStatement();
+                 ResultSet rs = select.executeQuery("SELECT LAST_INSERT_ID()")) {
+                rs.next();
+                first = rs.getLong(1) - BATCH;
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO bench_customers_pooled (id, user_id, name, phone, address, city, state, zipcode)"
+                            + " VALUES (?, ?," + FIXED_VALUES)) {
+                for (int i = 0; i < BATCH; i++) {
+                    String userId = nextUserId();
+                    insert.setLong(1, CustomerShards.composeId(CustomerShards.bucketOf(userId), first + i));
+                    insert.setString(2, userId);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            return BATCH;
+        }));
+
+        System.out.printf("%d threads, %d s each, blocks of %d%n", THREADS, SECONDS, BATCH);
+        System.out.printf("AUTO_INCREMENT, one INSERT per row: %.0f rows/s%n", identity / (double) SECONDS);
+        System.out.printf("allocator block, JDBC batch:        %.0f rows/s%n", pooled / (double) SECONDS);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bench_customers_pooled", Long.class))
+                .isEqualTo(pooled);
+    }
+
+    private String nextUserId() {
+        return "bench-" + userIds.incrementAndGet() + "@example.com";
+    }
+
+    // Rows inserted by all threads until the deadline
+    private long run(IntSupplier insertBlock) throws InterruptedException {
+        long deadline = System.nanoTime() + SECONDS * 1_000_000_000L;
+        AtomicLong rows = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    rows.addAndGet(insertBlock.getAsInt());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return rows.get();
+    }
+}
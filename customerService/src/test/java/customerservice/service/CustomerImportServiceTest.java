@@ -0,0 +1,161 @@
+package customerservice.service;
+
+import customerservice.cache.CustomerCache;
+import customerservice.repository.CustomerIdAllocator;
+import customerservice.shard.CustomerShards;
+import customerservice.shard.ShardDirectory;
+import customerservice.util.CustomerDTOValidator;
+import customerservice.util.PhoneNormalizer;
+import bookstore.audit.AuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CustomerIdAllocator customerIdAllocator;
+
+    @Mock
+    private CustomerShards customerShards;
+
+    @Mock
+    private ShardDirectory shardDirectory;
+
+    @Mock
+    private CustomerCache customerCache;
+
+    @Mock
+    private AuditLog auditLog;
+
+    @InjectMocks
+    private CustomerImportService customerImportService;
+
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(customerImportService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(customerImportService, "customerDTOValidator", new CustomerDTOValidator());
+        ReflectionTestUtils.setField(customerImportService, "phoneNormalizer", new PhoneNormalizer("1"));
+        ReflectionTestUtils.setField(customerImportService, "chunkSize", 100);
+        ReflectionTestUtils.setField(customerImportService, "maxReported", 100);
+        when(customerShards.on(anyInt(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
+        when(customerIdAllocator.reserve(anyInt())).thenReturn(1L);
+        doAnswer(invocation -> {
+            inTransaction.set(true);
+            try {
+                invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            } finally {
+                inTransaction.set(false);
+            }
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rowByRowRetryRunsInATransactionAndReportsTheRacingRow() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DuplicateKeyException("race"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            assertThat(inTransaction).as("retry outside a transaction").isTrue();
+            if ("b@example.com".equals(invocation.getArgument(2))) {
+                throw new DuplicateKeyException("b@example.com");
+            }
+            return 1;
+        });
+
+        Map<String, Object> report = customerImportService.importFeed(feed("a@example.com", "b@example.com"));
+
+        assertThat(report).containsEntry("imported", 1).containsEntry("duplicates", 1);
+        List<Map<String, Object>> lines = (List<Map<String, Object>>) report.get("lines");
+        assertThat(lines).singleElement().satisfies(line -> assertThat(line).containsEntry("userId", "b@example.com"));
+        verify(customerCache).evictUserIds(List.of("a@example.com"));
+    }
+
+    @Test
+    void failedRetryReportsNothingAsImported() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DuplicateKeyException("race"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenReturn(1)
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        assertThatThrownBy(() -> customerImportService.importFeed(feed("a@example.com", "b@example.com")))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        verify(auditLog, never()).append(anyString(), anyString(), anyString(), any());
+        verify(customerCache, never()).evictUserIds(any());
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rowsWhoseBucketIsFencedOffAreRejectedAndNotInserted() throws Exception {
+        int moving = CustomerShards.bucketOf("b@example.com");
+        when(shardDirectory.fence(anyCollection())).thenAnswer(invocation -> {
+            assertThat(inTransaction).as("fence outside the write transaction").isTrue();
+            return Set.of(moving);
+        });
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation ->
+                new int[invocation.<List<?>>getArgument(1).size()]);
+
+        Map<String, Object> report = customerImportService.importFeed(feed("a@example.com", "b@example.com"));
+
+        assertThat(report).containsEntry("imported", 1).containsEntry("rejected", 1);
+        List<Map<String, Object>> lines = (List<Map<String, Object>>) report.get("lines");
+        assertThat(lines).singleElement().satisfies(line -> assertThat(line)
+                .containsEntry("userId", "b@example.com").containsEntry("reason", ShardDirectory.MOVING));
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> rows) ->
+                rows.size() == 1 && "a@example.com".equals(rows.get(0)[1])));
+        verify(customerCache).evictUserIds(List.of("a@example.com"));
+    }
+
+    private static ByteArrayInputStream feed(String... userIds) {
+        StringBuilder feed = new StringBuilder();
+        for (String userId : userIds) {
+            feed.append("{\"userId\":\"").append(userId).append("\",\"name\":\"N\",\"phone\":\"555-123-4567\",")
+                    .append("\"address\":\"1 Main St\",\"city\":\"C\",\"state\":\"NY\",\"zipcode\":\"10001\"}\n");
+        }
+        return new ByteArrayInputStream(feed.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,111 @@
+package customerservice.service;
+
+import customerservice.dto.CustomerDTO;
+import customerservice.entity.Customer;
+import customerservice.repository.CustomerIdAllocator;
+import customerservice.repository.ShardedCustomerRepository;
+import customerservice.shard.CustomerShards;
+import customerservice.shard.ShardDirectory;
+import customerservice.util.PhoneNormalizer;
+import bookstore.audit.AuditLog;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.ConstraintViolationException.ConstraintKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+/**
+ * The insert failures are built as Hibernate's MySQL dialect reports them and
+ * translated by Spring's {@link HibernateJpaDialect}, as the repository's
+ * exception translation does at runtime.
+ */
+@ExtendWith(MockitoExtension.class)
+class CustomerServiceTest {
+
+    @Mock
+    private ShardedCustomerRepository customerRepository;
+
+    @Mock
+    private CustomerIdAllocator customerIdAllocator;
+
+    @Mock
+    private CustomerShards customerShards;
+
+    @Mock
+    private ShardDirectory shardDirectory;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private AuditLog auditLog;
+
+    @InjectMocks
+    private CustomerService customerService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(customerService, "phoneNormalizer", new PhoneNormalizer("1"));
+        when(customerIdAllocator.next()).thenReturn(1L);
+        when(customerShards.on(anyInt(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void duplicateUserIdBecomesDuplicateKeyException() {
+        when(customerRepository.insert(any(Customer.class))).thenThrow(translated(1062,
+                "Duplicate entry 'john@example.com' for key 'customers.user_id'", ConstraintKind.UNIQUE));
+
+        assertThatThrownBy(() -> customerService.create(customer("john@example.com")))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void otherIntegrityViolationsAreNotReportedAsDuplicates() {
+        when(customerRepository.insert(any(Customer.class))).thenThrow(translated(1048,
+                "Column 'name' cannot be null", ConstraintKind.OTHER));
+
+        assertThatThrownBy(() -> customerService.create(customer("john@example.com")))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .isNotInstanceOf(DuplicateKeyException.class);
+    }
+
+    private static DataAccessException translated(int errorCode, String message, ConstraintKind kind) {
+        ConstraintViolationException violation = new ConstraintViolationException(message,
+                new SQLIntegrityConstraintViolationException(message, "23000", errorCode),
+                "insert into customers ...", kind, null);
+        return new HibernateJpaDialect().translateExceptionIfPossible(violation);
+    }
+
+    private static CustomerDTO customer(String userId) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setUserId(userId);
+        customer.setName("John");
+        customer.setPhone("555-123-4567");
+        customer.setAddress("1 Main St");
+        customer.setCity("New York");
+        customer.setState("NY");
+        customer.setZipcode("10001");
+        return customer;
+    }
+}
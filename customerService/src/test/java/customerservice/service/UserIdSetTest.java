@@ -0,0 +1,56 @@
+package customerservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserIdSetTest {
+
+    @Test
+    void secondAddOfTheSameUserIdIsRejected() {
+        UserIdSet set = new UserIdSet(4);
+
+        assertThat(set.add("john.doe@example.com")).isTrue();
+        assertThat(set.add("jane@example.com")).isTrue();
+        assertThat(set.add("john.doe@example.com")).isFalse();
+        assertThat(set.size()).isEqualTo(2);
+    }
+
+    @Test
+    void userIdsDifferingOnlyInCaseAreDuplicates() {
+        UserIdSet set = new UserIdSet(4);
+
+        assertThat(set.add("John.Doe@Example.com")).isTrue();
+        assertThat(set.add("john.doe@example.COM")).isFalse();
+        assertThat(UserIdSet.fingerprint("ABC")).isEqualTo(UserIdSet.fingerprint("abc"));
+    }
+
+    @Test
+    void growsPastTheExpectedSizeWithoutLosingEntries() {
+        UserIdSet set = new UserIdSet(1);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(set.add("user" + i + "@example.com")).isTrue();
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(set.add("USER" + i + "@example.com")).as("user %d", i).isFalse();
+        }
+        assertThat(set.size()).isEqualTo(10_000);
+    }
+
+    @Test
+    void agreesWithAHashSetOfLowerCasedUserIds() {
+        Random random = new Random(42);
+        UserIdSet set = new UserIdSet(16);
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            String userId = "u" + random.nextInt(50_000) + (random.nextBoolean() ? "@example.com" : "@EXAMPLE.com");
+            assertThat(set.add(userId)).as(userId).isEqualTo(expected.add(userId.toLowerCase(Locale.ROOT)));
+        }
+        assertThat(set.size()).isEqualTo(expected.size());
+    }
+}
@@ -0,0 +1,103 @@
+package customerservice.shard;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerShardsTest {
+
+    @Test
+    void bucketOfIgnoresCaseAndStaysInRange() {
+        assertThat(CustomerShards.bucketOf("John.Doe@Example.com"))
+                .isEqualTo(CustomerShards.bucketOf("john.doe@example.com"));
+        Random random = new Random(42);
+        int[] counts = new int[CustomerShards.BUCKETS];
+        for (int i = 0; i < 100_000; i++) {
+            int bucket = CustomerShards.bucketOf("user" + random.nextLong() + "@example.com");
+            assertThat(bucket).isBetween(0, CustomerShards.BUCKETS - 1);
+            counts[bucket]++;
+        }
+        // Roughly 98 per bucket; a bad hash leaves buckets empty or piles rows into a few
+        assertThat(Arrays.stream(counts).min().getAsInt()).isGreaterThanOrEqualTo(40);
+        assertThat(Arrays.stream(counts).max().getAsInt()).isLessThanOrEqualTo(180);
+    }
+
+    @Test
+    void composeIdPutsTheBucketBelowTheLocalBits() {
+        long first = CustomerShards.composeId(0, 0);
+        assertThat(CustomerShards.composeId(5, 0)).isEqualTo(first + 5);
+        assertThat(CustomerShards.composeId(0, 1)).isEqualTo(first + 1024);
+        long largest = CustomerShards.composeId(CustomerShards.BUCKETS - 1, CustomerShards.MAX_LOCAL_ID);
+        assertThat(largest).isEqualTo((1L << 53) - 1);
+        // Above every id of the layout with bucket + 1 above bit 42
+        assertThat(first).isGreaterThan(((long) CustomerShards.BUCKETS << 42) | ((1L << 42) - 1));
+    }
+
+    @Test
+    void idsIncreaseWithTheLocalIdWhateverTheBucket() {
+        int[] buckets = {1023, 0, 511, 7, 1023, 2, 0};
+        long previous = 0;
+        for (int localId = 0; localId < buckets.length; localId++) {
+            long id = CustomerShards.composeId(buckets[localId], 1_000 + localId);
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void bucketOfIdRoundTripsAndKnowsPreShardingIds() {
+        for (int bucket : new int[]{0, 1, 511, CustomerShards.BUCKETS - 1}) {
+            for (long localId : new long[]{0, 1, 123_456_789, CustomerShards.MAX_LOCAL_ID}) {
+                long id = CustomerShards.composeId(bucket, localId);
+                assertThat(CustomerShards.bucketOfId(id)).isEqualTo(bucket);
+                assertThat(id - CustomerShards.composeId(bucket, 0)).isEqualTo(localId << 10);
+            }
+        }
+        assertThat(CustomerShards.bucketOfId(1)).isEqualTo(-1);
+        assertThat(CustomerShards.bucketOfId(CustomerShards.MAX_LOCAL_ID)).isEqualTo(-1);
+        // Ids of the earlier layout are looked up on every shard
+        assertThat(CustomerShards.bucketOfId((1L << 42) | 5)).isEqualTo(-1);
+        assertThat(CustomerShards.bucketOfId(((long) CustomerShards.BUCKETS << 42) | 5)).isEqualTo(-1);
+        assertThat(CustomerShards.bucketOfId(1L << 53)).isEqualTo(-1);
+    }
+
+    @Test
+    void composeIdRejectsLocalIdsOutsideTheLocalBits() {
+        assertThatThrownBy(() -> CustomerShards.composeId(0, CustomerShards.MAX_LOCAL_ID + 1))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> CustomerShards.composeId(0, -1))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void onRefusesToSwitchShardsInsideATransaction() {
+        CustomerShards customerShards = shards("jdbc:mysql://localhost:3306/shard1");
+        try {
+            assertThat(customerShards.on(1, ShardContext::current)).isEqualTo(1);
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            try {
+                assertThat(customerShards.on(0, ShardContext::current)).isEqualTo(0);
+                assertThatThrownBy(() -> customerShards.on(1, ShardContext::current))
+                        .isInstanceOf(IllegalStateException.class);
+            } finally {
+                TransactionSynchronizationManager.setActualTransactionActive(false);
+            }
+        } finally {
+            customerShards.close();
+        }
+    }
+
+    // Pools are built but never connect, as nothing borrows a connection
+    private static CustomerShards shards(String urls) {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:mysql://localhost:3306/bookstore");
+        return new CustomerShards(properties, new MockEnvironment(), urls, 1);
+    }
+}
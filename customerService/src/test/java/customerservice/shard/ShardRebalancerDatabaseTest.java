@@ -0,0 +1,127 @@
+package customerservice.shard;
+
+import customerservice.util.PhoneNormalizer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Moves against throwaway databases, see {@link ShardTestDatabases}. Each
+ * {@link ShardDirectory} stands for one service instance; none refreshes on
+ * its own, so a test decides which instances are behind.
+ */
+@EnabledIfSystemProperty(named = ShardTestDatabases.URLS, matches = ".+,.+")
+class ShardRebalancerDatabaseTest {
+
+    private static final int BUCKET = CustomerShards.bucketOf("user-0@example.com");
+    private static final int ROWS = 5;
+
+    private CustomerShards customerShards;
+    private ShardDirectory shardDirectory;
+    private ShardRebalancer shardRebalancer;
+
+    @BeforeEach
+    void setUp() {
+        customerShards = ShardTestDatabases.open();
+        ShardTestDatabases.reset(customerShards);
+        // Rows before the directory starts, so every bucket stays on shard 0
+        int inserted = 0;
+        for (int i = 0; inserted < ROWS; i++) {
+            String userId = "user-" + i + "@example.com";
+            if (CustomerShards.bucketOf(userId) == BUCKET) {
+                ShardTestDatabases.insert(customerShards, 0, CustomerShards.composeId(BUCKET, i), userId);
+                inserted++;
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (shardRebalancer != null) {
+            shardRebalancer.stop();
+        }
+        customerShards.close();
+    }
+
+    @Test
+    void oldShardKeepsTheRowsUntilEveryInstanceHasTheNewDirectory() throws InterruptedException {
+        shardDirectory = directory(1000);
+        ShardDirectory behind = directory(1000);
+        shardRebalancer = rebalancer(shardDirectory);
+
+        shardRebalancer.start(List.of(new ShardRebalancer.Move(BUCKET, 0, 1)));
+        await(() -> shardDirectory.shardOf(BUCKET) == 1);
+        Thread.sleep(500);
+
+        assertThat(rows(0)).isEqualTo(ROWS);
+        assertThat(rows(1)).isEqualTo(ROWS);
+        assertThat(shardRebalancer.status().get("running")).isEqualTo(true);
+
+        behind.refresh();
+        await(() -> !Boolean.TRUE.equals(shardRebalancer.status().get("running")));
+
+        assertThat(shardRebalancer.status().get("error")).isNull();
+        assertThat(rows(0)).isZero();
+        assertThat(rows(1)).isEqualTo(ROWS);
+        assertThat(behind.shardOf(BUCKET)).isEqualTo(1);
+    }
+
+    @Test
+    void anInstanceThatStoppedRefreshingIsNotWaitedForAndReloadsBeforeRouting() throws InterruptedException {
+        shardDirectory = directory(100);
+        ShardDirectory stopped = directory(100);
+        shardRebalancer = rebalancer(shardDirectory);
+
+        shardRebalancer.start(List.of(new ShardRebalancer.Move(BUCKET, 0, 1)));
+        await(() -> !Boolean.TRUE.equals(shardRebalancer.status().get("running")));
+
+        assertThat(shardRebalancer.status().get("error")).isNull();
+        assertThat(rows(0)).isZero();
+        assertThat(rows(1)).isEqualTo(ROWS);
+        // Its copy is over a lease old, so it reloads rather than send reads to shard 0
+        assertThat(stopped.shardOf(BUCKET)).isEqualTo(1);
+    }
+
+    private ShardDirectory directory(long refreshMillis) {
+        ShardSchema shardSchema = new ShardSchema();
+        ReflectionTestUtils.setField(shardSchema, "customerShards", customerShards);
+        ShardDirectory directory = new ShardDirectory();
+        ReflectionTestUtils.setField(directory, "customerShards", customerShards);
+        ReflectionTestUtils.setField(directory, "shardSchema", shardSchema);
+        ReflectionTestUtils.setField(directory, "refreshMillis", refreshMillis);
+        directory.init();
+        return directory;
+    }
+
+    private ShardRebalancer rebalancer(ShardDirectory directory) {
+        ShardRebalancer rebalancer = new ShardRebalancer();
+        ReflectionTestUtils.setField(rebalancer, "customerShards", customerShards);
+        ReflectionTestUtils.setField(rebalancer, "shardDirectory", directory);
+        ReflectionTestUtils.setField(rebalancer, "jdbcTemplate", new JdbcTemplate(customerShards.routingDataSource()));
+        ReflectionTestUtils.setField(rebalancer, "phoneNormalizer", new PhoneNormalizer("1"));
+        // Several batches per copy and delete
+        ReflectionTestUtils.setField(rebalancer, "batchSize", 2);
+        return rebalancer;
+    }
+
+    private long rows(int shard) {
+        return ShardTestDatabases.jdbcTemplate(customerShards, shard)
+                .queryForObject("SELECT COUNT(*) FROM customers WHERE shard_bucket = ?", Long.class, BUCKET);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("timed out").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
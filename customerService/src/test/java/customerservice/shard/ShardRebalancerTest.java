@@ -0,0 +1,134 @@
+package customerservice.shard;
+
+import customerservice.util.PhoneNormalizer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ShardRebalancerTest {
+
+    @Mock
+    private CustomerShards customerShards;
+
+    @Mock
+    private ShardDirectory shardDirectory;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PhoneNormalizer phoneNormalizer;
+
+    @InjectMocks
+    private ShardRebalancer shardRebalancer;
+
+    @Test
+    void planSpreadsBucketsFromTheOnlyShard() {
+        when(customerShards.count()).thenReturn(3);
+        when(shardDirectory.owners()).thenReturn(new int[CustomerShards.BUCKETS]);
+
+        List<ShardRebalancer.Move> plan = shardRebalancer.plan();
+
+        assertThat(plan).hasSize(341 + 341);
+        assertThat(plan).allSatisfy(move -> assertThat(move.from).isZero());
+        assertThat(plan.stream().filter(move -> move.to == 1)).hasSize(341);
+        assertThat(plan.stream().filter(move -> move.to == 2)).hasSize(341);
+        // Highest buckets first, so shard 0 keeps 0..341
+        assertThat(plan.get(0).bucket).isEqualTo(CustomerShards.BUCKETS - 1);
+        assertThat(plan).extracting(move -> move.bucket).allSatisfy(bucket -> assertThat(bucket).isGreaterThan(341));
+    }
+
+    @Test
+    void planTakesFromTheOverloadedShardsOnly() {
+        int[] owners = new int[CustomerShards.BUCKETS];
+        for (int bucket = 0; bucket < owners.length; bucket++) {
+            owners[bucket] = bucket < 600 ? 1 : 0;
+        }
+        when(customerShards.count()).thenReturn(2);
+        when(shardDirectory.owners()).thenReturn(owners);
+
+        List<ShardRebalancer.Move> plan = shardRebalancer.plan();
+
+        assertThat(plan).hasSize(600 - 512);
+        assertThat(plan).allSatisfy(move -> {
+            assertThat(move.from).isEqualTo(1);
+            assertThat(move.to).isZero();
+        });
+        assertThat(plan.get(0).bucket).isEqualTo(599);
+    }
+
+    @Test
+    void balancedLayoutNeedsNoMoves() {
+        int[] owners = new int[CustomerShards.BUCKETS];
+        for (int bucket = 0; bucket < owners.length; bucket++) {
+            owners[bucket] = bucket % 3;
+        }
+        when(customerShards.count()).thenReturn(3);
+        when(shardDirectory.owners()).thenReturn(owners);
+
+        assertThat(shardRebalancer.plan()).isEmpty();
+    }
+
+    @Test
+    void oldShardRowsAreDeletedOnlyOnceEveryInstanceHasTheNewDirectory() throws InterruptedException {
+        stubMove(5, 0, 1, 7L);
+
+        shardRebalancer.start(List.of(new ShardRebalancer.Move(5, 0, 1)));
+        awaitFinished();
+
+        InOrder order = inOrder(shardDirectory, jdbcTemplate);
+        order.verify(shardDirectory).assign(5, 1);
+        order.verify(shardDirectory).awaitAcknowledged(7L);
+        order.verify(jdbcTemplate).update(startsWith("DELETE"), eq(5), anyInt());
+        assertThat(shardRebalancer.status().get("error")).isNull();
+    }
+
+    @Test
+    void anInstanceThatDoesNotAcknowledgeKeepsTheOldShardRows() throws InterruptedException {
+        stubMove(5, 0, 1, 7L);
+        doThrow(new IllegalStateException("Instances [a] have not loaded shard directory version 7"))
+                .when(shardDirectory).awaitAcknowledged(7L);
+
+        shardRebalancer.start(List.of(new ShardRebalancer.Move(5, 0, 1)));
+        awaitFinished();
+
+        verify(jdbcTemplate, never()).update(startsWith("DELETE"), eq(5), anyInt());
+        verify(shardDirectory, never()).assign(5, 0);
+        assertThat((String) shardRebalancer.status().get("error")).contains("left on shard 0");
+    }
+
+    // Shards without rows: the copies read nothing and the deletes remove nothing
+    private void stubMove(int bucket, int from, int to, long version) {
+        when(shardDirectory.shardOf(bucket)).thenReturn(from);
+        when(shardDirectory.assign(bucket, to)).thenReturn(version);
+        when(customerShards.on(anyInt(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
+    }
+
+    private void awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Boolean.TRUE.equals(shardRebalancer.status().get("running"))) {
+            assertThat(System.currentTimeMillis()).as("rebalance still running").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
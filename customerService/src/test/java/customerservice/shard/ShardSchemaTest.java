@@ -0,0 +1,73 @@
+package customerservice.shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Against throwaway databases, see {@link ShardTestDatabases}.
+ */
+@EnabledIfSystemProperty(named = ShardTestDatabases.URLS, matches = ".+,.+")
+class ShardSchemaTest {
+
+    private CustomerShards customerShards;
+    private ShardSchema shardSchema;
+
+    @BeforeEach
+    void setUp() {
+        customerShards = ShardTestDatabases.open();
+        ShardTestDatabases.reset(customerShards);
+        shardSchema = new ShardSchema();
+        ReflectionTestUtils.setField(shardSchema, "customerShards", customerShards);
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerShards.close();
+    }
+
+    @Test
+    void existingShardsGetTheUniqueIndexAndRejectDuplicates() {
+        for (int shard = 0; shard < customerShards.count(); shard++) {
+            shardSchema.requireUniqueUserId(shard);
+        }
+
+        int shard = customerShards.count() - 1;
+        ShardTestDatabases.insert(customerShards, shard, 1, "john@example.com");
+        assertThatThrownBy(() -> ShardTestDatabases.insert(customerShards, shard, 2, "john@example.com"))
+                .isInstanceOf(DuplicateKeyException.class);
+        // user_id compares case-insensitively, as CustomerShards#bucketOf assumes
+        assertThatThrownBy(() -> ShardTestDatabases.insert(customerShards, shard, 3, "John@Example.com"))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void anExistingUniqueIndexIsKept() {
+        ShardTestDatabases.jdbcTemplate(customerShards, 1)
+                .execute("ALTER TABLE customers ADD UNIQUE INDEX uk_customers_user_id (user_id)");
+
+        shardSchema.requireUniqueUserId(1);
+        shardSchema.requireUniqueUserId(1);
+
+        assertThat(ShardTestDatabases.jdbcTemplate(customerShards, 1).queryForList(
+                "SELECT DISTINCT index_name FROM information_schema.statistics WHERE table_schema = DATABASE()"
+                        + " AND table_name = 'customers' AND non_unique = 0 AND index_name <> 'PRIMARY'",
+                String.class)).containsExactly("uk_customers_user_id");
+    }
+
+    @Test
+    void aShardHoldingDuplicatesFailsStartup() {
+        ShardTestDatabases.insert(customerShards, 1, 1, "john@example.com");
+        ShardTestDatabases.insert(customerShards, 1, 2, "john@example.com");
+
+        assertThatThrownBy(() -> shardSchema.requireUniqueUserId(1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Shard 1");
+    }
+}
@@ -0,0 +1,64 @@
+package customerservice.shard;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+
+/**
+ * {@link CustomerShards} over throwaway MySQL databases, for the tests that
+ * need real shards. They run when given two or more database URLs:
+ * <pre>
+ * mvn test -Dit.shard-urls=jdbc:mysql://localhost:3306/shard_a,jdbc:mysql://localhost:3306/shard_b \
+ *     -Dit.user=root -Dit.password=...
+ * </pre>
+ * The tests drop and recreate every table they use in those databases.
+ */
+final class ShardTestDatabases {
+
+    static final String URLS = "it.shard-urls";
+
+    private static final String[] TABLES = {"customers", "customer_shard_buckets", "customer_bucket_fences",
+            "customer_shard_directory_version", "customer_shard_directory_acks"};
+
+    private ShardTestDatabases() {
+    }
+
+    static CustomerShards open() {
+        String[] urls = System.getProperty(URLS).split(",");
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(urls[0].trim());
+        properties.setUsername(System.getProperty("it.user", "root"));
+        properties.setPassword(System.getProperty("it.password", ""));
+        String others = String.join(",", Arrays.copyOfRange(urls, 1, urls.length));
+        return new CustomerShards(properties, new StandardEnvironment(), others, 4);
+    }
+
+    /**
+     * Empties every shard and gives it a customers table as an old
+     * deployment has it: without the unique index on user_id.
+     */
+    static void reset(CustomerShards customerShards) {
+        for (int shard = 0; shard < customerShards.count(); shard++) {
+            JdbcTemplate jdbcTemplate = jdbcTemplate(customerShards, shard);
+            for (String table : TABLES) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+            }
+            jdbcTemplate.execute("CREATE TABLE customers (id BIGINT PRIMARY KEY, user_id VARCHAR(255),"
+                    + " name VARCHAR(255), phone VARCHAR(255), phone_e164 VARCHAR(16), address VARCHAR(255),"
+                    + " address2 VARCHAR(255), city VARCHAR(255), state VARCHAR(255), zipcode VARCHAR(255),"
+                    + " shard_bucket INT, INDEX idx_customers_shard_bucket (shard_bucket, id))");
+        }
+    }
+
+    static JdbcTemplate jdbcTemplate(CustomerShards customerShards, int shard) {
+        return new JdbcTemplate(customerShards.dataSource(shard));
+    }
+
+    static void insert(CustomerShards customerShards, int shard, long id, String userId) {
+        jdbcTemplate(customerShards, shard).update("INSERT INTO customers (id, user_id, name, phone, address, city,"
+                        + " state, zipcode, shard_bucket) VALUES (?, ?, 'Name', '555-123-4567', '1 Main St', 'Pittsburgh',"
+                        + " 'PA', '15213', ?)", id, userId, CustomerShards.bucketOf(userId));
+    }
+}
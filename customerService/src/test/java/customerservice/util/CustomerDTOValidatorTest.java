@@ -0,0 +1,121 @@
+package customerservice.util;
+
+import customerservice.dto.CustomerDTO;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the hand-written rules against Hibernate Validator running the
+ * annotations that are still on {@link CustomerDTO}.
+ */
+class CustomerDTOValidatorTest {
+
+    private static final int SAMPLES = 100_000;
+    private static final String EMAIL_CHARS = "aZ09.-_+%!#'\"\\ ()<>[]:;,@é";
+
+    private static ValidatorFactory factory;
+    private static Validator annotations;
+    private final CustomerDTOValidator validator = new CustomerDTOValidator();
+
+    @BeforeAll
+    static void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        annotations = factory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    void knownEmails() {
+        assertThat(ValidationRules.isWellFormedEmail("john.doe@example.com")).isTrue();
+        assertThat(ValidationRules.isWellFormedEmail("\"john doe\"@example")).isTrue();
+        assertThat(ValidationRules.isWellFormedEmail("john..doe@example.com")).isFalse();
+        assertThat(ValidationRules.isWellFormedEmail("john@-example.com")).isFalse();
+        assertThat(ValidationRules.isWellFormedEmail("@example.com")).isFalse();
+    }
+
+    @Test
+    void missingFieldsReportNotNullLikeTheAnnotations() {
+        CustomerDTO customer = new CustomerDTO();
+
+        assertThat(errors(customer)).isEqualTo(annotationErrors(customer)).hasSize(7);
+        assertThat(validator.firstError(customer)).isEqualTo("userId must not be null");
+    }
+
+    @Test
+    void randomEmailsAndStatesMatchTheAnnotations() {
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            CustomerDTO customer = customer(randomEmail(random), randomState(random));
+            assertThat(errors(customer)).as("userId %s, state %s", customer.getUserId(), customer.getState())
+                    .isEqualTo(annotationErrors(customer));
+        }
+    }
+
+    private List<String> errors(CustomerDTO customer) {
+        BeanPropertyBindingResult result = new BeanPropertyBindingResult(customer, "customer");
+        validator.validate(customer, result);
+        return result.getFieldErrors().stream()
+                .map(error -> error.getField() + " " + error.getDefaultMessage())
+                .sorted()
+                .toList();
+    }
+
+    private static List<String> annotationErrors(CustomerDTO customer) {
+        return annotations.validate(customer).stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .toList();
+    }
+
+    private static String randomEmail(Random random) {
+        StringBuilder email = new StringBuilder();
+        int localLength = random.nextInt(8);
+        for (int i = 0; i < localLength; i++) {
+            email.append(EMAIL_CHARS.charAt(random.nextInt(random.nextBoolean() ? 4 : EMAIL_CHARS.length())));
+        }
+        if (random.nextInt(10) > 0) {
+            email.append('@');
+        }
+        int domainLength = random.nextInt(10);
+        for (int i = 0; i < domainLength; i++) {
+            email.append(EMAIL_CHARS.charAt(random.nextInt(random.nextInt(4) > 0 ? 6 : EMAIL_CHARS.length())));
+        }
+        return email.toString();
+    }
+
+    private static String randomState(Random random) {
+        String chars = "AZaz1 ";
+        StringBuilder state = new StringBuilder();
+        int length = random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            state.append(chars.charAt(random.nextInt(random.nextBoolean() ? 2 : chars.length())));
+        }
+        return state.toString();
+    }
+
+    private static CustomerDTO customer(String userId, String state) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setUserId(userId);
+        customer.setName("Name");
+        customer.setPhone("555-123-4567");
+        customer.setAddress("1 Main St");
+        customer.setCity("City");
+        customer.setState(state);
+        customer.setZipcode("10001");
+        return customer;
+    }
+}
@@ -19,11 +19,55 @@ CREATE TABLE IF NOT EXISTS customers (
                                          user_id VARCHAR(255) NOT NULL UNIQUE,
     name VARCHAR(255) NOT NULL,
     phone VARCHAR(20) NOT NULL,
+    phone_e164 VARCHAR(16),
     address VARCHAR(255) NOT NULL,
     address2 VARCHAR(255),
     city VARCHAR(100) NOT NULL,
     state CHAR(2) NOT NULL,
-    zipcode VARCHAR(20) NOT NULL
+    zipcode VARCHAR(20) NOT NULL,
+    shard_bucket INT,
+    INDEX idx_customers_state_city (state, city, id, zipcode, user_id, name, phone),
+    INDEX idx_customers_city_state (city, state, id, zipcode, user_id, name, phone),
+    INDEX idx_customers_zipcode (zipcode, state, city, id, user_id, name, phone),
+    INDEX idx_customers_phone_e164 (phone_e164),
+    INDEX idx_customers_shard_bucket (shard_bucket, id)
+    );
+
+CREATE TABLE IF NOT EXISTS orders (
+                                      id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                      customer_id BIGINT NOT NULL,
+                                      created_at DATETIME(6) NOT NULL,
+    INDEX idx_orders_customer (customer_id)
+    );
+
+CREATE TABLE IF NOT EXISTS order_lines (
+                                           id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                           order_id BIGINT NOT NULL,
+                                           isbn VARCHAR(20) NOT NULL,
+    quantity INT NOT NULL,
+    FOREIGN KEY (order_id) REFERENCES orders(id),
+    FOREIGN KEY (isbn) REFERENCES books(isbn)
+    );
+
+CREATE TABLE IF NOT EXISTS book_changes (
+                                            seq BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                            isbn VARCHAR(20) NOT NULL,
+    changed_at DATETIME(6) NOT NULL,
+    published BIGINT NULL,
+    INDEX idx_book_changes_isbn (isbn),
+    UNIQUE INDEX idx_book_changes_published (published)
+    );
+
+CREATE TABLE IF NOT EXISTS book_hashes (
+                                           isbn VARCHAR(20) PRIMARY KEY,
+                                           content_hash BIGINT NOT NULL
+    );
+
+-- Next unreserved id per sequence (customers draw blocks from here instead of AUTO_INCREMENT;
+-- book_changes numbers committed change rows from here)
+CREATE TABLE IF NOT EXISTS id_sequences (
+                                            sequence_name VARCHAR(255) PRIMARY KEY,
+                                            next_val BIGINT NOT NULL
     );
 
 -- Grant privileges to bookstore user
@@ -40,4 +84,8 @@ VALUES
 INSERT INTO customers (user_id, name, phone, address, city, state, zipcode)
 VALUES
     ('john.doe@example.com', 'John Doe', '555-123-4567', '123 Main St', 'New York', 'NY', '10001'),
-    ('jane.smith@example.com', 'Jane Smith', '555-987-6543', '456 Oak Ave', 'Chicago', 'IL', '60601');
\ No newline at end of file
+    ('jane.smith@example.com', 'Jane Smith', '555-987-6543', '456 Oak Ave', 'Chicago', 'IL', '60601');
+
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'customers', COALESCE(MAX(id), 0) + 1 FROM customers
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
\ No newline at end of file
@@ -1,14 +1,19 @@
 package com.bookstore.mobilebff.controller;
 
+import com.bookstore.mobilebff.dto.BookChangesDTO;
 import com.bookstore.mobilebff.dto.BookDTO;
 import com.bookstore.mobilebff.service.BookService;
+import com.bookstore.mobilebff.util.BookDTOValidator;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/books")
 public class BookController {
@@ -16,6 +21,25 @@ public class BookController {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BookDTOValidator bookDTOValidator;
+
+    @InitBinder("bookDTO")
+    public void initBookBinder(WebDataBinder binder) {
+        binder.setValidator(bookDTOValidator);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<BookChangesDTO> getChanges(@RequestParam(defaultValue = "0") String since,
+                                                     @RequestParam(defaultValue = "100") int limit) {
+        try {
+            ResponseEntity<BookChangesDTO> changes = bookService.getChanges(since, limit);
+            return ResponseEntity.status(HttpStatus.OK).body(changes.getBody());
+        }catch (HttpClientErrorException.BadRequest e){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
     @GetMapping({"/isbn/{isbn}", "/{isbn}"})
     public ResponseEntity<BookDTO> getBookByIsbn(@PathVariable String isbn) {
         try{
@@ -50,4 +74,16 @@ public class BookController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
+
+    @PatchMapping(value = "/{isbn}", consumes = {"application/merge-patch+json", "application/json"})
+    public ResponseEntity<?> patchBook(@PathVariable String isbn, @RequestBody Map<String, Object> patch) {
+        try {
+            bookService.patchBook(isbn, patch);
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        }catch (HttpClientErrorException.NotFound e){
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }catch (HttpClientErrorException.BadRequest e){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getResponseBodyAsString());
+        }
+    }
 }
\ No newline at end of file
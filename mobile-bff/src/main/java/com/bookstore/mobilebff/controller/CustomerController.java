@@ -1,14 +1,19 @@
 package com.bookstore.mobilebff.controller;
 
+import com.bookstore.mobilebff.dto.CustomerBatchRequestDTO;
 import com.bookstore.mobilebff.dto.CustomerDTO;
 import com.bookstore.mobilebff.service.CustomerService;
+import com.bookstore.mobilebff.util.CustomerDTOValidator;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/customers")
 public class CustomerController {
@@ -16,6 +21,14 @@ public class CustomerController {
     @Autowired
     private CustomerService customerService;
 
+    @Autowired
+    private CustomerDTOValidator customerDTOValidator;
+
+    @InitBinder("customerDTO")
+    public void initCustomerBinder(WebDataBinder binder) {
+        binder.setValidator(customerDTOValidator);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CustomerDTO> getCustomerById(@PathVariable Long id) {
         try {
@@ -37,6 +50,16 @@ public class CustomerController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<CustomerDTO>> getCustomersBatch(@RequestBody CustomerBatchRequestDTO request) {
+        try {
+            ResponseEntity<List<CustomerDTO>> foundCustomers = customerService.getCustomersBatch(request);
+            return ResponseEntity.status(HttpStatus.OK).body(foundCustomers.getBody());
+        }catch (HttpClientErrorException.BadRequest e){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
     @PostMapping
     public ResponseEntity<CustomerDTO> addCustomer(@Valid @RequestBody CustomerDTO customerDTO) {
         try {
@@ -0,0 +1,18 @@
+package com.bookstore.mobilebff.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class BookChangesDTO {
+    private List<BookDTO> changed;
+
+    private List<String> deleted;
+
+    private String nextToken;
+
+    private boolean hasMore;
+}
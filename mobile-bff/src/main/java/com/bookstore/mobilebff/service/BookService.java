@@ -1,32 +1,60 @@
 package com.bookstore.mobilebff.service;
 
+import com.bookstore.mobilebff.dto.BookChangeKeysDTO;
+import com.bookstore.mobilebff.dto.BookChangesDTO;
 import com.bookstore.mobilebff.dto.BookDTO;
+import com.bookstore.mobilebff.hotkeys.HotBookCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
 
 @Service
 public class BookService {
 
+    private static final Logger log = LoggerFactory.getLogger(BookService.class);
+
+    private static final int CHANGES_PAGE = 1000;
+
     private final RestTemplate restTemplate;
     private final String baseUrl;
+    private final HotBookCache hotBookCache;
+    private volatile String changesToken;
+    // Assumed up at startup so that a feed that is missing from the start is logged
+    private volatile boolean changesFeedUp = true;
 
     @Autowired
     public BookService(RestTemplate restTemplate,
-                       @Value("${backend.services.base-url}") String baseUrl) {
+                       @Value("${backend.services.base-url}") String baseUrl,
+                       HotBookCache hotBookCache) {
         this.restTemplate = restTemplate;
         this.baseUrl = baseUrl;
+        this.hotBookCache = hotBookCache;
     }
 
     public ResponseEntity<BookDTO> getBook(String isbn) {
+        BookDTO cached = hotBookCache.get(isbn);
+        if (cached != null) {
+            return ResponseEntity.ok(cached);
+        }
+        long stamp = hotBookCache.stamp(isbn);
         ResponseEntity<BookDTO> response = restTemplate.getForEntity(baseUrl + "/books/" + isbn, BookDTO.class);
 
         if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
             transformBookForMobile(response.getBody());
+            hotBookCache.put(isbn, response.getBody(), stamp);
         }
 
         return response;
@@ -42,6 +70,7 @@ public class BookService {
                 HttpMethod.PUT,
                 new HttpEntity<>(bookDTO),
                 BookDTO.class);
+        hotBookCache.invalidate(isbn);
 
         if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
             transformBookForMobile(response.getBody());
@@ -50,6 +79,96 @@ public class BookService {
         return response;
     }
 
+    public ResponseEntity<BookChangesDTO> getChanges(String since, int limit) {
+        String url = UriComponentsBuilder.fromUriString(baseUrl + "/books/changes")
+                .queryParam("since", since)
+                .queryParam("limit", limit)
+                .toUriString();
+
+        ResponseEntity<BookChangesDTO> response = restTemplate.getForEntity(url, BookChangesDTO.class);
+
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null
+                && response.getBody().getChanged() != null) {
+            response.getBody().getChanged().forEach(this::transformBookForMobile);
+        }
+
+        return response;
+    }
+
+    public ResponseEntity<Void> patchBook(String isbn, Map<String, Object> patch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.valueOf("application/merge-patch+json"));
+        ResponseEntity<Void> response = restTemplate.exchange(
+                baseUrl + "/books/" + isbn,
+                HttpMethod.PATCH,
+                new HttpEntity<>(patch, headers),
+                Void.class);
+        hotBookCache.invalidate(isbn);
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${hotkeys.refresh-interval-ms:10000}")
+    public void refreshHotBooks() {
+        hotBookCache.refresh(isbn -> {
+            try {
+                BookDTO book = restTemplate.getForObject(baseUrl + "/books/" + isbn, BookDTO.class);
+                transformBookForMobile(book);
+                return book;
+            } catch (RestClientException e) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Drops cached books written through other instances or straight to the
+     * backend, by following the ISBNs of the backend's changes feed. The first
+     * token is taken from the head of the feed, and anything cached before it
+     * is dropped. While the feed is unreachable, entries only expire by TTL;
+     * that is logged once when it starts and once when the feed is back.
+     */
+    @Scheduled(fixedDelayString = "${hotkeys.invalidation-interval-ms:1000}")
+    public void followChanges() {
+        try {
+            if (changesToken == null) {
+                changesToken = fetchChanges("latest").getNextToken();
+                hotBookCache.invalidateAll();
+            } else {
+                BookChangeKeysDTO changes;
+                do {
+                    changes = fetchChanges(changesToken);
+                    if (changes.getChanges() != null) {
+                        changes.getChanges().forEach(change -> hotBookCache.invalidate(change.getIsbn()));
+                    }
+                    changesToken = changes.getNextToken();
+                } while (changes.isHasMore());
+            }
+            if (!changesFeedUp) {
+                changesFeedUp = true;
+                log.info("Following the book changes feed again; cached books are invalidated on write");
+            }
+        } catch (RestClientException e) {
+            // Retried on the next run from the same token
+            if (changesFeedUp) {
+                changesFeedUp = false;
+                log.warn("Book changes feed unavailable, cached books now only expire after their TTL: {}",
+                        e.getMessage());
+            }
+        }
+    }
+
+    private BookChangeKeysDTO fetchChanges(String since) {
+        String url = UriComponentsBuilder.fromUriString(baseUrl + "/books/changes/isbns")
+                .queryParam("since", since)
+                .queryParam("limit", CHANGES_PAGE)
+                .toUriString();
+        BookChangeKeysDTO changes = restTemplate.getForObject(url, BookChangeKeysDTO.class);
+        if (changes == null || changes.getNextToken() == null) {
+            throw new RestClientException("Empty changes page");
+        }
+        return changes;
+    }
+
     /**
      * Transform book genre for mobile clients: Replace "non-fiction" with "3"
      */
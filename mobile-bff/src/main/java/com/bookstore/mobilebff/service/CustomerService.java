@@ -1,5 +1,6 @@
 package com.bookstore.mobilebff.service;
 
+import com.bookstore.mobilebff.dto.CustomerBatchRequestDTO;
 import com.bookstore.mobilebff.dto.CustomerDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,9 +10,15 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.Arrays;
+import java.util.List;
+
 @Service
 public class CustomerService {
 
+    // Everything the mobile views show; address lines are left on the backend
+    private static final String MOBILE_FIELDS = "id,userId,name,phone,city,state,zipcode";
+
     private final RestTemplate restTemplate;
     private final String baseUrl;
 
@@ -23,7 +30,11 @@ public class CustomerService {
     }
 
     public ResponseEntity<CustomerDTO> getCustomerById(Long id) {
-        ResponseEntity<CustomerDTO> response = restTemplate.getForEntity(baseUrl + "/customers/" + id, CustomerDTO.class);
+        String url = UriComponentsBuilder.fromUriString(baseUrl + "/customers/" + id)
+                .queryParam("fields", MOBILE_FIELDS)
+                .toUriString();
+
+        ResponseEntity<CustomerDTO> response = restTemplate.getForEntity(url, CustomerDTO.class);
 
         if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
             CustomerDTO transformedCustomer = transformCustomerForMobile(response.getBody());
@@ -36,6 +47,7 @@ public class CustomerService {
     public ResponseEntity<CustomerDTO> getCustomerByUserId(String userId) {
         String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/customers")
                 .queryParam("userId", userId)
+                .queryParam("fields", MOBILE_FIELDS)
                 .toUriString();
 
         ResponseEntity<CustomerDTO> response = restTemplate.getForEntity(url, CustomerDTO.class);
@@ -52,6 +64,27 @@ public class CustomerService {
         return restTemplate.postForEntity(baseUrl + "/customers", customerDTO, CustomerDTO.class);
     }
 
+    /**
+     * Customers for the requested ids, then userIds, in request order (null where not found),
+     * each with its address fields removed
+     */
+    public ResponseEntity<List<CustomerDTO>> getCustomersBatch(CustomerBatchRequestDTO request) {
+        String url = UriComponentsBuilder.fromUriString(baseUrl + "/customers/batch")
+                .queryParam("fields", MOBILE_FIELDS)
+                .toUriString();
+
+        ResponseEntity<CustomerDTO[]> response = restTemplate.postForEntity(url, request, CustomerDTO[].class);
+
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+            List<CustomerDTO> transformedCustomers = Arrays.stream(response.getBody())
+                    .map(this::transformCustomerForMobile)
+                    .toList();
+            return new ResponseEntity<>(transformedCustomers, HttpStatus.OK);
+        }
+
+        return ResponseEntity.status(response.getStatusCode()).build();
+    }
+
     /**
      * Transform customer data for mobile clients: Remove address fields
      */
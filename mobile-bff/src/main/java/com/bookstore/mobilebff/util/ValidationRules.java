@@ -0,0 +1,209 @@
+package com.bookstore.mobilebff.util;
+
+/**
+ * Hand-written checks for the request constraints, walking the characters
+ * directly instead of going through Bean Validation reflection or regex
+ * matchers, so the passing path allocates nothing. Only the rules the BFF
+ * DTOs need are kept here.
+ */
+public final class ValidationRules {
+
+    // Hibernate Validator default messages, so error output is unchanged
+    public static final String NOT_NULL = "must not be null";
+    public static final String STATE = "must match \"[A-Z]{2}\"";
+    public static final String PRICE_MIN = "must be greater than or equal to 0.00";
+    public static final String PRICE_DIGITS = "numeric value out of bounds (<10 digits>.<2 digits> expected)";
+    // Message on the BFF CustomerDTO.userId @Email and @Pattern
+    public static final String EMAIL_WITH_TLD = "Invalid email format. Must include a domain with TLD (e.g., .com, .org)";
+
+    private static final int MAX_LOCAL_PART = 64;
+    private static final int MAX_DOMAIN = 255;
+    private static final int MAX_LABEL = 63;
+    private static final double PRICE_LIMIT = 1e10;
+
+    private ValidationRules() {}
+
+    /**
+     * {@code @Email}: dot-separated atoms in the local part and in the
+     * domain, where domain labels may not start or end with a hyphen, as
+     * Hibernate Validator checks them. Quoted local-part words are accepted;
+     * IP-literal domains are not.
+     */
+    public static boolean isWellFormedEmail(CharSequence value) {
+        if (value == null || value.length() == 0) {
+            return true;
+        }
+        int at = lastIndexOf(value, '@');
+        if (at <= 0 || at > MAX_LOCAL_PART || value.length() - at - 1 > MAX_DOMAIN) {
+            return false;
+        }
+        int word = 0;
+        while (true) {
+            int end = value.charAt(word) == '"' ? quotedEnd(value, word, at) : atomEnd(value, word, at);
+            if (end == word) {
+                return false;
+            }
+            if (end == at) {
+                break;
+            }
+            if (value.charAt(end) != '.' || end + 1 == at) {
+                return false;
+            }
+            word = end + 1;
+        }
+        int labelStart = at + 1;
+        for (int i = labelStart; i <= value.length(); i++) {
+            if (i == value.length() || value.charAt(i) == '.') {
+                int length = i - labelStart;
+                if (length == 0 || length > MAX_LABEL
+                        || value.charAt(labelStart) == '-' || value.charAt(i - 1) == '-') {
+                    return false;
+                }
+                labelStart = i + 1;
+            } else if (!isAtomChar(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@code ^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\.[a-zA-Z]{2,}$}, the pattern
+     * the BFFs apply to userId.
+     */
+    public static boolean matchesEmailWithTld(CharSequence value) {
+        if (value == null) {
+            return true;
+        }
+        int length = value.length();
+        int i = 0;
+        while (i < length && isLocalPatternChar(value.charAt(i))) {
+            i++;
+        }
+        if (i == 0 || i == length || value.charAt(i) != '@') {
+            return false;
+        }
+        int domainStart = i + 1;
+        int lastDot = -1;
+        for (int j = domainStart; j < length; j++) {
+            char c = value.charAt(j);
+            if (c == '.') {
+                lastDot = j;
+            } else if (!isAsciiLetterOrDigit(c) && c != '-') {
+                return false;
+            }
+        }
+        if (lastDot <= domainStart || length - lastDot - 1 < 2) {
+            return false;
+        }
+        for (int j = lastDot + 1; j < length; j++) {
+            if (!isAsciiLetter(value.charAt(j))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@code @Pattern(regexp = "[A-Z]{2}")}.
+     */
+    public static boolean isStateCode(CharSequence value) {
+        return value == null || value.length() == 2
+                && value.charAt(0) >= 'A' && value.charAt(0) <= 'Z'
+                && value.charAt(1) >= 'A' && value.charAt(1) <= 'Z';
+    }
+
+    /**
+     * {@code @DecimalMin("0.00")}.
+     */
+    public static boolean isNonNegativePrice(Double value) {
+        return value == null || value >= 0;
+    }
+
+    /**
+     * {@code @Digits(integer = 10, fraction = 2)}: under 10^10 in magnitude
+     * and, like Hibernate's check on the shortest decimal form of the double,
+     * no more than two decimals.
+     */
+    public static boolean hasPriceDigits(Double value) {
+        if (value == null) {
+            return true;
+        }
+        double magnitude = Math.abs(value);
+        if (!(magnitude < PRICE_LIMIT)) {
+            return false;
+        }
+        return Math.rint(magnitude * 100) / 100 == magnitude;
+    }
+
+    private static int atomEnd(CharSequence value, int from, int limit) {
+        int i = from;
+        while (i < limit && isAtomChar(value.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * End of the quoted word starting at {@code from}, or {@code from} if it
+     * is not one. Only {@code \\} and {@code \"} escapes are allowed.
+     */
+    private static int quotedEnd(CharSequence value, int from, int limit) {
+        int i = from + 1;
+        while (i < limit) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                return i == from + 1 ? from : i + 1;
+            }
+            if (c == '\\') {
+                if (i + 1 == limit || value.charAt(i + 1) != '\\' && value.charAt(i + 1) != '"') {
+                    return from;
+                }
+                i += 2;
+            } else if (isAtomChar(c) || isQuotedOnlyChar(c)) {
+                i++;
+            } else {
+                return from;
+            }
+        }
+        return from;
+    }
+
+    private static boolean isQuotedOnlyChar(char c) {
+        return switch (c) {
+            case '.', '(', ')', ',', '<', '>', '[', ']', ':', ';', ' ', '@' -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isAtomChar(char c) {
+        if (isAsciiLetterOrDigit(c) || c >= '\u0080') {
+            return true;
+        }
+        return switch (c) {
+            case '!', '#', '$', '%', '&', '\'', '*', '+', '/', '=', '?', '^', '_', '`', '{', '|', '}', '~', '-' -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isLocalPatternChar(char c) {
+        return isAsciiLetterOrDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+    }
+
+    private static int lastIndexOf(CharSequence value, char target) {
+        for (int i = value.length() - 1; i >= 0; i--) {
+            if (value.charAt(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,218 @@
+package bookstore.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only audit log of mutations. Request threads serialize the record
+ * and push it onto a lock-free queue; a single writer thread frames it with
+ * a CRC into a memory-mapped segment and rolls to a new segment when full.
+ * Records appended inside a transaction are only queued once it commits.
+ */
+@Component
+public class AuditLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.dir:audit}")
+    private String dir;
+
+    @Value("${audit.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${audit.keep-segments:4}")
+    private int keepSegments;
+
+    @Value("${audit.flush-interval-ms:1000}")
+    private long flushIntervalMillis;
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private Path directory;
+    private volatile long segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        directory = Paths.get(dir);
+        Files.createDirectories(directory);
+        List<Path> segments = AuditSegments.list(directory);
+        Path last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last == null || AuditSegments.isCompacted(last)) {
+            openSegment(last == null ? 1 : AuditSegments.segmentIndex(last) + 1);
+        } else {
+            openSegment(AuditSegments.segmentIndex(last));
+        }
+        running = true;
+        writer = new Thread(this::run, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * Records a mutation of {@code entity} identified by {@code key}; {@code data} is its new state.
+     */
+    public void append(String entity, String action, String key, Object data) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("entity", entity);
+        record.put("action", action);
+        record.put("key", key);
+        record.put("data", data);
+        Pending pending;
+        try {
+            pending = new Pending(System.currentTimeMillis(), objectMapper.writeValueAsBytes(record));
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize audit record for {} {}", entity, key, e);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(pending);
+                }
+            });
+        } else {
+            enqueue(pending);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${audit.compact-interval-ms:600000}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<Path> live = AuditSegments.list(directory).stream()
+                    .filter(p -> !AuditSegments.isCompacted(p))
+                    .filter(p -> AuditSegments.segmentIndex(p) < segmentIndex)
+                    .toList();
+            for (int i = 0; i < live.size() - keepSegments; i++) {
+                AuditSegments.compact(live.get(i));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Audit segment compaction failed", e);
+        }
+    }
+
+    private void enqueue(Pending pending) {
+        queue.offer(pending);
+        LockSupport.unpark(writer);
+    }
+
+    private void run() {
+        long lastForce = System.nanoTime();
+        boolean dirty = false;
+        while (running || !queue.isEmpty()) {
+            Pending pending = queue.poll();
+            if (pending != null) {
+                try {
+                    write(pending);
+                    dirty = true;
+                } catch (IOException | RuntimeException e) {
+                    log.error("Dropping audit record after write failure", e);
+                }
+                continue;
+            }
+            if (dirty && System.nanoTime() - lastForce >= TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis)) {
+                buffer.force();
+                lastForce = System.nanoTime();
+                dirty = false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis / 4)));
+        }
+    }
+
+    private void write(Pending pending) throws IOException {
+        int frameBytes = AuditSegments.HEADER_BYTES + pending.payload.length;
+        if (frameBytes > segmentBytes) {
+            log.error("Audit record of {} bytes exceeds segment size, dropped", frameBytes);
+            return;
+        }
+        if (buffer.remaining() < frameBytes) {
+            buffer.force();
+            channel.close();
+            openSegment(segmentIndex + 1);
+        }
+        AuditSegments.writeFrame(buffer, pending.timestamp, pending.payload);
+    }
+
+    // Mapping pre-sizes the file with zeros, so a zero length marks the end of data
+    private void openSegment(long index) throws IOException {
+        Path path = AuditSegments.segmentPath(directory, index);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int size = (int) Math.max(segmentBytes, channel.size());
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        int end = AuditSegments.scanEnd(buffer, 0);
+        if (end + 4 <= size && buffer.getInt(end) != 0) {
+            // Torn frame from a crash: clear the tail so readers stop here
+            for (int i = end; i < size; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        buffer.position(end);
+        segmentIndex = index;
+        log.info("Audit log writing {} at offset {}", path, buffer.position());
+    }
+
+    private static final class Pending {
+        final long timestamp;
+        final byte[] payload;
+
+        Pending(long timestamp, byte[] payload) {
+            this.timestamp = timestamp;
+            this.payload = payload;
+        }
+    }
+}
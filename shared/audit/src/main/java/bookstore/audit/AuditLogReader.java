@@ -0,0 +1,87 @@
+package bookstore.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Command-line reader for audit segments.
+ * <pre>
+ * java -cp app.jar -Dloader.main=bookstore.audit.AuditLogReader \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher scan|tail [dir]
+ * </pre>
+ * {@code scan} prints every record in every segment, {@code tail} prints the
+ * newest segment and then follows new records as they are written.
+ */
+public class AuditLogReader {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1 || !(args[0].equals("scan") || args[0].equals("tail"))) {
+            System.err.println("usage: AuditLogReader scan|tail [dir]");
+            System.exit(2);
+        }
+        Path dir = Paths.get(args.length > 1 ? args[1] : "audit");
+        if (args[0].equals("scan")) {
+            for (Path segment : AuditSegments.list(dir)) {
+                AuditSegments.read(segment, AuditLogReader::print);
+            }
+        } else {
+            tail(dir);
+        }
+    }
+
+    private static void tail(Path dir) throws IOException, InterruptedException {
+        Path segment = null;
+        long offset = 0;
+        while (true) {
+            List<Path> segments = AuditSegments.list(dir);
+            Path newest = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (newest != null && !newest.equals(segment) && !AuditSegments.isCompacted(newest)) {
+                if (segment != null) {
+                    offset = follow(segment, offset);
+                }
+                segment = newest;
+                offset = 0;
+            }
+            if (segment != null) {
+                offset = follow(segment, offset);
+            }
+            Thread.sleep(500);
+        }
+    }
+
+    private static long follow(Path segment, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(AuditSegments.HEADER_BYTES);
+            while (offset + AuditSegments.HEADER_BYTES <= channel.size()) {
+                header.clear();
+                channel.read(header, offset);
+                int length = header.getInt(0);
+                if (length <= 0 || offset + AuditSegments.HEADER_BYTES + length > channel.size()) {
+                    break;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                channel.read(payload, offset + AuditSegments.HEADER_BYTES);
+                long timestamp = header.getLong(8);
+                if (AuditSegments.crc(timestamp, payload.array()) != header.getInt(4)) {
+                    break;
+                }
+                print(new AuditSegments.Record(AuditSegments.segmentIndex(segment), offset, timestamp,
+                        new String(payload.array(), StandardCharsets.UTF_8)));
+                offset += AuditSegments.HEADER_BYTES + length;
+            }
+        }
+        return offset;
+    }
+
+    private static void print(AuditSegments.Record record) {
+        System.out.println(record.getSegment() + ":" + record.getOffset() + " "
+                + Instant.ofEpochMilli(record.getTimestamp()) + " " + record.getPayload());
+    }
+}
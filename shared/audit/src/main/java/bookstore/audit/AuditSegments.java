@@ -0,0 +1,190 @@
+package bookstore.audit;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-disk format of the audit log. A segment is a sequence of frames
+ * {@code [int length][int crc32][long timestampMillis][payload]} followed by
+ * zeros; the CRC covers timestamp and payload. Live segments are named
+ * {@code audit-<n>.log}, compacted ones {@code audit-<n>.log.gz}.
+ */
+public final class AuditSegments {
+
+    public static final int HEADER_BYTES = 16;
+
+    private static final String PREFIX = "audit-";
+    private static final String LIVE = ".log";
+    private static final String COMPACTED = ".log.gz";
+
+    private AuditSegments() {}
+
+    public static Path segmentPath(Path dir, long index) {
+        return dir.resolve(String.format("%s%012d%s", PREFIX, index, LIVE));
+    }
+
+    public static long segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.indexOf('.')));
+    }
+
+    public static boolean isCompacted(Path segment) {
+        return segment.getFileName().toString().endsWith(COMPACTED);
+    }
+
+    /**
+     * All live and compacted segments in {@code dir}, oldest first.
+     */
+    public static List<Path> list(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segments = new ArrayList<>(files
+                    .filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(PREFIX) && (name.endsWith(LIVE) || name.endsWith(COMPACTED));
+                    })
+                    .toList());
+            segments.sort((a, b) -> Long.compare(segmentIndex(a), segmentIndex(b)));
+            return segments;
+        }
+    }
+
+    public static void writeFrame(ByteBuffer buffer, long timestamp, byte[] payload) {
+        buffer.putInt(payload.length);
+        buffer.putInt(crc(timestamp, payload));
+        buffer.putLong(timestamp);
+        buffer.put(payload);
+    }
+
+    /**
+     * Offset just past the last intact frame, starting at {@code from}.
+     */
+    public static int scanEnd(ByteBuffer buffer, int from) {
+        int pos = from;
+        while (pos + HEADER_BYTES <= buffer.limit()) {
+            int length = buffer.getInt(pos);
+            if (length <= 0 || pos + HEADER_BYTES + length > buffer.limit()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(pos + HEADER_BYTES, payload);
+            if (crc(buffer.getLong(pos + 8), payload) != buffer.getInt(pos + 4)) {
+                break;
+            }
+            pos += HEADER_BYTES + length;
+        }
+        return pos;
+    }
+
+    /**
+     * Streams every intact record of a live or compacted segment to {@code consumer}.
+     */
+    public static void read(Path segment, Consumer<Record> consumer) throws IOException {
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(segment));
+             DataInputStream in = new DataInputStream(isCompacted(segment) ? new GZIPInputStream(raw) : raw)) {
+            long offset = 0;
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                if (length <= 0) {
+                    return;
+                }
+                int crc = in.readInt();
+                long timestamp = in.readLong();
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                if (crc(timestamp, payload) != crc) {
+                    return;
+                }
+                consumer.accept(new Record(segmentIndex(segment), offset, timestamp,
+                        new String(payload, StandardCharsets.UTF_8)));
+                offset += HEADER_BYTES + length;
+            }
+        }
+    }
+
+    /**
+     * Rewrites a closed live segment as a gzip file holding only its intact
+     * frames, then deletes the original.
+     */
+    public static Path compact(Path segment) throws IOException {
+        Path target = segment.resolveSibling(segment.getFileName().toString().replace(LIVE, COMPACTED));
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+            ByteBuffer frame = ByteBuffer.allocate(1 << 16);
+            read(segment, record -> {
+                byte[] payload = record.getPayload().getBytes(StandardCharsets.UTF_8);
+                ByteBuffer buffer = frame.capacity() >= HEADER_BYTES + payload.length
+                        ? frame.clear() : ByteBuffer.allocate(HEADER_BYTES + payload.length);
+                writeFrame(buffer, record.getTimestamp(), payload);
+                try {
+                    out.write(buffer.array(), 0, buffer.position());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        Files.move(temp, target);
+        Files.delete(segment);
+        return target;
+    }
+
+    static int crc(long timestamp, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putLong(0, timestamp).array());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    public static class Record {
+        private final long segment;
+        private final long offset;
+        private final long timestamp;
+        private final String payload;
+
+        Record(long segment, long offset, long timestamp, String payload) {
+            this.segment = segment;
+            this.offset = offset;
+            this.timestamp = timestamp;
+            this.payload = payload;
+        }
+
+        public long getSegment() {
+            return segment;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getPayload() {
+            return payload;
+        }
+    }
+}
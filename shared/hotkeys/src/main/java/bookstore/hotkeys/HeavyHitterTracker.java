@@ -0,0 +1,138 @@
+package bookstore.hotkeys;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Count-Min Sketch for frequency estimates plus a Space-Saving style monitored
+ * set of the heaviest keys. Sketch cells are atomics. Replacing the minimum
+ * monitored key scans the set under a lock, taken with {@code tryLock} so a
+ * recording thread that finds it held skips the replacement rather than
+ * waiting; recording is therefore not lock-free, but does not queue behind
+ * another recorder. {@link #decay()} halves every counter so a short spike
+ * fades while a steadily hot key stays on top.
+ */
+public class HeavyHitterTracker {
+
+    private final int width;
+    private final int depth;
+    private final int capacity;
+    private final AtomicLongArray cells;
+    private final ConcurrentHashMap<String, Long> monitored;
+    private final ReentrantLock replacement = new ReentrantLock();
+    private volatile long monitoredMin;
+
+    public HeavyHitterTracker(int width, int depth, int capacity) {
+        this.width = Integer.highestOneBit(Math.max(width, 16));
+        this.depth = Math.max(depth, 1);
+        this.capacity = Math.max(capacity, 1);
+        this.cells = new AtomicLongArray(this.width * this.depth);
+        this.monitored = new ConcurrentHashMap<>(this.capacity * 2);
+    }
+
+    public long record(String key) {
+        int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, cells.incrementAndGet(row * width + index(hash, row)));
+        }
+
+        if (monitored.replace(key, estimate) != null) {
+            return estimate;
+        }
+        if (monitored.size() < capacity) {
+            monitored.putIfAbsent(key, estimate);
+        } else if (estimate > monitoredMin && replacement.tryLock()) {
+            try {
+                Map.Entry<String, Long> min = null;
+                for (Map.Entry<String, Long> entry : monitored.entrySet()) {
+                    if (min == null || entry.getValue() < min.getValue()) {
+                        min = entry;
+                    }
+                }
+                if (min != null && estimate > min.getValue()) {
+                    monitored.remove(min.getKey());
+                    monitored.put(key, estimate);
+                }
+                monitoredMin = minMonitored();
+            } finally {
+                replacement.unlock();
+            }
+        }
+        return estimate;
+    }
+
+    public long estimate(String key) {
+        int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, cells.get(row * width + index(hash, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Monitored keys with at least {@code minHits} hits, heaviest first.
+     */
+    public List<Hit> top(int limit, long minHits) {
+        List<Hit> hits = new ArrayList<>();
+        monitored.forEach((key, count) -> {
+            if (count >= minHits) {
+                hits.add(new Hit(key, count));
+            }
+        });
+        hits.sort(Comparator.comparingLong(Hit::getCount).reversed());
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    public void decay() {
+        for (int i = 0; i < cells.length(); i++) {
+            cells.getAndUpdate(i, v -> v >> 1);
+        }
+        monitored.replaceAll((key, count) -> count >> 1);
+        monitored.values().removeIf(count -> count == 0);
+        monitoredMin = minMonitored();
+    }
+
+    private long minMonitored() {
+        if (monitored.size() < capacity) {
+            return 0;
+        }
+        long min = Long.MAX_VALUE;
+        for (long count : monitored.values()) {
+            min = Math.min(min, count);
+        }
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    private int index(int hash, int row) {
+        int h = hash * (0x9E3779B9 + (row << 1));
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h & (width - 1);
+    }
+
+    public static class Hit {
+        private final String key;
+        private final long count;
+
+        public Hit(String key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
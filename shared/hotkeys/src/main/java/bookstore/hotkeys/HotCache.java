@@ -0,0 +1,210 @@
+package bookstore.hotkeys;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Read cache keyed by string, split into an area for recent reads and a
+ * pinned area for the current heavy hitters. Pinned entries are never evicted
+ * by capacity pressure and are re-loaded ahead of requests on every
+ * {@link #refresh}, which the owning service schedules along with
+ * invalidation of keys written elsewhere.
+ * <p>
+ * Reads take no lock. The recent area is trimmed to its capacity by one
+ * thread at a time, dropping the least recently read tenth.
+ * <p>
+ * A loaded value is only cached if its key was not invalidated while it was
+ * being loaded: callers read {@link #stamp} first and pass it to
+ * {@link #put}, so a read that overlaps a write cannot put the old row back.
+ */
+public class HotCache<V> {
+
+    private static final int STRIPES = 1024;
+
+    private final HeavyHitterTracker tracker;
+    private final int hotSize;
+    private final long minHits;
+    private final int capacity;
+    private final long ttlMillis;
+    private final ConcurrentHashMap<String, Entry<V>> recent = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Entry<V>> pinned = new ConcurrentHashMap<>();
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+    private final ReentrantLock trimming = new ReentrantLock();
+    private volatile Set<String> hot = Set.of();
+
+    public HotCache(int width, int depth, int hotSize, long minHits, int capacity, long ttlMillis) {
+        this.tracker = new HeavyHitterTracker(width, depth, hotSize * 4);
+        this.hotSize = hotSize;
+        this.minHits = minHits;
+        this.capacity = Math.max(capacity, 1);
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Records the read for heavy-hitter tracking and returns the cached value, or null on a miss.
+     */
+    public V get(String key) {
+        tracker.record(key);
+        Entry<V> entry = pinned.get(key);
+        if (entry == null) {
+            entry = recent.get(key);
+            if (entry != null) {
+                entry.touch();
+            }
+        }
+        return entry == null || entry.isExpired(ttlMillis) ? null : entry.value;
+    }
+
+    /**
+     * The invalidation stamp for {@code key}; read it before loading the value to cache.
+     */
+    public long stamp(String key) {
+        return stamps.get(stripe(key));
+    }
+
+    /**
+     * Caches a value loaded after {@code stamp} was read, unless the key has
+     * been invalidated since.
+     */
+    public void put(String key, V value, long stamp) {
+        place(hot.contains(key) ? pinned : recent, key, new Entry<>(value), stamp);
+    }
+
+    public void invalidate(String key) {
+        stamps.incrementAndGet(stripe(key));
+        pinned.remove(key);
+        recent.remove(key);
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            stamps.incrementAndGet(i);
+        }
+        pinned.clear();
+        recent.clear();
+    }
+
+    /**
+     * Ages the sketch, recomputes the hot set, pins it and pre-warms any hot
+     * key that is missing or stale using {@code loader}.
+     */
+    public void refresh(Function<String, V> loader) {
+        tracker.decay();
+        Set<String> nextHot = new HashSet<>();
+        for (HeavyHitterTracker.Hit hit : tracker.top(hotSize, minHits)) {
+            nextHot.add(hit.getKey());
+        }
+        hot = nextHot;
+
+        for (String key : new ArrayList<>(pinned.keySet())) {
+            if (!nextHot.contains(key)) {
+                long stamp = stamp(key);
+                Entry<V> demoted = pinned.remove(key);
+                if (demoted != null) {
+                    place(recent, key, demoted, stamp);
+                }
+            }
+        }
+        for (String key : nextHot) {
+            long stamp = stamp(key);
+            Entry<V> entry = pinned.get(key);
+            if (entry == null) {
+                entry = recent.remove(key);
+            }
+            if (entry == null || entry.isExpired(ttlMillis)) {
+                V value = loader.apply(key);
+                entry = value == null ? null : new Entry<>(value);
+            }
+            if (entry != null) {
+                place(pinned, key, entry, stamp);
+            }
+        }
+    }
+
+    /**
+     * The hot keys with their hit counts, each under {@code keyName}, for admin endpoints.
+     */
+    public List<Map<String, Object>> hotSet(String keyName) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (HeavyHitterTracker.Hit hit : tracker.top(hotSize, minHits)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put(keyName, hit.getKey());
+            item.put("hits", hit.getCount());
+            item.put("pinned", pinned.containsKey(hit.getKey()));
+            result.add(item);
+        }
+        return result;
+    }
+
+    // An invalidate either bumps the stamp before the first check, or runs its
+    // remove after our put, or bumps it before the second check and we undo the put
+    private void place(Map<String, Entry<V>> area, String key, Entry<V> entry, long stamp) {
+        int stripe = stripe(key);
+        if (stamps.get(stripe) != stamp) {
+            return;
+        }
+        area.put(key, entry);
+        if (stamps.get(stripe) != stamp) {
+            area.remove(key, entry);
+        } else if (area == recent && recent.size() > capacity) {
+            trim();
+        }
+    }
+
+    private void trim() {
+        if (!trimming.tryLock()) {
+            return;
+        }
+        try {
+            int excess = recent.size() - capacity * 9 / 10;
+            if (excess <= 0) {
+                return;
+            }
+            long[] reads = recent.values().stream().mapToLong(entry -> entry.lastRead).toArray();
+            if (reads.length == 0) {
+                return;
+            }
+            Arrays.sort(reads);
+            long cutoff = reads[Math.min(excess, reads.length) - 1];
+            recent.entrySet().removeIf(e -> e.getValue().lastRead <= cutoff);
+        } finally {
+            trimming.unlock();
+        }
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long loadedAt = System.currentTimeMillis();
+        volatile long lastRead = loadedAt;
+
+        Entry(V value) {
+            this.value = value;
+        }
+
+        // Skips the store when unchanged so a hot entry's cache line is not written on every hit
+        void touch() {
+            long now = System.currentTimeMillis();
+            if (lastRead != now) {
+                lastRead = now;
+            }
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package bookstore.sqllog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Replaces always-on SQL logging. Every statement's latency goes into a
+ * per-shape histogram (literals and IN lists collapsed); only statements
+ * over {@code sqllog.slow-threshold-ms} are always logged, plus a random
+ * {@code sqllog.sample-rate} of the rest. Bind values are never logged.
+ */
+@Component
+public class SlowQueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern VALUES_LIST = Pattern.compile("(?i)\\bvalues\\s*(\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\))(?:\\s*,\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\))+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final String OTHER = "(other)";
+
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final int maxShapes;
+    private final ConcurrentHashMap<String, String> shapes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ShapeStats> stats = new ConcurrentHashMap<>();
+
+    public SlowQueryLog(@Value("${sqllog.slow-threshold-ms:200}") long slowThresholdMillis,
+                        @Value("${sqllog.sample-rate:0.001}") double sampleRate,
+                        @Value("${sqllog.max-shapes:1000}") int maxShapes) {
+        this.slowThresholdNanos = slowThresholdMillis * 1_000_000;
+        this.sampleRate = sampleRate;
+        this.maxShapes = maxShapes;
+    }
+
+    public void record(String sql, long nanos) {
+        String shape = shape(sql);
+        ShapeStats shapeStats = stats.get(shape);
+        if (shapeStats == null) {
+            shapeStats = stats.size() < maxShapes
+                    ? stats.computeIfAbsent(shape, k -> new ShapeStats())
+                    : stats.computeIfAbsent(OTHER, k -> new ShapeStats());
+        }
+        shapeStats.record(nanos);
+        if (nanos >= slowThresholdNanos) {
+            log.warn("Slow SQL ({} ms): {}", nanos / 1_000_000, shape);
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("Sampled SQL ({} us): {}", nanos / 1_000, shape);
+        }
+    }
+
+    /**
+     * Aggregates per statement shape, most total time first.
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<Map.Entry<String, ShapeStats>> entries = new ArrayList<>(stats.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, ShapeStats> e) -> e.getValue().totalNanos.sum()).reversed());
+        List<Map<String, Object>> result = new ArrayList<>(entries.size());
+        for (Map.Entry<String, ShapeStats> entry : entries) {
+            ShapeStats shapeStats = entry.getValue();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("sql", entry.getKey());
+            item.put("count", shapeStats.count.sum());
+            item.put("totalMs", shapeStats.totalNanos.sum() / 1_000_000);
+            item.put("p50Ms", shapeStats.percentileMillis(0.50));
+            item.put("p99Ms", shapeStats.percentileMillis(0.99));
+            item.put("maxMs", shapeStats.maxNanos.get(0) / 1_000_000.0);
+            result.add(item);
+        }
+        return result;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    // Raw SQL strings repeat (prepared statements), so the normalized shape is cached
+    String shape(String sql) {
+        if (sql == null) {
+            return OTHER;
+        }
+        String cached = shapes.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        shape = IN_LIST.matcher(shape).replaceAll("in (...)");
+        shape = VALUES_LIST.matcher(shape).replaceAll("values $1, ...");
+        if (shapes.size() < maxShapes * 4) {
+            shapes.put(sql, shape);
+        }
+        return shape;
+    }
+
+    /**
+     * Log-linear latency histogram: 8 buckets per power of two of
+     * microseconds, so percentiles are within about 9%.
+     */
+    private static final class ShapeStats {
+        private static final int SUB_BUCKETS = 8;
+        private static final int BUCKETS = SUB_BUCKETS * 40;
+
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLongArray maxNanos = new AtomicLongArray(1);
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(0, nanos, Math::max);
+            buckets.incrementAndGet(bucket(Math.max(1, nanos / 1_000)));
+        }
+
+        double percentileMillis(double quantile) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                total += buckets.get(i);
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.round(upperBoundMicros(i) / 10.0) / 100.0;
+                }
+            }
+            return Math.round(upperBoundMicros(BUCKETS - 1) / 10.0) / 100.0;
+        }
+
+        private static int bucket(long micros) {
+            int octave = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = octave < 3
+                    ? (int) (micros << (3 - octave)) & (SUB_BUCKETS - 1)
+                    : (int) (micros >>> (octave - 3)) & (SUB_BUCKETS - 1);
+            return Math.min(BUCKETS - 1, octave * SUB_BUCKETS + sub);
+        }
+
+        private static double upperBoundMicros(int bucket) {
+            int octave = bucket / SUB_BUCKETS;
+            int sub = bucket % SUB_BUCKETS;
+            return Math.pow(2, octave) * (1 + (sub + 1) / (double) SUB_BUCKETS);
+        }
+    }
+}
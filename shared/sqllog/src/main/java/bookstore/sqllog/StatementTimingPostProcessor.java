@@ -0,0 +1,141 @@
+package bookstore.sqllog;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Wraps every DataSource so statement executions are timed into
+ * {@link SlowQueryLog}. Covers JPA and JdbcTemplate alike. The proxies
+ * forward {@code unwrap}, so the pool behind it stays reachable.
+ */
+@Component
+public class StatementTimingPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SlowQueryLog> slowQueryLogProvider;
+    private volatile SlowQueryLog slowQueryLog;
+
+    public StatementTimingPostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        this.slowQueryLogProvider = slowQueryLog;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !Proxy.isProxyClass(bean.getClass())) {
+            return proxy(DataSource.class, dataSource, new DataSourceHandler(dataSource));
+        }
+        return bean;
+    }
+
+    // Resolved on first use; a post-processor should not pull beans in while it is being created
+    private SlowQueryLog slowQueryLog() {
+        SlowQueryLog current = slowQueryLog;
+        if (current == null) {
+            current = slowQueryLogProvider.getObject();
+            slowQueryLog = current;
+        }
+        return current;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class DataSourceHandler implements InvocationHandler {
+        private final DataSource target;
+
+        DataSourceHandler(DataSource target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = forward(target, method, args);
+            if (result instanceof Connection connection) {
+                return proxy(Connection.class, connection, new ConnectionHandler(connection));
+            }
+            return result;
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = forward(target, method, args);
+            switch (method.getName()) {
+                case "prepareCall" -> {
+                    return proxy(CallableStatement.class, (CallableStatement) result,
+                            new StatementHandler(result, (String) args[0]));
+                }
+                case "prepareStatement" -> {
+                    return proxy(PreparedStatement.class, (PreparedStatement) result,
+                            new StatementHandler(result, (String) args[0]));
+                }
+                case "createStatement" -> {
+                    return proxy(Statement.class, (Statement) result, new StatementHandler(result, null));
+                }
+                default -> {
+                    return result;
+                }
+            }
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Object target;
+        private final String preparedSql;
+        private String batchSql;
+
+        StatementHandler(Object target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1 && batchSql == null) {
+                batchSql = (String) args[0];
+            }
+            if (!name.startsWith("execute")) {
+                return forward(target, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text
+                    : preparedSql != null ? preparedSql : batchSql;
+            long start = System.nanoTime();
+            try {
+                return forward(target, method, args);
+            } finally {
+                slowQueryLog().record(sql, System.nanoTime() - start);
+                if (name.endsWith("Batch")) {
+                    batchSql = null;
+                }
+            }
+        }
+    }
+}
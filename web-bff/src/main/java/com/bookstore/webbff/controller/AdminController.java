@@ -0,0 +1,24 @@
+package com.bookstore.webbff.controller;
+
+import com.bookstore.webbff.hotkeys.HotBookCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    @Autowired
+    private HotBookCache hotBookCache;
+
+    @GetMapping("/hot-books")
+    public ResponseEntity<List<Map<String, Object>>> getHotBooks() {
+        return ResponseEntity.ok(hotBookCache.hotSet());
+    }
+}
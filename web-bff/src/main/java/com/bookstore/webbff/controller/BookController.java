@@ -2,10 +2,12 @@ package com.bookstore.webbff.controller;
 
 import com.bookstore.webbff.dto.BookDTO;
 import com.bookstore.webbff.service.BookService;
+import com.bookstore.webbff.util.BookDTOValidator;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
 
@@ -18,6 +20,14 @@ public class BookController {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BookDTOValidator bookDTOValidator;
+
+    @InitBinder("bookDTO")
+    public void initBookBinder(WebDataBinder binder) {
+        binder.setValidator(bookDTOValidator);
+    }
+
     @GetMapping({"/isbn/{isbn}", "/{isbn}"})
     public ResponseEntity<BookDTO> getBookByIsbn(@PathVariable String isbn) {
         try {
@@ -51,4 +61,16 @@ public class BookController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
+
+    @PatchMapping(value = "/{isbn}", consumes = {"application/merge-patch+json", "application/json"})
+    public ResponseEntity<?> patchBook(@PathVariable String isbn, @RequestBody Map<String, Object> patch) {
+        try {
+            bookService.patchBook(isbn, patch);
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        }catch (HttpClientErrorException.NotFound e){
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }catch (HttpClientErrorException.BadRequest e){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getResponseBodyAsString());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.bookstore.webbff.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class BookChangeKeysDTO {
+    private List<Key> changes;
+
+    private String nextToken;
+
+    private boolean hasMore;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key {
+        private String isbn;
+
+        private long seq;
+    }
+}
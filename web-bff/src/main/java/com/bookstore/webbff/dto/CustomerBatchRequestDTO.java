@@ -0,0 +1,14 @@
+package com.bookstore.webbff.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class CustomerBatchRequestDTO {
+    private List<Long> ids;
+
+    private List<String> userIds;
+}
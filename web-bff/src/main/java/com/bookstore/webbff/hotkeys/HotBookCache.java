@@ -0,0 +1,32 @@
+package com.bookstore.webbff.hotkeys;
+
+import com.bookstore.webbff.dto.BookDTO;
+import bookstore.hotkeys.HotCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Book read cache with the current heavy hitters pinned, keyed by ISBN. Hot
+ * books are re-loaded from the backend on every refresh, which
+ * {@code BookService} schedules. {@code BookService} also invalidates books
+ * that the backend's changes feed reports as written.
+ */
+@Component
+public class HotBookCache extends HotCache<BookDTO> {
+
+    public HotBookCache(@Value("${hotkeys.sketch.width:4096}") int width,
+                        @Value("${hotkeys.sketch.depth:4}") int depth,
+                        @Value("${hotkeys.hot-size:100}") int hotSize,
+                        @Value("${hotkeys.min-hits:20}") long minHits,
+                        @Value("${hotkeys.cache.capacity:10000}") int capacity,
+                        @Value("${hotkeys.cache.ttl-ms:30000}") long ttlMillis) {
+        super(width, depth, hotSize, minHits, capacity, ttlMillis);
+    }
+
+    public List<Map<String, Object>> hotSet() {
+        return hotSet("ISBN");
+    }
+}
@@ -1,29 +1,61 @@
 package com.bookstore.webbff.service;
 
+import com.bookstore.webbff.dto.BookChangeKeysDTO;
 import com.bookstore.webbff.dto.BookDTO;
+import com.bookstore.webbff.hotkeys.HotBookCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
 
 @Service
 public class BookService {
 
+    private static final Logger log = LoggerFactory.getLogger(BookService.class);
+
+    private static final int CHANGES_PAGE = 1000;
+
     private final RestTemplate restTemplate;
     private final String baseUrl;
+    private final HotBookCache hotBookCache;
+    private volatile String changesToken;
+    // Assumed up at startup so that a feed that is missing from the start is logged
+    private volatile boolean changesFeedUp = true;
 
     @Autowired
     public BookService(RestTemplate restTemplate,
-                       @Value("${backend.services.base-url}") String baseUrl) {
+                       @Value("${backend.services.base-url}") String baseUrl,
+                       HotBookCache hotBookCache) {
         this.restTemplate = restTemplate;
         this.baseUrl = baseUrl;
+        this.hotBookCache = hotBookCache;
     }
 
     public ResponseEntity<BookDTO> getBook(String isbn) {
-        return restTemplate.getForEntity(baseUrl + "/books/" + isbn, BookDTO.class);
+        BookDTO cached = hotBookCache.get(isbn);
+        if (cached != null) {
+            return ResponseEntity.ok(cached);
+        }
+        long stamp = hotBookCache.stamp(isbn);
+        ResponseEntity<BookDTO> response = restTemplate.getForEntity(baseUrl + "/books/" + isbn, BookDTO.class);
+
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+            hotBookCache.put(isbn, response.getBody(), stamp);
+        }
+
+        return response;
     }
 
     public ResponseEntity<BookDTO> createBook(BookDTO bookDTO) {
@@ -31,10 +63,84 @@ public class BookService {
     }
 
     public ResponseEntity<BookDTO> updateBook(String isbn, BookDTO bookDTO) {
-        return restTemplate.exchange(
+        ResponseEntity<BookDTO> response = restTemplate.exchange(
                 baseUrl + "/books/" + isbn,
                 HttpMethod.PUT,
                 new HttpEntity<>(bookDTO),
                 BookDTO.class);
+        hotBookCache.invalidate(isbn);
+        return response;
+    }
+
+    public ResponseEntity<Void> patchBook(String isbn, Map<String, Object> patch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.valueOf("application/merge-patch+json"));
+        ResponseEntity<Void> response = restTemplate.exchange(
+                baseUrl + "/books/" + isbn,
+                HttpMethod.PATCH,
+                new HttpEntity<>(patch, headers),
+                Void.class);
+        hotBookCache.invalidate(isbn);
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${hotkeys.refresh-interval-ms:10000}")
+    public void refreshHotBooks() {
+        hotBookCache.refresh(isbn -> {
+            try {
+                return restTemplate.getForObject(baseUrl + "/books/" + isbn, BookDTO.class);
+            } catch (RestClientException e) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Drops cached books written through other instances or straight to the
+     * backend, by following the ISBNs of the backend's changes feed. The first
+     * token is taken from the head of the feed, and anything cached before it
+     * is dropped. While the feed is unreachable, entries only expire by TTL;
+     * that is logged once when it starts and once when the feed is back.
+     */
+    @Scheduled(fixedDelayString = "${hotkeys.invalidation-interval-ms:1000}")
+    public void followChanges() {
+        try {
+            if (changesToken == null) {
+                changesToken = fetchChanges("latest").getNextToken();
+                hotBookCache.invalidateAll();
+            } else {
+                BookChangeKeysDTO changes;
+                do {
+                    changes = fetchChanges(changesToken);
+                    if (changes.getChanges() != null) {
+                        changes.getChanges().forEach(change -> hotBookCache.invalidate(change.getIsbn()));
+                    }
+                    changesToken = changes.getNextToken();
+                } while (changes.isHasMore());
+            }
+            if (!changesFeedUp) {
+                changesFeedUp = true;
+                log.info("Following the book changes feed again; cached books are invalidated on write");
+            }
+        } catch (RestClientException e) {
+            // Retried on the next run from the same token
+            if (changesFeedUp) {
+                changesFeedUp = false;
+                log.warn("Book changes feed unavailable, cached books now only expire after their TTL: {}",
+                        e.getMessage());
+            }
+        }
+    }
+
+    private BookChangeKeysDTO fetchChanges(String since) {
+        String url = UriComponentsBuilder.fromUriString(baseUrl + "/books/changes/isbns")
+                .queryParam("since", since)
+                .queryParam("limit", CHANGES_PAGE)
+                .toUriString();
+        BookChangeKeysDTO changes = restTemplate.getForObject(url, BookChangeKeysDTO.class);
+        if (changes == null || changes.getNextToken() == null) {
+            throw new RestClientException("Empty changes page");
+        }
+        return changes;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.bookstore.webbff.service;
 
+import com.bookstore.webbff.dto.CustomerBatchRequestDTO;
 import com.bookstore.webbff.dto.CustomerDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,6 +9,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.Arrays;
+import java.util.List;
+
 @Service
 public class CustomerService {
 
@@ -35,4 +39,13 @@ public class CustomerService {
     public ResponseEntity<CustomerDTO> createCustomer(CustomerDTO customerDTO) {
         return restTemplate.postForEntity(baseUrl + "/customers", customerDTO, CustomerDTO.class);
     }
+
+    /**
+     * Customers for the requested ids, then userIds, in request order (null where not found)
+     */
+    public ResponseEntity<List<CustomerDTO>> getCustomersBatch(CustomerBatchRequestDTO request) {
+        ResponseEntity<CustomerDTO[]> response = restTemplate.postForEntity(baseUrl + "/customers/batch", request, CustomerDTO[].class);
+        List<CustomerDTO> customers = response.getBody() == null ? List.of() : Arrays.asList(response.getBody());
+        return ResponseEntity.status(response.getStatusCode()).body(customers);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.bookstore.webbff.util;
+
+import com.bookstore.webbff.dto.CustomerDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * The {@link CustomerDTO} constraints checked directly instead of through
+ * Bean Validation. Field names, codes and messages match what the
+ * annotations on CustomerDTO produce.
+ */
+@Component
+public class CustomerDTOValidator implements Validator {
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return CustomerDTO.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        CustomerDTO customer = (CustomerDTO) target;
+        notNull(errors, "userId", customer.getUserId());
+        notNull(errors, "name", customer.getName());
+        notNull(errors, "phone", customer.getPhone());
+        notNull(errors, "address", customer.getAddress());
+        notNull(errors, "city", customer.getCity());
+        notNull(errors, "state", customer.getState());
+        notNull(errors, "zipcode", customer.getZipcode());
+        // @Email(regexp) applies both the well-formed check and the pattern; @Pattern only the pattern
+        boolean withTld = ValidationRules.matchesEmailWithTld(customer.getUserId());
+        if (!withTld || !ValidationRules.isWellFormedEmail(customer.getUserId())) {
+            errors.rejectValue("userId", "Email", ValidationRules.EMAIL_WITH_TLD);
+        }
+        if (!withTld) {
+            errors.rejectValue("userId", "Pattern", ValidationRules.EMAIL_WITH_TLD);
+        }
+        if (!ValidationRules.isStateCode(customer.getState())) {
+            errors.rejectValue("state", "Pattern", ValidationRules.STATE);
+        }
+    }
+
+    private static void notNull(Errors errors, String field, Object value) {
+        if (value == null) {
+            errors.rejectValue(field, "NotNull", ValidationRules.NOT_NULL);
+        }
+    }
+}